@@ -0,0 +1,63 @@
+package vn.iotstar.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.interceptor.AuthInterceptor;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/** AuthInterceptor.preHandle cho request đã đăng nhập và request ẩn danh bị chuyển hướng. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthInterceptorBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AuthInterceptor interceptor;
+    private MockHttpServletRequest authenticated;
+    private MockHttpServletRequest anonymous;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("auth-interceptor", 0);
+        interceptor = context.getBean(AuthInterceptor.class);
+        String token = context.getBean(SessionManager.class).createSession(new SessionPrincipal(1L, "admin", "admin"));
+        authenticated = new MockHttpServletRequest("GET", "/admin/products");
+        authenticated.setCookies(new Cookie(SessionManager.COOKIE_NAME, token));
+        anonymous = new MockHttpServletRequest("GET", "/admin/products");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean authenticated() throws Exception {
+        return interceptor.preHandle(authenticated, new MockHttpServletResponse(), null);
+    }
+
+    @Benchmark
+    public boolean anonymousRedirect() throws Exception {
+        return interceptor.preHandle(anonymous, new MockHttpServletResponse(), null);
+    }
+}
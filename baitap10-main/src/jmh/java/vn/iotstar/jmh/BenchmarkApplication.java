@@ -0,0 +1,76 @@
+package vn.iotstar.jmh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.iotstar.Baitap10Application;
+import vn.iotstar.service.ProductService;
+
+/**
+ * Khởi động context Spring (không có web server) trên H2 nhúng và nạp bộ dữ liệu
+ * cố định (seed 42) để kết quả giữa các lần chạy/bản phát hành so sánh được.
+ */
+final class BenchmarkApplication {
+
+    static final String[] WORDS = {
+            "phone", "laptop", "mouse", "keyboard", "monitor", "cable", "charger", "speaker",
+            "camera", "tablet", "router", "printer", "headset", "adapter", "watch", "drone",
+            "black", "white", "silver", "pro", "mini", "max", "ultra", "wireless", "gaming", "office"
+    };
+    static final int CATEGORIES = 50;
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * {@code overrides} thêm hoặc ghi đè thuộc tính mặc định (ví dụ kích thước pool kết nối).
+     */
+    static ConfigurableApplicationContext start(String name, int products, String... overrides) {
+        List<String> properties = new ArrayList<>(List.of("spring.main.web-application-type=none",
+                "spring.main.banner-mode=off",
+                "spring.datasource.url=jdbc:h2:mem:jmh-" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "spring.thymeleaf.cache=true",
+                "logging.level.root=WARN"));
+        properties.addAll(Arrays.asList(overrides));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Baitap10Application.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        seed(context.getBean(JdbcTemplate.class), products);
+        context.getBean(ProductService.class).rebuildSearchIndex();
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbc, int products) {
+        Random random = new Random(42);
+        List<Object[]> categories = new ArrayList<>(CATEGORIES);
+        for (int c = 1; c <= CATEGORIES; c++) {
+            categories.add(new Object[] { "Category " + c });
+        }
+        jdbc.batchUpdate("INSERT INTO categories (category_name) VALUES (?)", categories);
+
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 1; i <= products; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            batch.add(new Object[] { title, "Mô tả chi tiết cho " + title, 10.0 + random.nextInt(5000),
+                    random.nextInt(500), 1 + random.nextInt(CATEGORIES) });
+            if (batch.size() == 10_000) {
+                insertProducts(jdbc, batch);
+                batch.clear();
+            }
+        }
+        insertProducts(jdbc, batch);
+    }
+
+    private static void insertProducts(JdbcTemplate jdbc, List<Object[]> batch) {
+        jdbc.batchUpdate("INSERT INTO products (title, description, price, quantity, category_id) VALUES (?, ?, ?, ?, ?)",
+                batch);
+    }
+}
@@ -0,0 +1,56 @@
+package vn.iotstar.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import vn.iotstar.entity.Category;
+import vn.iotstar.service.CategoryService;
+
+/** CategoryServiceImpl.findAll qua cache; chạy nhiều luồng để thấy chi phí kiểm tra phiên bản. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("category-service", 1000);
+        categoryService = context.getBean(CategoryService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Category> findAll() {
+        return categoryService.findAll();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<Category> findAllContended() {
+        return categoryService.findAll();
+    }
+}
@@ -0,0 +1,98 @@
+package vn.iotstar.jmh;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/**
+ * Độ trễ (kèm p50/p99 trong JSON) của /user/products và /admin/products/search khi có rất nhiều
+ * client đồng thời, với pool luồng Tomcat (platform) và với virtual thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean virtual;
+
+    @Param("20000")
+    public int products;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private HttpRequest userProducts;
+    private HttpRequest adminSearch;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("execution-" + virtual, products,
+                "spring.main.web-application-type=servlet", "server.port=0",
+                "spring.threads.virtual.enabled=" + virtual,
+                // Mọi client cùng một IP: tắt giới hạn tốc độ để đo chính việc xử lý request
+                "app.admission.enabled=false",
+                // Không cache trang: /user/products phải đi tới JDBC mới so sánh được hai kiểu luồng
+                "app.page-cache.enabled=false");
+        SessionManager sessions = context.getBean(SessionManager.class);
+        String userCookie = SessionManager.COOKIE_NAME + "="
+                + sessions.createSession(new SessionPrincipal(2L, "user", "user"));
+        String adminCookie = SessionManager.COOKIE_NAME + "="
+                + sessions.createSession(new SessionPrincipal(1L, "admin", "admin"));
+        String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        userProducts = HttpRequest.newBuilder(URI.create(base + "/user/products"))
+                .header("Cookie", userCookie).timeout(Duration.ofSeconds(30)).build();
+        adminSearch = HttpRequest.newBuilder(URI.create(base + "/admin/products/search?name=wireless"))
+                .header("Cookie", adminCookie).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int userProducts() throws IOException, InterruptedException {
+        return send(userProducts);
+    }
+
+    @Benchmark
+    public int adminSearch() throws IOException, InterruptedException {
+        return send(adminSearch);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("HTTP " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,78 @@
+package vn.iotstar.jmh;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import vn.iotstar.search.FacetIndex;
+
+/** FacetIndex.page và FacetIndex.counts trên bộ sản phẩm tổng hợp, với các tổ hợp bộ lọc khác nhau. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FacetIndexBenchmark {
+
+    private static final double[] BANDS = { 100_000, 500_000, 2_000_000, 10_000_000 };
+    private static final int PAGE = 21;
+
+    @Param("1000000")
+    public int products;
+
+    @Param({ "none", "in-stock", "category", "categories+band", "bands", "empty" })
+    public String filter;
+
+    private FacetIndex index;
+    private List<Long> categories;
+    private List<Integer> bands;
+    private boolean inStock;
+    private long after;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new FacetIndex(BANDS, products);
+        for (int i = 1; i <= products; i++) {
+            index.put(i, (long) (1 + random.nextInt(BenchmarkApplication.CATEGORIES)),
+                    Math.exp(10 + random.nextDouble() * 7), random.nextInt(10) < 8);
+        }
+        index.optimize();
+        categories = switch (filter) {
+            case "category" -> List.of(7L);
+            case "categories+band" -> List.of(1L, 2L, 3L);
+            case "empty" -> List.of(999L);
+            default -> List.of();
+        };
+        bands = switch (filter) {
+            case "categories+band" -> List.of(2);
+            case "bands" -> List.of(0, 4);
+            default -> List.of();
+        };
+        inStock = filter.equals("in-stock") || filter.equals("categories+band") || filter.equals("bands");
+        after = products / 2;
+    }
+
+    @Benchmark
+    public long[] page() {
+        return index.page(categories, bands, inStock, after, PAGE);
+    }
+
+    @Benchmark
+    public FacetIndex.Counts counts() {
+        return index.counts(categories, bands, inStock);
+    }
+}
@@ -0,0 +1,87 @@
+package vn.iotstar.jmh;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/**
+ * GET /user/products qua HTTP thật khi tắt và bật page cache; notModified gửi If-None-Match
+ * nên khi bật cache chỉ nhận 304.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class PageCacheBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private HttpRequest plain;
+    private HttpRequest conditional;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkApplication.start("page-cache-" + cached, 1000,
+                "spring.main.web-application-type=servlet", "server.port=0", "app.page-cache.enabled=" + cached);
+        String cookie = SessionManager.COOKIE_NAME + "="
+                + context.getBean(SessionManager.class).createSession(new SessionPrincipal(2L, "shopper", "user"));
+        URI url = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                + "/user/products");
+        http = HttpClient.newHttpClient();
+        plain = HttpRequest.newBuilder(url).header("Cookie", cookie).build();
+        String etag = http.send(plain, HttpResponse.BodyHandlers.discarding()).headers()
+                .firstValue("ETag").orElse("\"none\"");
+        conditional = HttpRequest.newBuilder(url).header("Cookie", cookie).header("If-None-Match", etag).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int page() throws IOException, InterruptedException {
+        return send(plain);
+    }
+
+    @Benchmark
+    public int notModified() throws IOException, InterruptedException {
+        return send(conditional);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200 && status != 304) {
+            throw new IllegalStateException("HTTP " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,88 @@
+package vn.iotstar.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import vn.iotstar.security.HashingBusyException;
+import vn.iotstar.security.PasswordHasher;
+
+/**
+ * Chi phí một lần kiểm tra bcrypt theo cost, và PasswordHasher khi số luồng đăng nhập vượt xa
+ * số nhân: bao nhiêu lần kiểm tra xong, bao nhiêu lần bị từ chối vì hàng đợi đầy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({ "8", "10", "12" })
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHasher hasher;
+    private String hash;
+
+    /** Số lần kiểm tra xong và số lần bị từ chối, JMH cộng dồn trên mọi luồng. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long verified;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            verified = 0;
+            rejected = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode(PASSWORD);
+        // Hàng đợi nhỏ để thấy backpressure
+        hasher = new PasswordHasher(strength, 0, 64, 2000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void storm(Outcome outcome) {
+        try {
+            hasher.matches(PASSWORD, hash);
+            outcome.verified++;
+        } catch (HashingBusyException e) {
+            outcome.rejected++;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package vn.iotstar.jmh;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductListItem;
+import vn.iotstar.service.ProductService;
+
+/**
+ * Render đầy đủ admin/products/list.html (kèm layout) với N dòng.
+ * Dữ liệu được nạp một lần ở setup nên chỉ đo thời gian render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListRenderBenchmark {
+
+    @Param({ "20", "100", "500" })
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private SpringTemplateEngine templateEngine;
+    private JakartaServletWebApplication application;
+    private MockServletContext servletContext;
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("product-render", Math.max(rows * 2, 1000));
+        templateEngine = context.getBean(SpringTemplateEngine.class);
+        servletContext = new MockServletContext();
+        application = JakartaServletWebApplication.buildApplication(servletContext);
+
+        KeysetPage<ProductListItem> page = context.getBean(ProductService.class).findPage(null, rows);
+        variables = new HashMap<>();
+        variables.put("products", page.getContent());
+        variables.put("page", page);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String render() {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/admin/products");
+        IWebExchange exchange = application.buildExchange(request, new MockHttpServletResponse());
+        StringWriter out = new StringWriter(rows * 512);
+        templateEngine.process("admin/products/list", new WebContext(exchange, Locale.ENGLISH, variables), out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package vn.iotstar.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import vn.iotstar.entity.Product;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductListItem;
+import vn.iotstar.repository.ProductRepository;
+import vn.iotstar.service.ProductService;
+
+/**
+ * ProductServiceImpl.search (xếp hạng qua chỉ mục trigram rồi nạp entity) và searchPage
+ * (trang keyset đầu tiên qua chỉ mục, gồm cả nạp projection và lọc dương tính giả), so với
+ * cùng trang đó đọc bằng LIKE '%kw%'. Điểm 1 triệu sản phẩm là quy mô cần so với LIKE; chỉ chạy
+ * điểm nhỏ bằng -Djmh.args="ProductServiceBenchmark -p products=50000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PAGE = 20;
+
+    @Param({ "50000", "1000000" })
+    public int products;
+
+    @Param({ "wireless", "pro max", "gaming mouse", "zzz" })
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("product-service", products);
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> search() {
+        return productService.search(query);
+    }
+
+    @Benchmark
+    public KeysetPage<ProductListItem> searchPage() {
+        return productService.searchPage(query, null, PAGE);
+    }
+
+    @Benchmark
+    public List<ProductListItem> likePage() {
+        return productRepository.findListItemsByTitle(query, 0L, PageRequest.ofSize(PAGE + 1));
+    }
+}
@@ -0,0 +1,78 @@
+package vn.iotstar.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.iotstar.service.StockService;
+import vn.iotstar.stock.OutOfStockException;
+
+/**
+ * Giữ chỗ + xác nhận trên một SKU rất nóng với nhiều luồng: một UPDATE có điều kiện cho mỗi
+ * lần giữ chỗ (mọi luồng tranh khóa cùng một dòng) so với StockService (thuê lô từ DB,
+ * phục vụ bằng bộ đếm phân ô trong bộ nhớ).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class StockServiceBenchmark {
+
+    private static final long STOCK = 1_000_000_000L;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private StockService stockService;
+    private Long productId;
+
+    /** Mỗi luồng là một người mua riêng để không chạm giới hạn giữ chỗ theo người dùng. */
+    @State(Scope.Thread)
+    public static class Buyer {
+        private static final AtomicLong NEXT_ID = new AtomicLong();
+
+        final Long userId = NEXT_ID.incrementAndGet();
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("stock-service", 0, "spring.datasource.hikari.maximum-pool-size=32");
+        jdbc = context.getBean(JdbcTemplate.class);
+        stockService = context.getBean(StockService.class);
+        jdbc.update("INSERT INTO products (title, price, quantity) VALUES ('Hot SKU', 1.0, ?)", STOCK);
+        productId = jdbc.queryForObject("SELECT MAX(id) FROM products", Long.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void conditionalUpdate() {
+        if (jdbc.update("UPDATE products SET quantity = quantity - 1 WHERE id = ? AND quantity >= 1", productId) == 0) {
+            throw new OutOfStockException(productId, 1);
+        }
+    }
+
+    @Benchmark
+    public void reserveAndCommit(Buyer buyer) {
+        stockService.commit(stockService.reserve(productId, 1, buyer.userId).getId(), buyer.userId);
+    }
+}
@@ -0,0 +1,76 @@
+package vn.iotstar.jmh;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import vn.iotstar.search.UserIndex;
+
+/**
+ * UserIndex.search/suggest cho tìm kiếm người dùng ở trang admin, và chi phí thêm rồi xóa
+ * một người dùng sau khi chỉ mục đã dựng (dịch mảng tiền tố).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserIndexBenchmark {
+
+    private static final String[] NAMES = {
+            "an", "binh", "chi", "dung", "giang", "hoa", "hung", "khanh", "lan", "linh",
+            "minh", "nam", "ngoc", "phuong", "quang", "son", "thao", "trang", "tuan", "vy"
+    };
+    private static final String[] DOMAINS = { "gmail.com", "yahoo.com", "iotstar.vn", "hcmute.edu.vn", "outlook.com" };
+    private static final int PAGE = 21;
+
+    @Param("1000000")
+    public int users;
+
+    @Param({ "a", "mi", "minh", "nguyen", "tuan12", "iotstar", "@hcmute", "zzzz" })
+    public String query;
+
+    private UserIndex index;
+    private long newId;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new UserIndex(users);
+        for (int i = 1; i <= users; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + "_" + NAMES[random.nextInt(NAMES.length)] + i;
+            index.load(i, name, name.replace('_', '.') + "@" + DOMAINS[random.nextInt(DOMAINS.length)]);
+        }
+        index.finishLoad();
+        newId = users + 1L;
+    }
+
+    @Benchmark
+    public long[] search() {
+        return index.search(query, 0L, PAGE);
+    }
+
+    @Benchmark
+    public List<UserIndex.Entry> suggest() {
+        return index.suggest(query, 10);
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        index.add(newId, "newbie_" + query, "newbie@iotstar.vn");
+        return index.remove(newId);
+    }
+}
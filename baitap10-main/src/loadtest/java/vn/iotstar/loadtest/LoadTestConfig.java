@@ -0,0 +1,49 @@
+package vn.iotstar.loadtest;
+
+/**
+ * Tham số load test, đọc từ system property (-Dloadtest.xxx=...).
+ * Tốc độ tính bằng request/giây cho từng loại thao tác; 0 để tắt thao tác đó.
+ */
+record LoadTestConfig(
+        int users,
+        int admins,
+        int products,
+        int warmupSeconds,
+        int durationSeconds,
+        int maxInFlight,
+        double browseProductsRate,
+        double browseCategoriesRate,
+        double searchRate,
+        double adminListRate,
+        double adminCreateRate,
+        double adminUpdateRate,
+        double adminDeleteRate,
+        long seed) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                intProperty("loadtest.users", 200),
+                intProperty("loadtest.admins", 10),
+                intProperty("loadtest.products", 50_000),
+                intProperty("loadtest.warmup", 10),
+                intProperty("loadtest.duration", 60),
+                intProperty("loadtest.max-in-flight", 10_000),
+                doubleProperty("loadtest.rate.browse-products", 200),
+                doubleProperty("loadtest.rate.browse-categories", 50),
+                doubleProperty("loadtest.rate.search", 100),
+                doubleProperty("loadtest.rate.admin-list", 20),
+                doubleProperty("loadtest.rate.admin-create", 5),
+                doubleProperty("loadtest.rate.admin-update", 10),
+                doubleProperty("loadtest.rate.admin-delete", 4),
+                Long.getLong("loadtest.seed", 42L));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,312 @@
+package vn.iotstar.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.iotstar.Baitap10Application;
+import vn.iotstar.security.PasswordHasher;
+import vn.iotstar.service.ProductService;
+import vn.iotstar.session.SessionManager;
+
+/**
+ * Load test đầu-cuối: khởi động ứng dụng trên H2, đăng nhập nhiều tài khoản qua POST /login,
+ * rồi phát các loại request theo mô hình mở (khoảng cách giữa các lần đến theo phân phối mũ)
+ * với tốc độ cấu hình riêng cho từng loại. Báo cáo p50/p99/p99.9 và thông lượng theo endpoint.
+ *
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.duration=120 -Dloadtest.rate.search=300
+ * </pre>
+ */
+public class LoadTestRunner {
+
+    private static final String PASSWORD = "loadtest-password";
+    private static final String[] WORDS = {
+            "phone", "laptop", "mouse", "keyboard", "monitor", "cable", "charger", "speaker",
+            "camera", "tablet", "router", "printer", "headset", "adapter", "watch", "drone",
+            "black", "white", "silver", "pro", "mini", "max", "ultra", "wireless", "gaming", "office"
+    };
+    private static final int CATEGORIES = 50;
+
+    private final LoadTestConfig config;
+    private final HttpClient http;
+    private final List<String> userCookies = new ArrayList<>();
+    private final List<String> adminCookies = new ArrayList<>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private String base;
+    private long seededMaxId;
+
+    LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Giữ kết nối keep-alive suốt bài test thay vì đóng sau 30s rảnh mặc định
+        System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(TimeUnit.MINUTES.toSeconds(10)));
+        new LoadTestRunner(LoadTestConfig.fromSystemProperties()).run();
+    }
+
+    void run() throws Exception {
+        System.out.println(config);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Baitap10Application.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "spring.thymeleaf.cache=true",
+                        // Mọi client ảo cùng IP 127.0.0.1: giới hạn theo IP sẽ trả 429 cho gần hết tải
+                        "app.admission.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            seed(context);
+            base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            Operation login = new Operation("POST /login", 0, null);
+            loginAll(login);
+
+            List<Operation> operations = operations();
+            runPhase(operations, config.warmupSeconds());
+            operations.forEach(Operation::reset);
+            long started = System.nanoTime();
+            runPhase(operations, config.durationSeconds());
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            System.out.printf("%n%-34s %9s %9s %8s %8s %9s %9s %9s %9s%n", "endpoint", "count", "req/s",
+                    "errors", "dropped", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+            print(login, 0);
+            for (Operation operation : operations) {
+                print(operation, seconds);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<Operation> operations() {
+        List<Operation> operations = new ArrayList<>();
+        operations.add(new Operation("GET /user/products", config.browseProductsRate(),
+                () -> get("/user/products", randomCookie(userCookies))));
+        operations.add(new Operation("GET /user/categories", config.browseCategoriesRate(),
+                () -> get("/user/categories", randomCookie(userCookies))));
+        operations.add(new Operation("GET /admin/products/search", config.searchRate(),
+                () -> get("/admin/products/search?name=" + randomWord(), randomCookie(adminCookies))));
+        operations.add(new Operation("GET /admin/products?cursor", config.adminListRate(),
+                () -> get("/admin/products?cursor=" + ThreadLocalRandom.current().nextLong(seededMaxId),
+                        randomCookie(adminCookies))));
+        operations.add(new Operation("POST /admin/products (create)", config.adminCreateRate(), () -> {
+            created.incrementAndGet();
+            return form("/admin/products/saveOrUpdate", randomCookie(adminCookies),
+                    "title=" + encode("loadtest " + randomWord() + " " + randomWord()) + "&description=created"
+                            + "&price=" + ThreadLocalRandom.current().nextInt(10, 5000) + "&quantity=10"
+                            + "&category.id=" + (1 + ThreadLocalRandom.current().nextInt(CATEGORIES)));
+        }));
+        operations.add(new Operation("POST /admin/products (update)", config.adminUpdateRate(), () -> {
+            long id = 1 + ThreadLocalRandom.current().nextLong(seededMaxId);
+            return form("/admin/products/saveOrUpdate", randomCookie(adminCookies),
+                    "id=" + id + "&title=" + encode("updated " + randomWord() + " " + id) + "&description=updated"
+                            + "&price=" + ThreadLocalRandom.current().nextInt(10, 5000) + "&quantity=5"
+                            + "&category.id=" + (1 + ThreadLocalRandom.current().nextInt(CATEGORIES)));
+        }));
+        // Xóa các sản phẩm do bước create tạo ra (id tăng dần sau dữ liệu seed)
+        operations.add(new Operation("GET /admin/products/delete", config.adminDeleteRate(), () -> {
+            long next = deleted.incrementAndGet();
+            long id = next <= created.get() ? seededMaxId + next : seededMaxId + created.get() + 1_000_000;
+            return get("/admin/products/delete/" + id, randomCookie(adminCookies));
+        }));
+        operations.removeIf(operation -> operation.rate <= 0);
+        return operations;
+    }
+
+    private void runPhase(List<Operation> operations, int seconds) throws InterruptedException {
+        if (seconds <= 0) {
+            return;
+        }
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Thread> generators = new ArrayList<>();
+            for (int i = 0; i < operations.size(); i++) {
+                Operation operation = operations.get(i);
+                Random random = new Random(config.seed() + i);
+                generators.add(Thread.ofPlatform().name("arrivals-" + i).start(
+                        () -> generate(operation, random, end, inFlight, requests)));
+            }
+            for (Thread generator : generators) {
+                generator.join();
+            }
+        }
+    }
+
+    private void generate(Operation operation, Random random, long end, Semaphore inFlight, ExecutorService requests) {
+        long meanGap = (long) (1e9 / operation.rate);
+        long intended = System.nanoTime();
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = intended;
+            if (inFlight.tryAcquire()) {
+                requests.execute(() -> {
+                    try {
+                        HttpResponse<Void> response = http.send(operation.requests.get(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            operation.errors.increment();
+                        } else {
+                            operation.record(System.nanoTime() - scheduled);
+                        }
+                    } catch (Exception e) {
+                        operation.errors.increment();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } else {
+                operation.dropped.increment();
+            }
+            intended += (long) (-Math.log(1 - random.nextDouble()) * meanGap);
+        }
+    }
+
+    private void loginAll(Operation login) throws InterruptedException {
+        ConcurrentLinkedQueue<String> users = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> admins = new ConcurrentLinkedQueue<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users() + config.admins(); i++) {
+                boolean admin = i >= config.users();
+                String username = (admin ? "admin" : "user") + i;
+                pool.execute(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                                .header("Content-Type", "application/x-www-form-urlencoded")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        "username=" + username + "&password=" + encode(PASSWORD)))
+                                .build(), HttpResponse.BodyHandlers.discarding());
+                        String cookie = response.headers().allValues("Set-Cookie").stream()
+                                .filter(c -> c.startsWith(SessionManager.COOKIE_NAME + "="))
+                                .map(c -> c.substring(0, c.indexOf(';') > 0 ? c.indexOf(';') : c.length()))
+                                .findFirst().orElse(null);
+                        if (cookie == null) {
+                            login.errors.increment();
+                            return;
+                        }
+                        login.record(System.nanoTime() - start);
+                        (admin ? admins : users).add(cookie);
+                    } catch (Exception e) {
+                        login.errors.increment();
+                    }
+                });
+            }
+        }
+        userCookies.addAll(users);
+        adminCookies.addAll(admins);
+        if (userCookies.isEmpty() || adminCookies.isEmpty()) {
+            throw new IllegalStateException("Login failed for all users or all admins");
+        }
+        System.out.printf("logged in: %d users, %d admins%n", userCookies.size(), adminCookies.size());
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Random random = new Random(config.seed());
+        List<Object[]> categories = new ArrayList<>();
+        for (int c = 1; c <= CATEGORIES; c++) {
+            categories.add(new Object[] { "Category " + c });
+        }
+        jdbc.batchUpdate("INSERT INTO categories (category_name) VALUES (?)", categories);
+
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 1; i <= config.products(); i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            batch.add(new Object[] { title, "Mô tả " + title, 10.0 + random.nextInt(5000), random.nextInt(500),
+                    1 + random.nextInt(CATEGORIES) });
+            if (batch.size() == 10_000) {
+                jdbc.batchUpdate("INSERT INTO products (title, description, price, quantity, category_id) VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO products (title, description, price, quantity, category_id) VALUES (?, ?, ?, ?, ?)", batch);
+        Long maxId = jdbc.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        seededMaxId = maxId == null ? 1 : maxId;
+
+        // Băm một lần rồi dùng chung: mỗi lần đăng nhập vẫn phải kiểm tra bcrypt đầy đủ
+        String hash = context.getBean(PasswordHasher.class).encode(PASSWORD);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < config.users() + config.admins(); i++) {
+            boolean admin = i >= config.users();
+            String username = (admin ? "admin" : "user") + i;
+            users.add(new Object[] { username, username + "@loadtest.local", hash, admin ? "admin" : "user" });
+        }
+        jdbc.batchUpdate("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, ?)", users);
+
+        context.getBean(ProductService.class).rebuildSearchIndex();
+    }
+
+    private HttpRequest get(String path, String cookie) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .header("Cookie", cookie)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest form(String path, String cookie, String body) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String randomCookie(List<String> cookies) {
+        return cookies.get(ThreadLocalRandom.current().nextInt(cookies.size()));
+    }
+
+    private static String randomWord() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void print(Operation operation, double seconds) {
+        Histogram h = operation.snapshot();
+        long count = h.getTotalCount();
+        System.out.printf("%-34s %9d %9s %8d %8d %9.2f %9.2f %9.2f %9.2f%n", operation.name, count,
+                seconds > 0 ? String.format("%.1f", count / seconds) : "-",
+                operation.errors.sum(), operation.dropped.sum(),
+                h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6,
+                h.getValueAtPercentile(99.9) / 1e6, h.getMaxValue() / 1e6);
+    }
+}
@@ -0,0 +1,47 @@
+package vn.iotstar.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Một loại request trong kịch bản. Recorder của HdrHistogram ghi lock-free từ nhiều luồng;
+ * độ trễ được tính từ thời điểm request LẼ RA được gửi (mô hình mở), nên khi server
+ * chậm thì thời gian chờ trong hàng cũng được tính (tránh coordinated omission).
+ */
+final class Operation {
+    private static final long MAX_LATENCY_NANOS = 60_000_000_000L;
+
+    final String name;
+    final double rate;
+    final Supplier<HttpRequest> requests;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+    final LongAdder errors = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+
+    Operation(String name, double rate, Supplier<HttpRequest> requests) {
+        this.name = name;
+        this.rate = rate;
+        this.requests = requests;
+    }
+
+    void record(long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+    }
+
+    /** Bỏ các mẫu của giai đoạn khởi động. */
+    void reset() {
+        recorder.getIntervalHistogram();
+        errors.reset();
+        dropped.reset();
+    }
+
+    synchronized Histogram snapshot() {
+        total.add(recorder.getIntervalHistogram());
+        return total.copy();
+    }
+}
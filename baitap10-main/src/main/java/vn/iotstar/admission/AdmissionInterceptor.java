@@ -0,0 +1,182 @@
+package vn.iotstar.admission;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control cho các endpoint tốn DB (đăng nhập, tìm kiếm): mỗi request phải lấy được
+ * token từ bucket của địa chỉ client, rồi từ bucket chung, rồi một chỗ trong giới hạn đồng thời.
+ * Thiếu một trong ba thì trả 429 kèm Retry-After ngay, trước khi controller chạm tới DB.
+ * Địa chỉ client là request.getRemoteAddr(); sau proxy cần bật server.forward-headers-strategy.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final boolean enabled;
+    private final List<Rule> rules = new ArrayList<>();
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shedRate = new LongAdder();
+    private final LongAdder shedConcurrency = new LongAdder();
+
+    public AdmissionInterceptor(AdmissionProperties properties) {
+        this.enabled = properties.isEnabled();
+        long now = System.nanoTime();
+        for (Map.Entry<String, AdmissionProperties.Limit> entry : properties.getPaths().entrySet()) {
+            rules.add(new Rule(entry.getKey(), entry.getValue(), now));
+        }
+    }
+
+    /** Các mẫu đường dẫn có giới hạn, dùng khi đăng ký interceptor. */
+    public List<String> getPathPatterns() {
+        return rules.stream().map(rule -> rule.pattern).toList();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        Rule rule = enabled ? match(request) : null;
+        if (rule == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        // Bucket riêng trước: client đang spam bị chặn bởi bucket của chính nó, không tiêu token chung
+        long wait = rule.clientRate > 0 ? rule.client(request.getRemoteAddr(), now).tryAcquire(now) : 0L;
+        if (wait == 0L && rule.global != null) {
+            wait = rule.global.tryAcquire(now);
+        }
+        if (wait > 0L) {
+            shedRate.increment();
+            return shed(response, wait);
+        }
+        if (rule.concurrency != null) {
+            if (!rule.concurrency.tryAcquire()) {
+                shedConcurrency.increment();
+                return shed(response, TimeUnit.SECONDS.toNanos(1));
+            }
+            request.setAttribute(PERMIT, rule.concurrency);
+        }
+        admitted.increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Semaphore permit) {
+            request.removeAttribute(PERMIT);
+            permit.release();
+        }
+    }
+
+    /**
+     * Bỏ bucket của các client đã nạp đầy để map không lớn dần theo số địa chỉ từng gặp. Request
+     * đang giữ bucket vừa bị bỏ chỉ khiến client đó được thêm tối đa một token.
+     */
+    @Scheduled(fixedDelayString = "${app.admission.evict-interval-ms:60000}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        for (Rule rule : rules) {
+            rule.clients.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getShed() {
+        return shedRate.sum() + shedConcurrency.sum();
+    }
+
+    public long getShedRate() {
+        return shedRate.sum();
+    }
+
+    public long getShedConcurrency() {
+        return shedConcurrency.sum();
+    }
+
+    public int getInFlight() {
+        int inFlight = 0;
+        for (Rule rule : rules) {
+            if (rule.concurrency != null) {
+                inFlight += rule.maxConcurrent - rule.concurrency.availablePermits();
+            }
+        }
+        return inFlight;
+    }
+
+    private Rule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Rule rule : rules) {
+            if ((rule.methods.isEmpty() || rule.methods.contains(request.getMethod()))
+                    && matcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static boolean shed(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1L, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Quá nhiều yêu cầu, vui lòng thử lại sau " + seconds + " giây");
+        return false;
+    }
+
+    private static final class Rule {
+        final String pattern;
+        final Set<String> methods;
+        final double clientRate;
+        final int clientBurst;
+        final TokenBucket global;
+        final int maxConcurrent;
+        final Semaphore concurrency;
+        final ConcurrentHashMap<String, TokenBucket> clients = new ConcurrentHashMap<>();
+
+        Rule(String pattern, AdmissionProperties.Limit limit, long now) {
+            this.pattern = pattern;
+            this.methods = limit.getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            this.clientRate = limit.getClientRate();
+            this.clientBurst = limit.getClientBurst();
+            this.global = limit.getGlobalRate() > 0
+                    ? new TokenBucket(limit.getGlobalRate(), limit.getGlobalBurst(), now) : null;
+            this.maxConcurrent = limit.getMaxConcurrent();
+            this.concurrency = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        }
+
+        TokenBucket client(String address, long now) {
+            TokenBucket bucket = clients.get(address);
+            if (bucket == null) {
+                bucket = clients.computeIfAbsent(address, k -> new TokenBucket(clientRate, clientBurst, now));
+            }
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package vn.iotstar.admission;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Giới hạn admission control theo đường dẫn, ví dụ:
+ * <pre>
+ * app.admission.paths[/login].methods=POST
+ * app.admission.paths[/login].client-rate=1
+ * app.admission.paths[/login].client-burst=5
+ * </pre>
+ * Giá trị 0 tắt giới hạn tương ứng.
+ */
+@Data
+@ConfigurationProperties("app.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    /** Chu kỳ dọn bucket của các client đã nạp đầy (không còn khác gì bucket mới). */
+    private long evictIntervalMs = 60_000;
+    /** Khóa là mẫu đường dẫn kiểu Ant (có thể chứa *), request lấy giới hạn của mẫu khớp đầu tiên. */
+    private Map<String, Limit> paths = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+        /** Rỗng: mọi phương thức HTTP. */
+        private Set<String> methods = new LinkedHashSet<>();
+        /** Token mỗi giây cho một địa chỉ client. */
+        private double clientRate;
+        private int clientBurst = 1;
+        /** Token mỗi giây chung cho mọi client. */
+        private double globalRate;
+        private int globalBurst = 1;
+        /** Số request được xử lý đồng thời. */
+        private int maxConcurrent;
+    }
+}
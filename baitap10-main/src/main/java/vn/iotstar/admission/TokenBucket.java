@@ -0,0 +1,50 @@
+package vn.iotstar.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket không khóa theo GCRA: thay vì đếm token, lưu "thời điểm đến lý thuyết" (TAT)
+ * của yêu cầu kế tiếp trong một AtomicLong; mỗi lần xin token là một CAS. Bucket đầy
+ * (TAT <= now) tương đương bucket mới tạo, nên có thể bỏ đi mà không đổi hành vi.
+ */
+public final class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong tat;
+
+    /**
+     * @param ratePerSecond số token nạp lại mỗi giây
+     * @param burst số token tối đa dùng liền một lúc
+     */
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate phải > 0 và burst >= 1");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.tat = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Lấy một token: trả về 0 nếu được nhận, ngược lại là số nano giây phải chờ tới khi có token.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = tat.get();
+            long start = current - nowNanos < 0 ? nowNanos : current;
+            long next = start + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /** Bucket đã nạp đầy trở lại. */
+    public boolean isFull(long nowNanos) {
+        return tat.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,5 @@
+package vn.iotstar.audit;
+
+public enum AuditAction {
+    CREATE, UPDATE, DELETE
+}
@@ -0,0 +1,17 @@
+package vn.iotstar.audit;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Một dòng nhật ký audit: ai làm gì với bản ghi nào, lúc nào (epoch millis).
+ */
+public record AuditEntry(long timestamp, String actor, AuditAction action, String entity, long entityId,
+                         String detail) {
+
+    /** Thời điểm theo múi giờ của server, để hiển thị. */
+    public LocalDateTime time() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+}
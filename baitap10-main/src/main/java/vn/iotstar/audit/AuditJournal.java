@@ -0,0 +1,394 @@
+package vn.iotstar.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Nhật ký chỉ ghi nối thêm, chia thành các segment có kích thước cố định được ánh xạ bộ nhớ.
+ * Chỉ một luồng ghi ({@link #append}, {@link #flushIfDue}); nhiều luồng đọc ({@link #query})
+ * đọc song song, chỉ thấy các bản ghi trước vị trí {@code end} đã công bố.
+ *
+ * <pre>
+ * segment (audit-0000000001.log, ...):
+ *   0  int  magic, 4 int version, 8 long timestamp của bản ghi đầu tiên
+ *   16 các bản ghi nối tiếp, phần còn lại của file là 0
+ * bản ghi:
+ *   0  int  độ dài body (0 = hết dữ liệu)
+ *   4  int  CRC32C của body
+ *   8  body: long timestamp, long entityId, rồi action, entity, actor, detail (short độ dài + UTF-8)
+ * </pre>
+ *
+ * Timestamp ghi vào journal không giảm (lấy max với bản ghi trước, lệch tối đa vài ms giữa các
+ * luồng), nên mỗi segment phủ khoảng [timestamp đầu, timestamp đầu của segment sau) và chỉ mục
+ * thưa (timestamp, offset) mỗi {@code indexIntervalBytes} đủ để nhảy tới đầu khoảng cần đọc.
+ */
+public class AuditJournal implements AutoCloseable {
+    private static final int MAGIC = 0x41554431; // "AUD1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER = 8;
+    private static final int MIN_SEGMENT_BYTES = 64 * 1024;
+    private static final int ACTOR_MAX = 64;
+    private static final int ENTITY_MAX = 32;
+    private static final int DETAIL_MAX = 512;
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexIntervalBytes;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_HEADER + 16 + 4 * 2
+            + ENTITY_MAX * 2 + ACTOR_MAX + DETAIL_MAX).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+
+    // Trạng thái của luồng ghi
+    private Segment active;
+    private boolean rollBeforeNextAppend;
+    private long lastTimestamp;
+    private int flushedEnd;
+    private int unflushed;
+    private long lastForceMillis = System.currentTimeMillis();
+
+    public AuditJournal(Path directory, int segmentBytes, int indexIntervalBytes) throws IOException {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("segment-bytes phải >= " + MIN_SEGMENT_BYTES);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.indexIntervalBytes = indexIntervalBytes;
+        Files.createDirectories(directory);
+        // Hai tiến trình (hoặc hai context trong cùng JVM) ghi chung một segment sẽ làm hỏng journal
+        this.lockChannel = FileChannel.open(directory.resolve(".lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (IOException | RuntimeException e) {
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IOException("Audit journal đang được dùng bởi tiến trình khác: " + directory);
+        }
+        this.lock = acquired;
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        for (Path file : files) {
+            Segment segment = Segment.open(file);
+            if (segment != null) {
+                segments.add(segment);
+            }
+        }
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+            active = last.mapForWrite(indexIntervalBytes);
+            lastTimestamp = active.lastTimestamp;
+            flushedEnd = active.end;
+            // Sau sự cố, phần đuôi có thể còn bản ghi dở hoặc trang được ghi không theo thứ tự:
+            // không ghi tiếp lên đó mà mở segment mới
+            rollBeforeNextAppend = !active.cleanTail();
+        }
+    }
+
+    /** Ghi nối một bản ghi; chỉ gọi từ luồng ghi. */
+    public void append(AuditEntry entry) throws IOException {
+        long timestamp = Math.max(entry.timestamp(), lastTimestamp);
+        ByteBuffer record = encode(entry, timestamp);
+        int length = record.remaining();
+        if (active == null || rollBeforeNextAppend || active.end + length > segmentBytes) {
+            roll(timestamp);
+        }
+        Segment segment = active;
+        int position = segment.end;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.put(position + 4, record, 4, length - 4);
+        // Độ dài ghi sau cùng: bản ghi dở dang luôn có độ dài 0 hoặc sai CRC
+        buffer.putInt(position, record.getInt(0));
+        if (segment.index.isEmpty() || position - segment.lastIndexed >= indexIntervalBytes) {
+            segment.index.putIfAbsent(timestamp, position);
+            segment.lastIndexed = position;
+        }
+        lastTimestamp = timestamp;
+        segment.lastTimestamp = timestamp;
+        segment.end = position + length;
+        unflushed++;
+    }
+
+    /**
+     * Đẩy các trang đã ghi xuống đĩa khi đủ {@code batch} bản ghi hoặc đã quá {@code intervalMillis}
+     * kể từ lần trước; chỉ gọi từ luồng ghi.
+     */
+    public void flushIfDue(int batch, long intervalMillis) {
+        long now = System.currentTimeMillis();
+        if (unflushed > 0 && (unflushed >= batch || now - lastForceMillis >= intervalMillis)) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        if (active != null && active.end > flushedEnd) {
+            active.buffer.force(flushedEnd, active.end - flushedEnd);
+            flushedEnd = active.end;
+        }
+        unflushed = 0;
+        lastForceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Tối đa {@code limit} bản ghi mới nhất có timestamp trong [from, to], mới nhất trước.
+     * Duyệt segment từ mới về cũ và dừng khi đủ, nên chỉ đọc các segment phủ khoảng cần xem.
+     */
+    public List<AuditEntry> query(long from, long to, int limit) throws IOException {
+        List<AuditEntry> result = new ArrayList<>();
+        List<Segment> snapshot = List.copyOf(segments);
+        for (int i = snapshot.size() - 1; i >= 0 && result.size() < limit; i--) {
+            Segment segment = snapshot.get(i);
+            if (segment.firstTimestamp > to) {
+                continue;
+            }
+            boolean older = i + 1 < snapshot.size() && snapshot.get(i + 1).firstTimestamp < from;
+            if (older) {
+                break;
+            }
+            List<AuditEntry> matches = segment.read(from, to, indexIntervalBytes);
+            for (int j = matches.size() - 1; j >= 0 && result.size() < limit; j--) {
+                result.add(matches.get(j));
+            }
+        }
+        return result;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        lock.release();
+        lockChannel.close();
+    }
+
+    private void roll(long firstTimestamp) throws IOException {
+        if (active != null) {
+            flush();
+        }
+        int seq = active == null ? 1 : active.seq + 1;
+        Path file = directory.resolve(String.format("%s%010d%s", PREFIX, seq, SUFFIX));
+        Segment segment = Segment.create(file, seq, firstTimestamp, segmentBytes);
+        segments.add(segment);
+        active = segment;
+        rollBeforeNextAppend = false;
+        flushedEnd = HEADER_SIZE;
+    }
+
+    private ByteBuffer encode(AuditEntry entry, long timestamp) {
+        ByteBuffer buffer = scratch.clear();
+        buffer.position(RECORD_HEADER);
+        buffer.putLong(timestamp);
+        buffer.putLong(entry.entityId());
+        putString(buffer, entry.action().name(), ENTITY_MAX);
+        putString(buffer, entry.entity(), ENTITY_MAX);
+        putString(buffer, entry.actor(), ACTOR_MAX);
+        putString(buffer, entry.detail(), DETAIL_MAX);
+        int bodyLength = buffer.position() - RECORD_HEADER;
+        crc.reset();
+        crc.update(buffer.array(), RECORD_HEADER, bodyLength);
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /** Chuỗi dài quá {@code max} byte bị cắt (không cắt giữa một ký tự UTF-8). */
+    private static void putString(ByteBuffer buffer, String value, int max) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length > max) {
+            length = max;
+            while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                length--;
+            }
+        }
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer, int[] position) {
+        int length = buffer.getShort(position[0]) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(position[0] + 2, bytes);
+        position[0] += 2 + length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        final Path file;
+        final int seq;
+        final long firstTimestamp;
+        final ConcurrentSkipListMap<Long, Integer> index = new ConcurrentSkipListMap<>();
+        // ReentrantLock thay vì synchronized: việc ánh xạ/quét file chạy trên luồng request (kể cả virtual thread)
+        final ReentrantLock loadLock = new ReentrantLock();
+        volatile MappedByteBuffer buffer;
+        volatile int end;
+        int lastIndexed;
+        long lastTimestamp;
+
+        private Segment(Path file, int seq, long firstTimestamp) {
+            this.file = file;
+            this.seq = seq;
+            this.firstTimestamp = firstTimestamp;
+        }
+
+        static Segment create(Path file, int seq, long firstTimestamp, int size) throws IOException {
+            Segment segment = new Segment(file, seq, firstTimestamp);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(4, FORMAT_VERSION);
+                buffer.putLong(8, firstTimestamp);
+                buffer.putInt(0, MAGIC);
+                buffer.force(0, HEADER_SIZE);
+                segment.buffer = buffer;
+            }
+            segment.end = HEADER_SIZE;
+            segment.lastTimestamp = firstTimestamp;
+            return segment;
+        }
+
+        /** Đọc header; segment chưa có header hợp lệ (tạo dở) bị bỏ qua. */
+        static Segment open(Path file) throws IOException {
+            String name = file.getFileName().toString();
+            int seq = Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.read(header, 0);
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                return null;
+            }
+            return new Segment(file, seq, header.getLong(8));
+        }
+
+        Segment mapForWrite(int indexIntervalBytes) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                scan(mapped, indexIntervalBytes);
+                buffer = mapped;
+            }
+            return this;
+        }
+
+        /** Vùng sau {@code end} còn trống, ghi tiếp an toàn. */
+        boolean cleanTail() {
+            return end + 4 > buffer.capacity() || buffer.getInt(end) == 0;
+        }
+
+        List<AuditEntry> read(long from, long to, int indexIntervalBytes) throws IOException {
+            MappedByteBuffer mapped = load(indexIntervalBytes);
+            int limit = end;
+            Map.Entry<Long, Integer> start = index.lowerEntry(from);
+            int position = start == null ? HEADER_SIZE : start.getValue();
+            List<AuditEntry> entries = new ArrayList<>();
+            while (position + RECORD_HEADER <= limit) {
+                int length = mapped.getInt(position);
+                long timestamp = mapped.getLong(position + RECORD_HEADER);
+                if (timestamp > to) {
+                    break;
+                }
+                if (timestamp >= from) {
+                    entries.add(decode(mapped, position + RECORD_HEADER));
+                }
+                position += RECORD_HEADER + length;
+            }
+            return entries;
+        }
+
+        /** Segment cũ được ánh xạ và dựng chỉ mục lần đầu có người đọc, sau đó giữ lại. */
+        private MappedByteBuffer load(int indexIntervalBytes) throws IOException {
+            MappedByteBuffer mapped = buffer;
+            if (mapped != null) {
+                return mapped;
+            }
+            loadLock.lock();
+            try {
+                if (buffer == null) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                        MappedByteBuffer readOnly = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                        readOnly.order(ByteOrder.LITTLE_ENDIAN);
+                        scan(readOnly, indexIntervalBytes);
+                        buffer = readOnly;
+                    }
+                }
+                return buffer;
+            } finally {
+                loadLock.unlock();
+            }
+        }
+
+        /** Tìm cuối dữ liệu hợp lệ (dừng ở độ dài 0 hoặc CRC sai) và dựng chỉ mục thưa. */
+        private void scan(MappedByteBuffer mapped, int indexIntervalBytes) {
+            CRC32C check = new CRC32C();
+            int position = HEADER_SIZE;
+            int capacity = mapped.capacity();
+            long last = firstTimestamp;
+            int indexed = -indexIntervalBytes;
+            while (position + RECORD_HEADER <= capacity) {
+                int length = mapped.getInt(position);
+                if (length < 16 || position + RECORD_HEADER + length > capacity) {
+                    break;
+                }
+                check.reset();
+                check.update(mapped.slice(position + RECORD_HEADER, length));
+                if ((int) check.getValue() != mapped.getInt(position + 4)) {
+                    break;
+                }
+                last = mapped.getLong(position + RECORD_HEADER);
+                if (position - indexed >= indexIntervalBytes) {
+                    index.putIfAbsent(last, position);
+                    indexed = position;
+                }
+                position += RECORD_HEADER + length;
+            }
+            lastIndexed = indexed;
+            lastTimestamp = last;
+            end = position;
+        }
+
+        private static AuditEntry decode(ByteBuffer buffer, int body) {
+            long timestamp = buffer.getLong(body);
+            long entityId = buffer.getLong(body + 8);
+            int[] position = { body + 16 };
+            String action = getString(buffer, position);
+            String entity = getString(buffer, position);
+            String actor = getString(buffer, position);
+            String detail = getString(buffer, position);
+            return new AuditEntry(timestamp, actor, AuditAction.valueOf(action), entity, entityId, detail);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package vn.iotstar.audit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.annotation.PreDestroy;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/**
+ * Nhật ký audit các thao tác thêm/sửa/xóa của admin. {@link #record} chỉ đưa bản ghi vào
+ * ring buffer (không khóa, không I/O) rồi trả về; một luồng riêng ghi nối vào journal ánh xạ
+ * bộ nhớ và fsync theo lô/chu kỳ. Ring đầy thì bản ghi bị bỏ và được đếm ở app.audit.dropped.
+ */
+@Component
+public class AuditLog {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    private final SessionManager sessionManager;
+    private final AuditRingBuffer<AuditEntry> ring;
+    private final AuditJournal journal;
+    private final int fsyncBatch;
+    private final long fsyncIntervalMillis;
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public AuditLog(SessionManager sessionManager,
+                    @Value("${app.audit.dir}") String dir,
+                    @Value("${app.audit.ring-capacity:65536}") int ringCapacity,
+                    @Value("${app.audit.segment-bytes:16777216}") int segmentBytes,
+                    @Value("${app.audit.index-interval-bytes:4096}") int indexIntervalBytes,
+                    @Value("${app.audit.fsync-batch:256}") int fsyncBatch,
+                    @Value("${app.audit.fsync-interval-ms:1000}") long fsyncIntervalMillis) throws IOException {
+        this.sessionManager = sessionManager;
+        this.ring = new AuditRingBuffer<>(ringCapacity);
+        this.journal = new AuditJournal(Path.of(dir), segmentBytes, indexIntervalBytes);
+        this.fsyncBatch = fsyncBatch;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Ghi nhận một thao tác của người dùng trong request hiện tại (hoặc "system" nếu không có).
+     */
+    public void record(AuditAction action, String entity, Long entityId, String detail) {
+        AuditEntry entry = new AuditEntry(System.currentTimeMillis(), currentActor(), action, entity,
+                entityId == null ? 0L : entityId, detail);
+        if (!ring.offer(entry)) {
+            dropped.increment();
+            return;
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /** Tối đa {@code limit} bản ghi mới nhất trong [from, to] (epoch millis), mới nhất trước. */
+    public List<AuditEntry> query(long from, long to, int limit) throws IOException {
+        return journal.query(from, to, limit);
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getBacklog() {
+        return ring.size();
+    }
+
+    public int getSegments() {
+        return journal.getSegmentCount();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    private void writeLoop() {
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, fsyncIntervalMillis));
+        while (running || !ring.isEmpty()) {
+            AuditEntry entry = ring.poll();
+            if (entry != null) {
+                try {
+                    journal.append(entry);
+                    written.increment();
+                } catch (IOException | RuntimeException e) {
+                    dropped.increment();
+                    log.error("Không ghi được bản ghi audit {}", entry, e);
+                }
+                journal.flushIfDue(fsyncBatch, fsyncIntervalMillis);
+                continue;
+            }
+            journal.flushIfDue(fsyncBatch, fsyncIntervalMillis);
+            if (ring.isEmpty()) {
+                // Đặt cờ trước khi kiểm tra lại để producer thấy và đánh thức, không lỡ bản ghi
+                writerParked = true;
+                if (ring.isEmpty() && running) {
+                    LockSupport.parkNanos(this, parkNanos);
+                }
+                writerParked = false;
+            }
+        }
+        journal.flush();
+    }
+
+    private String currentActor() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            SessionPrincipal principal = sessionManager.resolve(attributes.getRequest());
+            if (principal != null) {
+                return principal.getUsername();
+            }
+        }
+        return "system";
+    }
+}
@@ -0,0 +1,62 @@
+package vn.iotstar.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer không khóa nhiều producer, một consumer. Producer giành chỗ bằng CAS trên
+ * {@code tail} rồi ghi phần tử vào ô (release); consumer đọc ô (acquire), xóa ô rồi mới
+ * tăng {@code head}, nên producer vòng sau chỉ ghi vào ô đã trống. Đầy thì {@link #offer}
+ * trả false ngay, không chặn luồng gọi.
+ */
+public final class AuditRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity phải là lũy thừa của 2: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public boolean offer(E element) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head.get() > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        slots.setRelease((int) seq & mask, element);
+        return true;
+    }
+
+    /** Chỉ gọi từ luồng consumer; null nếu trống hoặc producer đã giành chỗ nhưng chưa ghi xong. */
+    public E poll() {
+        long seq = head.get();
+        int index = (int) seq & mask;
+        E element = slots.getAcquire(index);
+        if (element == null) {
+            return null;
+        }
+        slots.setPlain(index, null);
+        head.set(seq + 1);
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int size() {
+        return (int) Math.max(0L, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,178 @@
+package vn.iotstar.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import vn.iotstar.entity.CacheVersion;
+import vn.iotstar.entity.Category;
+import vn.iotstar.repository.CacheVersionRepository;
+import vn.iotstar.repository.CategoryRepository;
+
+/**
+ * Cache đọc-xuyên (read-through) trong tiến trình cho danh mục.
+ * Toàn bộ danh mục được giữ trong một snapshot bất biến, thay thế kiểu copy-on-write.
+ * Snapshot gắn với số phiên bản ở bảng cache_versions: mỗi lần ghi tăng phiên bản,
+ * các node khác phát hiện khi kiểm tra lại (tối đa mỗi version-check-ms một lần).
+ * Người gọi nhận bản sao của entity, sửa bản sao không làm hỏng snapshot dùng chung.
+ * Mỗi lần tra cứu được đếm đúng một lần: hit nếu snapshot hiện có trả lời được, ngược lại miss.
+ */
+@Component
+public class CategoryCache {
+    public static final String REGION = "categories";
+
+    private final CategoryRepository categoryRepository;
+    private final CacheVersionRepository versionRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong nextVersionCheck = new AtomicLong();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    @Value("${app.cache.category.version-check-ms:1000}")
+    private long versionCheckMillis;
+
+    public CategoryCache(CategoryRepository categoryRepository, CacheVersionRepository versionRepository) {
+        this.categoryRepository = categoryRepository;
+        this.versionRepository = versionRepository;
+    }
+
+    @PostConstruct
+    void ensureVersionRow() {
+        if (!versionRepository.existsById(REGION)) {
+            try {
+                versionRepository.save(new CacheVersion(REGION, 0L));
+            } catch (DataIntegrityViolationException e) {
+                // node khác vừa tạo dòng này
+            }
+        }
+    }
+
+    public List<Category> getAll() {
+        Lookup lookup = current();
+        (lookup.reloaded ? misses : hits).increment();
+        return lookup.snapshot.all.stream().map(CategoryCache::copy).toList();
+    }
+
+    public Optional<Category> get(Long id) {
+        Lookup lookup = current();
+        Category category = lookup.snapshot.byId.get(id);
+        if (category != null) {
+            (lookup.reloaded ? misses : hits).increment();
+            return Optional.of(copy(category));
+        }
+        // Có thể vừa được tạo ở node khác mà snapshot chưa thấy
+        misses.increment();
+        return categoryRepository.findById(id);
+    }
+
+    /**
+     * Gọi sau mỗi lần ghi danh mục: tăng phiên bản dùng chung và bỏ snapshot cục bộ.
+     */
+    public void invalidate() {
+        versionRepository.increment(REGION);
+        snapshot.set(null);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    public long getVersion() {
+        Snapshot s = snapshot.get();
+        return s == null ? -1 : s.version;
+    }
+
+    public int size() {
+        Snapshot s = snapshot.get();
+        return s == null ? 0 : s.all.size();
+    }
+
+    private Lookup current() {
+        Snapshot s = snapshot.get();
+        if (s != null && !claimVersionCheck()) {
+            return new Lookup(s, false);
+        }
+        long dbVersion = readVersion();
+        if (s != null && s.version == dbVersion) {
+            return new Lookup(s, false);
+        }
+        return new Lookup(reload(dbVersion), true);
+    }
+
+    /**
+     * Chỉ một luồng được kiểm tra phiên bản trong mỗi khoảng version-check-ms.
+     */
+    private boolean claimVersionCheck() {
+        long now = System.currentTimeMillis();
+        long due = nextVersionCheck.get();
+        return now >= due && nextVersionCheck.compareAndSet(due, now + versionCheckMillis);
+    }
+
+    private Snapshot reload(long dbVersion) {
+        reloadLock.lock();
+        try {
+            Snapshot s = snapshot.get();
+            if (s != null && s.version >= dbVersion) {
+                return s;
+            }
+            // Đọc phiên bản trước dữ liệu: nếu có ghi xen giữa, lần kiểm tra sau sẽ nạp lại
+            List<Category> all = List.copyOf(categoryRepository.findAll(Sort.by("id")));
+            Map<Long, Category> byId = new HashMap<>(all.size() * 2);
+            for (Category c : all) {
+                byId.put(c.getId(), c);
+            }
+            Snapshot fresh = new Snapshot(dbVersion, all, Map.copyOf(byId));
+            snapshot.set(fresh);
+            reloads.increment();
+            return fresh;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static Category copy(Category category) {
+        return new Category(category.getId(), category.getCategoryName());
+    }
+
+    private long readVersion() {
+        Long version = versionRepository.findVersion(REGION);
+        return version == null ? 0L : version;
+    }
+
+    private record Lookup(Snapshot snapshot, boolean reloaded) {
+    }
+
+    private static final class Snapshot {
+        final long version;
+        final List<Category> all;
+        final Map<Long, Category> byId;
+
+        Snapshot(long version, List<Category> all, Map<Long, Category> byId) {
+            this.version = version;
+            this.all = all;
+            this.byId = byId;
+        }
+    }
+}
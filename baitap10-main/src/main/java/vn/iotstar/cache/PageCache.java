@@ -0,0 +1,149 @@
+package vn.iotstar.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import vn.iotstar.event.CategoryChangedEvent;
+import vn.iotstar.event.ProductChangedEvent;
+import vn.iotstar.event.InStockChangedEvent;
+import vn.iotstar.event.ProductsImportedEvent;
+
+/**
+ * Cache nguyên trang HTML đã render cho các trang catalog (giống nhau với mọi người dùng).
+ * Mỗi lần ghi sản phẩm/danh mục tăng "thế hệ" và xóa toàn bộ; một trang render trong lúc
+ * đang có thay đổi sẽ không được lưu vì thế hệ đã khác lúc bắt đầu render.
+ *
+ * Trang có thể được render từ replica đang trễ sau lần ghi, nên mỗi mục còn có hạn dùng
+ * (ttl-ms, không nhỏ hơn độ trễ replica cho phép): trang cũ không nằm trong cache quá một TTL.
+ */
+@Component
+public class PageCache {
+
+    /** Một trang đã render. {@code lastModified} tính bằng ms, làm tròn xuống giây. */
+    public record Entry(byte[] body, String contentType, String etag, long lastModified, long generation) {
+    }
+
+    private record Stored(Entry entry, long expiresAt) {
+    }
+
+    private final ConcurrentHashMap<String, Stored> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastModified = truncateToSeconds(System.currentTimeMillis());
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PageCache(@Value("${app.page-cache.max-entries:1000}") int maxEntries,
+                     @Value("${app.page-cache.ttl-ms:5000}") long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Thời điểm dữ liệu catalog thay đổi lần cuối (giá trị Last-Modified). */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public Entry get(String key) {
+        Stored stored = entries.get(key);
+        Entry entry = null;
+        if (stored != null) {
+            if (stored.entry().generation() != generation.get() || stored.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(key, stored);
+            } else {
+                entry = stored.entry();
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    public void put(String key, Entry entry) {
+        if (entry.generation() != generation.get()) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            // Khóa chứa cursor có thể rất nhiều: bỏ bớt một mục bất kỳ thay vì để map lớn mãi
+            Iterator<String> it = entries.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        entries.put(key, new Stored(entry, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        lastModified = truncateToSeconds(System.currentTimeMillis());
+        entries.clear();
+        invalidations.increment();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidate();
+    }
+
+    // Bộ lọc "còn hàng" và nhãn tồn kho trên trang đổi khi sản phẩm hết hàng/có hàng lại
+    @EventListener
+    public void onInStockChanged(InStockChangedEvent event) {
+        invalidate();
+    }
+
+    void recordNotModified() {
+        notModified.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static long truncateToSeconds(long millis) {
+        return millis - millis % 1000;
+    }
+}
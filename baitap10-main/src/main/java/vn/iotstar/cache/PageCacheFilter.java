@@ -0,0 +1,139 @@
+package vn.iotstar.cache;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/**
+ * Trả trang catalog từ PageCache, kèm ETag/Last-Modified để trình duyệt nhận 304.
+ * Vẫn kiểm tra đăng nhập trước khi trả từ cache; request không hợp lệ đi tiếp vào
+ * chuỗi xử lý bình thường để AuthInterceptor chuyển hướng.
+ */
+public class PageCacheFilter extends OncePerRequestFilter {
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final PageCache pageCache;
+    private final SessionManager sessionManager;
+
+    public PageCacheFilter(PageCache pageCache, SessionManager sessionManager) {
+        this.pageCache = pageCache;
+        this.sessionManager = sessionManager;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!"GET".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        SessionPrincipal user = sessionManager.resolve(request);
+        if (user == null || !user.hasRole("user")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = key(request);
+        PageCache.Entry cached = pageCache.get(key);
+        if (cached != null) {
+            writeHeaders(response, cached);
+            if (isNotModified(request, cached)) {
+                pageCache.recordNotModified();
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        long generation = pageCache.generation();
+        long lastModified = pageCache.lastModified();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && contentType != null
+                && contentType.startsWith("text/html")) {
+            byte[] body = wrapper.getContentAsByteArray();
+            PageCache.Entry entry = new PageCache.Entry(body, contentType, etag(generation, body),
+                    lastModified, generation);
+            pageCache.put(key, entry);
+            writeHeaders(wrapper, entry);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /** Đường dẫn + tham số query đã sắp xếp, để ?a=1&b=2 và ?b=2&a=1 dùng chung một mục. */
+    static String key(HttpServletRequest request) {
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (parameters.isEmpty()) {
+            return request.getRequestURI();
+        }
+        StringBuilder key = new StringBuilder(request.getRequestURI()).append('?');
+        new TreeMap<>(parameters).forEach((name, values) -> {
+            String[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (String value : sorted) {
+                key.append(name).append('=').append(value).append('&');
+            }
+        });
+        return key.toString();
+    }
+
+    private static void writeHeaders(HttpServletResponse response, PageCache.Entry entry) {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, entry.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+    }
+
+    /** If-None-Match được ưu tiên; chỉ xét If-Modified-Since khi client không gửi ETag. */
+    private static boolean isNotModified(HttpServletRequest request, PageCache.Entry entry) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(entry.etag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && entry.lastModified() <= ifModifiedSince;
+    }
+
+    private static String etag(long generation, byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + generation + "-"
+                    + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
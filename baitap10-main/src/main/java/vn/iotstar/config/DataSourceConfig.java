@@ -0,0 +1,82 @@
+package vn.iotstar.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import vn.iotstar.datasource.ReplicaPool;
+import vn.iotstar.datasource.ReplicaRoutingDataSource;
+
+/**
+ * Tách đọc/ghi khi có app.datasource.replica.urls: primary vẫn cấu hình bằng spring.datasource.*,
+ * mỗi replica là một pool Hikari riêng dùng chung thiết lập của primary. Không có replica thì
+ * DataSource chính là pool primary.
+ *
+ * Kiểm tra lúc chạy thay vì @ConditionalOnProperty: bản build AOT chốt các điều kiện theo cấu hình
+ * lúc build, khi đó khai báo replica lúc chạy sẽ bị bỏ qua.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaPool replicaPool(HikariDataSource primaryDataSource, ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${app.datasource.replica.urls:}") List<String> urls,
+                                   @Value("${app.datasource.replica.connection-timeout-ms:1000}") long connectionTimeout,
+                                   @Value("${app.datasource.replica.eject-ms:30000}") long ejectMillis,
+                                   @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+                                   @Value("${app.datasource.replica.max-lag-seconds:5}") long maxLagSeconds) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        List<String> replicaUrls = urls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i));
+            config.setPoolName("replica-" + i);
+            config.setReadOnly(true);
+            config.setConnectionTimeout(connectionTimeout);
+            // Replica chưa sẵn sàng không được chặn ứng dụng khởi động; kiểm tra sức khỏe sẽ loại nó
+            config.setInitializationFailTimeout(-1);
+            if (registry != null) {
+                config.setMetricRegistry(null);
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaPool(replicas, ejectMillis, lagQuery, maxLagSeconds);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool,
+                                 @Value("${app.datasource.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        if (replicaPool.getReplicas().isEmpty()) {
+            return primaryDataSource;
+        }
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaPool, readYourWritesMillis));
+    }
+}
@@ -0,0 +1,19 @@
+package vn.iotstar.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Phân trang keyset: app.page.size dòng mỗi trang. Kiểm tra lúc nạp cấu hình, vì
+ * KeysetPage lấy cursor từ dòng cuối nên trang rỗng (size 0) làm hỏng mọi trang danh sách.
+ */
+@Data
+@Validated
+@ConfigurationProperties("app.page")
+public class PageProperties {
+    @Min(1)
+    private int size = 20;
+}
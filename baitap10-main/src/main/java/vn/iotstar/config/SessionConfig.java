@@ -0,0 +1,33 @@
+package vn.iotstar.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import vn.iotstar.session.LocalSessionStore;
+import vn.iotstar.session.MappedSessionStore;
+import vn.iotstar.session.SessionStore;
+
+@Configuration
+public class SessionConfig {
+
+    // Chọn lúc chạy, không dùng @ConditionalOnProperty: bản build AOT chốt điều kiện theo cấu hình lúc build
+    @Bean
+    public SessionStore sessionStore(@Value("${app.session.store:local}") String store,
+                                     @Value("${app.session.mapped.file:}") String file,
+                                     @Value("${app.session.mapped.slots:65536}") int slots) throws IOException {
+        return switch (store) {
+            case "local" -> new LocalSessionStore();
+            case "mapped" -> {
+                if (file.isBlank()) {
+                    throw new IllegalStateException("app.session.mapped.file is required when app.session.store=mapped");
+                }
+                yield new MappedSessionStore(Path.of(file), slots);
+            }
+            default -> throw new IllegalStateException("Unknown app.session.store: " + store);
+        };
+    }
+}
@@ -1,21 +1,57 @@
 package vn.iotstar.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import vn.iotstar.admission.AdmissionInterceptor;
+import vn.iotstar.admission.AdmissionProperties;
+import vn.iotstar.cache.PageCache;
+import vn.iotstar.cache.PageCacheFilter;
 import vn.iotstar.interceptor.AuthInterceptor;
+import vn.iotstar.metrics.TimingInterceptor;
+import vn.iotstar.session.SessionManager;
 
 @Configuration
+@EnableConfigurationProperties({AdmissionProperties.class, PageProperties.class})
 public class WebConfig implements WebMvcConfigurer {
 
     @Autowired
     private AuthInterceptor authInterceptor;
 
+    @Autowired
+    private TimingInterceptor timingInterceptor;
+
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // Đăng ký trước để đo cả thời gian của các interceptor phía sau
+        registry.addInterceptor(timingInterceptor)
+                .excludePathPatterns("/actuator/**");
+        // Loại request vượt giới hạn trước khi xác thực phiên và trước mọi truy vấn của controller
+        if (!admissionInterceptor.getPathPatterns().isEmpty()) {
+            registry.addInterceptor(admissionInterceptor)
+                    .addPathPatterns(admissionInterceptor.getPathPatterns());
+        }
         registry.addInterceptor(authInterceptor)
                 .addPathPatterns("/admin/**", "/user/**")
                 .excludePathPatterns("/login", "/register", "/css/**", "/js/**", "/images/**");
     }
+
+    // Bật/tắt lúc chạy thay vì @ConditionalOnProperty, để bản build AOT vẫn đọc được app.page-cache.enabled
+    @Bean
+    public FilterRegistrationBean<PageCacheFilter> pageCacheFilter(PageCache pageCache, SessionManager sessionManager,
+                                                                   @Value("${app.page-cache.enabled:true}") boolean enabled) {
+        FilterRegistrationBean<PageCacheFilter> registration =
+                new FilterRegistrationBean<>(new PageCacheFilter(pageCache, sessionManager));
+        registration.addUrlPatterns("/user/products", "/user/categories");
+        registration.setEnabled(enabled);
+        return registration;
+    }
 }
@@ -0,0 +1,29 @@
+package vn.iotstar.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import vn.iotstar.feed.ChangeFeedHandler;
+import vn.iotstar.feed.FeedHandshakeInterceptor;
+
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private ChangeFeedHandler changeFeedHandler;
+
+    @Autowired
+    private FeedHandshakeInterceptor feedHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(changeFeedHandler, "/user/feed")
+                .addInterceptors(feedHandshakeInterceptor);
+    }
+}
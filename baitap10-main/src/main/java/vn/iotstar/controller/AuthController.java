@@ -1,15 +1,31 @@
 package vn.iotstar.controller;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import vn.iotstar.entity.User;
+import vn.iotstar.model.RegistrationResult;
+import vn.iotstar.security.HashingBusyException;
+import vn.iotstar.service.AvailabilityService;
 import vn.iotstar.service.UserService;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
 
 @Controller
 public class AuthController {
@@ -17,6 +33,15 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private Validator validator;
+
     @GetMapping({"/", "/index", "/login"})
     public String showIndex(Model model) {
         model.addAttribute("user", new User());
@@ -25,12 +50,23 @@ public class AuthController {
 
     @PostMapping("/login")
     public String login(@ModelAttribute("user") User formUser,
-                        HttpSession session,
+                        HttpServletRequest request,
+                        HttpServletResponse response,
                         Model model) {
-        User user = userService.findByUsernameAndPassword(formUser.getUsername(), formUser.getPassword());
+        User user;
+        try {
+            user = userService.authenticate(formUser.getUsername(), formUser.getPassword());
+        } catch (HashingBusyException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            model.addAttribute("errorLogin", "Hệ thống đang bận, vui lòng thử lại sau giây lát");
+            model.addAttribute("user", new User());
+            return "index";
+        }
         if (user != null) {
-            session.setAttribute("user", user);
-            if ("admin".equals(user.getRole())) {
+            SessionPrincipal principal = SessionPrincipal.of(user);
+            sessionManager.login(principal, request, response);
+            if (principal.hasRole("admin")) {
                 return "redirect:/admin/home";
             } else {
                 return "redirect:/user/home";
@@ -42,22 +78,55 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public String register(@ModelAttribute("user") User formUser, Model model) {
-        if (userService.findByUsername(formUser.getUsername()) != null) {
-            model.addAttribute("errorRegister", "Tên đăng nhập đã tồn tại");
+    public String register(@ModelAttribute("user") User formUser, HttpServletResponse response, Model model) {
+        formUser.setRole("user");
+        // Kiểm tra độ dài/định dạng theo ràng buộc trên User trước khi ghi (username là VARCHAR(20))
+        Set<ConstraintViolation<User>> violations = validator.validate(formUser);
+        if (!violations.isEmpty()) {
+            model.addAttribute("errorRegister", violations.iterator().next().getMessage());
             model.addAttribute("user", new User());
             return "index";
         }
-        formUser.setRole("user");
-        userService.save(formUser);
-        model.addAttribute("successRegister", "Đăng ký thành công, vui lòng đăng nhập");
+        // Email xác nhận được gửi nền từ outbox, request không chờ SMTP
+        RegistrationResult result;
+        try {
+            result = userService.register(formUser);
+        } catch (HashingBusyException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            model.addAttribute("errorRegister", "Hệ thống đang bận, vui lòng thử lại sau giây lát");
+            model.addAttribute("user", new User());
+            return "index";
+        }
+        if (result == RegistrationResult.USERNAME_TAKEN) {
+            model.addAttribute("errorRegister", "Tên đăng nhập đã tồn tại");
+        } else if (result == RegistrationResult.EMAIL_TAKEN) {
+            model.addAttribute("errorRegister", "Email đã được sử dụng");
+        } else {
+            model.addAttribute("successRegister", "Đăng ký thành công, vui lòng đăng nhập");
+        }
         model.addAttribute("user", new User());
         return "index";
     }
 
+    /** Kiểm tra khi người dùng đang gõ trên form đăng ký; true = còn trống. */
+    @GetMapping("/register/check")
+    @ResponseBody
+    public Map<String, Boolean> checkAvailability(@RequestParam(name = "username", required = false) String username,
+                                                  @RequestParam(name = "email", required = false) String email) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        if (username != null && !username.isBlank()) {
+            result.put("username", availabilityService.isUsernameAvailable(username));
+        }
+        if (email != null && !email.isBlank()) {
+            result.put("email", availabilityService.isEmailAvailable(email));
+        }
+        return result;
+    }
+
     @GetMapping("/logout")
-    public String logout(HttpSession session) {
-        session.invalidate();
+    public String logout(HttpServletRequest request, HttpServletResponse response) {
+        sessionManager.logout(request, response);
         return "redirect:/index";
     }
 }
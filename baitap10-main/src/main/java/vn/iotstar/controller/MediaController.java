@@ -0,0 +1,71 @@
+package vn.iotstar.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import vn.iotstar.image.FileResponseWriter;
+import vn.iotstar.image.ImageStore;
+import vn.iotstar.image.ThumbnailGenerator;
+
+/**
+ * Phục vụ ảnh sản phẩm. URL chứa hash nội dung nên có thể cache vĩnh viễn.
+ */
+@Controller
+@RequestMapping("/media")
+public class MediaController {
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // Thumbnail chưa sẵn sàng: tạm trả ảnh gốc, không cho cache lâu dưới URL thumbnail
+    private static final String SHORT_LIVED = "public, max-age=60";
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ThumbnailGenerator thumbnailGenerator;
+
+    @Autowired
+    private FileResponseWriter fileResponseWriter;
+
+    @GetMapping("/{key}")
+    public void original(@PathVariable("key") String key, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        if (!imageStore.isValidKey(key) || !Files.exists(imageStore.original(key))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        fileResponseWriter.write(imageStore.original(key), "\"" + ImageStore.hash(key) + "\"",
+                ImageStore.contentType(key), IMMUTABLE, request, response);
+    }
+
+    @GetMapping("/thumb/{key}")
+    public void thumbnail(@PathVariable("key") String key, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        if (!imageStore.isValidKey(key) || !Files.exists(imageStore.original(key))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        int width = thumbnailGenerator.getWidth();
+        Path thumbnail = imageStore.thumbnail(key, width);
+        if (Files.exists(thumbnail)) {
+            fileResponseWriter.write(thumbnail, "\"" + ImageStore.hash(key) + "-w" + width + "\"",
+                    ImageStore.contentType(key), IMMUTABLE, request, response);
+            return;
+        }
+        // Không bao giờ có thumbnail: ảnh gốc là câu trả lời cố định của URL này
+        boolean unsupported = thumbnailGenerator.isUnsupported(key);
+        if (!unsupported) {
+            thumbnailGenerator.submit(key);
+        }
+        fileResponseWriter.write(imageStore.original(key), "\"" + ImageStore.hash(key) + "\"",
+                ImageStore.contentType(key), unsupported ? IMMUTABLE : SHORT_LIVED, request, response);
+    }
+}
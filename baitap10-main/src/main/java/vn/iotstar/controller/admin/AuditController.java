@@ -0,0 +1,45 @@
+package vn.iotstar.controller.admin;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.ModelMap;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import vn.iotstar.audit.AuditLog;
+
+@Controller
+@RequestMapping("/admin/audit")
+public class AuditController {
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    /** Nhật ký trong khoảng [from, to] (mặc định 24 giờ gần nhất), mới nhất trước. */
+    @GetMapping("")
+    public String list(ModelMap model,
+                       @RequestParam(name = "from", required = false)
+                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                       @RequestParam(name = "to", required = false)
+                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                       @RequestParam(name = "limit", defaultValue = "200") int limit) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime end = to == null ? LocalDateTime.now(zone).withNano(0) : to;
+        LocalDateTime start = from == null ? end.minus(Duration.ofDays(1)) : from;
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        model.addAttribute("entries", auditLog.query(start.atZone(zone).toInstant().toEpochMilli(),
+                end.atZone(zone).toInstant().toEpochMilli() + 999, size));
+        model.addAttribute("from", start);
+        model.addAttribute("to", end);
+        model.addAttribute("limit", size);
+        return "admin/audit";
+    }
+}
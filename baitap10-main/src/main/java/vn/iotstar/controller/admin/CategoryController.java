@@ -1,7 +1,5 @@
 package vn.iotstar.controller.admin;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,7 +10,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
+import vn.iotstar.audit.AuditAction;
+import vn.iotstar.audit.AuditLog;
+import vn.iotstar.config.PageProperties;
 import vn.iotstar.entity.Category;
+import vn.iotstar.model.KeysetPage;
 import vn.iotstar.service.CategoryService;
 
 import org.springframework.ui.ModelMap;
@@ -27,10 +29,17 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private PageProperties pageProperties;
+
     @GetMapping("")
-    public String list(ModelMap model) {
-        List<Category> list = categoryService.findAll();
-        model.addAttribute("categories", list);
+    public String list(ModelMap model, @RequestParam(name = "cursor", required = false) Long cursor) {
+        KeysetPage<Category> page = categoryService.findPage(cursor, pageProperties.getSize());
+        model.addAttribute("categories", page.getContent());
+        model.addAttribute("page", page);
         return "admin/categories/list";
     }
 
@@ -42,7 +51,9 @@ public class CategoryController {
 
     @PostMapping("saveOrUpdate")
     public ModelAndView saveOrUpdate(ModelMap model, @ModelAttribute("category") Category category) {
-        categoryService.save(category);
+        AuditAction action = category.getId() == null ? AuditAction.CREATE : AuditAction.UPDATE;
+        Category saved = categoryService.save(category);
+        auditLog.record(action, "category", saved.getId(), saved.getCategoryName());
         model.addAttribute("message", "Category saved successfully");
         return new ModelAndView("redirect:/index");
         
@@ -58,20 +69,23 @@ public class CategoryController {
     @GetMapping("delete/{categoryId}")
     public ModelAndView delete(ModelMap model, @PathVariable("categoryId") Long categoryId) {
         categoryService.deleteById(categoryId);
+        auditLog.record(AuditAction.DELETE, "category", categoryId, null);
         model.addAttribute("message", "Category is deleted!");
         return new ModelAndView("redirect:/index", model);
     }
 
     @RequestMapping("search")
-    public String search(ModelMap model, @RequestParam(name = "name", required = false) String name) {
-        List<Category> categories;
+    public String search(ModelMap model, @RequestParam(name = "name", required = false) String name,
+                         @RequestParam(name = "cursor", required = false) Long cursor) {
+        KeysetPage<Category> page;
         if (StringUtils.hasText(name)){
-            categories = categoryService.search(name);
+            page = categoryService.searchPage(name, cursor, pageProperties.getSize());
         }
         else {
-            categories = categoryService.findAll();
+            page = categoryService.findPage(cursor, pageProperties.getSize());
         }
-        model.addAttribute("categories", categories);
+        model.addAttribute("categories", page.getContent());
+        model.addAttribute("page", page);
         return "admin/categories/list";
     }
     
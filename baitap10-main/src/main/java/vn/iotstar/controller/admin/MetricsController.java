@@ -0,0 +1,31 @@
+package vn.iotstar.controller.admin;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import vn.iotstar.metrics.MetricsDashboard;
+
+@Controller
+@RequestMapping("/admin/metrics")
+public class MetricsController {
+
+    @Autowired
+    private MetricsDashboard metricsDashboard;
+
+    @GetMapping("")
+    public String dashboard() {
+        return "admin/metrics";
+    }
+
+    /** Dữ liệu cho trang dashboard, được trang tự tải lại định kỳ. */
+    @GetMapping("data")
+    @ResponseBody
+    public Map<String, Object> data() {
+        return metricsDashboard.snapshot();
+    }
+}
@@ -1,6 +1,9 @@
 package vn.iotstar.controller.admin;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -12,11 +15,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import vn.iotstar.audit.AuditAction;
+import vn.iotstar.audit.AuditLog;
+import vn.iotstar.config.PageProperties;
+import vn.iotstar.model.ExportFormat;
+import vn.iotstar.entity.Category;
 import vn.iotstar.entity.Product;
+import vn.iotstar.image.ImageStore;
+import vn.iotstar.image.ThumbnailGenerator;
+import vn.iotstar.model.ImportReport;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductListItem;
 import vn.iotstar.service.CategoryService;
+import vn.iotstar.service.ProductExportService;
+import vn.iotstar.service.ProductImportService;
 import vn.iotstar.service.ProductService;
+import vn.iotstar.service.StockService;
 
 @Controller
 @RequestMapping("admin/products")
@@ -28,22 +48,78 @@ public class ProductController {
     @Autowired
     CategoryService categoryService;
 
+    @Autowired
+    ProductImportService productImportService;
+
+    @Autowired
+    ProductExportService productExportService;
+
+    @Autowired
+    StockService stockService;
+
+    @Autowired
+    ImageStore imageStore;
+
+    @Autowired
+    ThumbnailGenerator thumbnailGenerator;
+
+    @Autowired
+    AuditLog auditLog;
+
+    @Autowired
+    private PageProperties pageProperties;
+
     @GetMapping("")
-    public String list(ModelMap model){
-        List<Product> list = productService.findAll();
-        model.addAttribute("products", list);
+    public String list(ModelMap model, @RequestParam(name = "cursor", required = false) Long cursor){
+        KeysetPage<ProductListItem> page = productService.findPage(cursor, pageProperties.getSize());
+        model.addAttribute("products", page.getContent());
+        model.addAttribute("page", page);
         return "admin/products/list";
     }
 
     @GetMapping("add")
     public String add(ModelMap model){
-        model.addAttribute("product", new Product());
+        Product product = new Product();
+        product.setCategory(new Category());
+        model.addAttribute("product", product);
+        model.addAttribute("categories", categoryService.findAll());
         return "admin/products/add";
     }
     
     @PostMapping("saveOrUpdate")
-    public ModelAndView saveOrUpdate(ModelMap model, @ModelAttribute("product") Product product) {
-        productService.save(product);
+    public ModelAndView saveOrUpdate(ModelMap model, @ModelAttribute("product") Product product,
+                                     @RequestParam(name = "imageFile", required = false) MultipartFile imageFile,
+                                     @RequestParam(name = "expectedQuantity", required = false) Long expectedQuantity) throws IOException {
+        if (imageFile != null && !imageFile.isEmpty()) {
+            try (InputStream in = imageFile.getInputStream()) {
+                String key = imageStore.store(in);
+                thumbnailGenerator.submit(key);
+                product.setImage(key);
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("product", product);
+                model.addAttribute("categories", categoryService.findAll());
+                model.addAttribute("error", "Only JPEG, PNG, GIF or WebP images are accepted");
+                return new ModelAndView(product.getId() == null ? "admin/products/add" : "admin/products/edit", model);
+            }
+        }
+        if (product.getCategory() != null && product.getCategory().getId() == null) {
+            product.setCategory(null);
+        }
+        // Tồn kho chỉ đổi khi không ai giữ chỗ/bán trong lúc admin đang sửa
+        if (product.getId() != null && expectedQuantity != null && product.getQuantity() != null
+                && product.getQuantity() != expectedQuantity.longValue()
+                && !stockService.setQuantity(product.getId(), expectedQuantity, product.getQuantity())) {
+            long available = stockService.available(product.getId());
+            product.setQuantity((int) available);
+            model.addAttribute("product", product);
+            model.addAttribute("expectedQuantity", available);
+            model.addAttribute("categories", categoryService.findAll());
+            model.addAttribute("error", "Stock changed while you were editing (now " + available + "), please review the quantity");
+            return new ModelAndView("admin/products/edit", model);
+        }
+        AuditAction action = product.getId() == null ? AuditAction.CREATE : AuditAction.UPDATE;
+        Product saved = productService.save(product);
+        auditLog.record(action, "product", saved.getId(), saved.getTitle());
         model.addAttribute("message", "Product saved successfully");
         return new ModelAndView("redirect:/admin/products");
     }
@@ -51,27 +127,88 @@ public class ProductController {
     @GetMapping("edit/{productId}")
     public ModelAndView edit(ModelMap model, @PathVariable("productId") Long productId) {
         Product product = productService.findById(productId);
+        if (product.getCategory() == null) {
+            product.setCategory(new Category());
+        }
+        // Hiển thị cả phần hàng đang được giữ trong bộ nhớ của StockService
+        long available = stockService.available(productId);
+        product.setQuantity((int) available);
         model.addAttribute("product", product);
+        model.addAttribute("expectedQuantity", available);
+        model.addAttribute("categories", categoryService.findAll());
         return new ModelAndView("admin/products/edit", model);
     }
 
     @GetMapping("delete/{productId}")
     public ModelAndView delete(ModelMap model, @PathVariable("productId") Long productId) {
         productService.deleteById(productId);
+        auditLog.record(AuditAction.DELETE, "product", productId, null);
         model.addAttribute("message", "Product deleted successfully");
         return new ModelAndView("redirect:/admin/products", model);
     }
 
+    @PostMapping("reindex")
+    public ModelAndView reindex(ModelMap model) {
+        productService.rebuildSearchIndex();
+        model.addAttribute("message", "Search index rebuilt");
+        return new ModelAndView("redirect:/admin/products", model);
+    }
+
+    @GetMapping("import")
+    public String importForm() {
+        return "admin/products/import";
+    }
+
+    /**
+     * Nhận file nhà cung cấp trực tiếp trong body (text/csv hoặc application/x-ndjson)
+     * và xử lý theo luồng, không lưu tạm cả file.
+     */
+    @PostMapping("import")
+    @ResponseBody
+    public ImportReport importProducts(HttpServletRequest request) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType != null && (contentType.startsWith("application/x-ndjson")
+                || contentType.startsWith("application/json"))) {
+            return productImportService.importNdjson(request.getInputStream());
+        }
+        return productImportService.importCsv(request.getInputStream());
+    }
+
+    /**
+     * Xuất toàn bộ danh mục sản phẩm, ghi thẳng ra response theo luồng.
+     * gzip=true trả về file .gz để tải về.
+     */
+    @GetMapping("export")
+    public void export(@RequestParam(name = "format", defaultValue = "csv") String format,
+                       @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = "ndjson".equalsIgnoreCase(format) ? ExportFormat.NDJSON : ExportFormat.CSV;
+        String filename = "products." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            GZIPOutputStream zip = new GZIPOutputStream(out, 64 * 1024);
+            productExportService.export(exportFormat, zip);
+            zip.finish();
+        } else {
+            productExportService.export(exportFormat, out);
+        }
+        out.flush();
+    }
+
     @RequestMapping("search")
-    public String search(ModelMap model, @RequestParam(name = "name", required = false) String name) {
-        List<Product> products;
+    public String search(ModelMap model, @RequestParam(name = "name", required = false) String name,
+                         @RequestParam(name = "cursor", required = false) Long cursor) {
+        KeysetPage<ProductListItem> page;
         if (StringUtils.hasText(name)){
-            products = productService.search(name);
+            page = productService.searchPage(name, cursor, pageProperties.getSize());
         }
         else {
-            products = productService.findAll();
+            page = productService.findPage(cursor, pageProperties.getSize());
         }
-        model.addAttribute("products", products);
+        model.addAttribute("products", page.getContent());
+        model.addAttribute("page", page);
         return "admin/products/list";
     }
 }
@@ -3,13 +3,19 @@ package vn.iotstar.controller.admin;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
+import vn.iotstar.audit.AuditAction;
+import vn.iotstar.audit.AuditLog;
+import vn.iotstar.config.PageProperties;
 import vn.iotstar.entity.User;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.search.UserIndex;
 import vn.iotstar.service.UserService;
 
 @Controller
@@ -18,11 +24,21 @@ public class UserController {
 
     @Autowired
     private UserService userService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private PageProperties pageProperties;
+
+    @Value("${app.search.autocomplete.max-results:20}")
+    private int maxSuggestions;
     
     @GetMapping({"", "/"})
-    public String list(ModelMap model){
-        List<User> list = userService.findAll();
-        model.addAttribute("users", list);
+    public String list(ModelMap model, @RequestParam(name = "cursor", required = false) Long cursor){
+        KeysetPage<User> page = userService.findPage(cursor, pageProperties.getSize());
+        model.addAttribute("users", page.getContent());
+        model.addAttribute("page", page);
         return "admin/users/list"; 
     }
     
@@ -34,7 +50,9 @@ public class UserController {
 
     @PostMapping("/saveOrUpdate")
     public ModelAndView saveOrUpdate(ModelMap model, @ModelAttribute("user") User user) {
+        AuditAction action = user.getId() == null ? AuditAction.CREATE : AuditAction.UPDATE;
         userService.save(user);
+        auditLog.record(action, "user", user.getId(), user.getUsername() + " (" + user.getRole() + ")");
         model.addAttribute("message", "User saved successfully");
         return new ModelAndView("redirect:/admin/users");
     }
@@ -55,6 +73,7 @@ public class UserController {
         User user = userService.findById(userId);
         if(user != null){
             userService.deleteById(userId);
+            auditLog.record(AuditAction.DELETE, "user", userId, user.getUsername());
             model.addAttribute("message", "User deleted successfully");
         } else {
             model.addAttribute("error", "User not found");
@@ -63,14 +82,24 @@ public class UserController {
     }
 
     @RequestMapping("/search")
-    public String search(ModelMap model, @RequestParam(name = "name", required = false) String name) {
-        List<User> users;
+    public String search(ModelMap model, @RequestParam(name = "name", required = false) String name,
+                         @RequestParam(name = "cursor", required = false) Long cursor) {
+        KeysetPage<User> page;
         if (StringUtils.hasText(name)){
-            users = userService.search(name);
+            page = userService.searchPage(name, cursor, pageProperties.getSize());
         } else {
-            users = userService.findAll();
+            page = userService.findPage(cursor, pageProperties.getSize());
         }
-        model.addAttribute("users", users);
+        model.addAttribute("users", page.getContent());
+        model.addAttribute("page", page);
         return "admin/users/list";
     }
+
+    /** Gợi ý cho ô tìm kiếm trên trang danh sách, dùng chung chỉ mục với /search. */
+    @GetMapping("/autocomplete")
+    @ResponseBody
+    public List<UserIndex.Entry> autocomplete(@RequestParam(name = "q", required = false) String q,
+                                              @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return userService.autocomplete(q, Math.max(1, Math.min(limit, maxSuggestions)));
+    }
 }
@@ -0,0 +1,101 @@
+package vn.iotstar.controller.user;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import vn.iotstar.config.PageProperties;
+import vn.iotstar.service.StockService;
+import vn.iotstar.stock.OutOfStockException;
+import jakarta.servlet.http.HttpServletRequest;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+import vn.iotstar.stock.Reservation;
+import vn.iotstar.stock.ReservationLimitException;
+import vn.iotstar.stock.UnknownReservationException;
+
+@Controller
+@RequestMapping("/user/stock")
+public class StockController {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Autowired
+    private PageProperties pageProperties;
+
+    /**
+     * Số lượng có thể bán hiện tại của các sản phẩm trên một trang catalog. Trang catalog được
+     * cache nên không chứa số lượng; script trên trang lấy ở đây rồi cập nhật theo change feed.
+     */
+    @GetMapping("available")
+    @ResponseBody
+    public ResponseEntity<Map<Long, Long>> available(@RequestParam("ids") List<Long> ids) {
+        if (ids.size() > pageProperties.getSize()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stockService.available(ids));
+    }
+
+    @PostMapping("{productId}/reserve")
+    @ResponseBody
+    public ResponseEntity<?> reserve(@PathVariable("productId") Long productId,
+                                     @RequestParam(name = "quantity", defaultValue = "1") long quantity,
+                                     HttpServletRequest request) {
+        SessionPrincipal principal = sessionManager.resolve(request);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            Reservation reservation = stockService.reserve(productId, quantity, principal.getId());
+            return ResponseEntity.ok(reservation);
+        } catch (OutOfStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (ReservationLimitException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("reservations/{id}/commit")
+    @ResponseBody
+    public ResponseEntity<?> commit(@PathVariable("id") String id, HttpServletRequest request) {
+        SessionPrincipal principal = sessionManager.resolve(request);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            stockService.commit(id, principal.getId());
+            return ResponseEntity.noContent().build();
+        } catch (UnknownReservationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("reservations/{id}/release")
+    @ResponseBody
+    public ResponseEntity<?> release(@PathVariable("id") String id, HttpServletRequest request) {
+        SessionPrincipal principal = sessionManager.resolve(request);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            stockService.release(id, principal.getId());
+            return ResponseEntity.noContent().build();
+        } catch (UnknownReservationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
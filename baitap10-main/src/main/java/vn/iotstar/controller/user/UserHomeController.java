@@ -1,17 +1,45 @@
 package vn.iotstar.controller.user;
 
-import jakarta.servlet.http.HttpSession;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import vn.iotstar.config.PageProperties;
 import vn.iotstar.entity.User;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductFilter;
+import vn.iotstar.model.ProductListItem;
+import vn.iotstar.service.CategoryService;
+import vn.iotstar.service.ProductService;
+import vn.iotstar.service.UserService;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
 
 @Controller
 public class UserHomeController {
 
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private PageProperties pageProperties;
+
     @GetMapping("/user/home")
-    public String home(HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
+    public String home(HttpServletRequest request, Model model) {
+        SessionPrincipal user = sessionManager.resolve(request);
         if (user == null) {
             return "redirect:/login";
         }
@@ -20,8 +48,9 @@ public class UserHomeController {
     }
 
     @GetMapping("/user/profile")
-    public String profile(HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
+    public String profile(HttpServletRequest request, Model model) {
+        SessionPrincipal principal = sessionManager.resolve(request);
+        User user = principal == null ? null : userService.findById(principal.getId());
         if (user == null) {
             return "redirect:/login";
         }
@@ -29,13 +58,25 @@ public class UserHomeController {
         return "user/profile";
     }
     
+    // Hai trang catalog giống nhau với mọi người dùng nên được PageCacheFilter cache nguyên trang
     @GetMapping("/user/categories")
-    public String categories() {
+    public String categories(Model model) {
+        model.addAttribute("categories", categoryService.findAll());
         return "user/categories";
     }
     
     @GetMapping("/user/products")
-    public String products() {
+    public String products(Model model,
+                           @RequestParam(name = "category", required = false) List<Long> categoryIds,
+                           @RequestParam(name = "band", required = false) List<Integer> priceBands,
+                           @RequestParam(name = "inStock", defaultValue = "false") boolean inStock,
+                           @RequestParam(name = "cursor", required = false) Long cursor) {
+        ProductFilter filter = new ProductFilter(categoryIds, priceBands, inStock);
+        KeysetPage<ProductListItem> page = productService.filterPage(filter, cursor, pageProperties.getSize());
+        model.addAttribute("products", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("filter", filter);
+        model.addAttribute("facets", productService.facets(filter));
         return "user/products";
     }
 }
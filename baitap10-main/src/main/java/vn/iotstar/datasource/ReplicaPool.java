@@ -0,0 +1,206 @@
+package vn.iotstar.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Tập replica đọc: chọn replica theo "power of two choices" trên số kết nối đang dùng,
+ * loại replica lỗi hoặc trễ quá ngưỡng trong {@code ejectMillis} và đưa lại khi kiểm tra
+ * sức khỏe thành công.
+ */
+public class ReplicaPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private final List<Replica> replicas;
+    private final long ejectMillis;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+
+    private final LongAdder routed = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder ejections = new LongAdder();
+
+    public ReplicaPool(List<HikariDataSource> dataSources, long ejectMillis, String lagQuery, long maxLagSeconds) {
+        this.replicas = dataSources.stream().map(Replica::new).toList();
+        this.ejectMillis = ejectMillis;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Replica khỏe ít tải hơn trong hai replica chọn ngẫu nhiên, hoặc null nếu không còn
+     * replica nào khỏe (người gọi dùng primary).
+     */
+    public Replica choose() {
+        long now = System.currentTimeMillis();
+        int size = replicas.size();
+        int start = size == 0 ? 0 : ThreadLocalRandom.current().nextInt(size);
+        Replica first = null;
+        Replica second = null;
+        // Duyệt vòng từ vị trí ngẫu nhiên, lấy hai replica khỏe đầu tiên
+        for (int i = 0; i < size && second == null; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy(now)) {
+                if (first == null) {
+                    first = replica;
+                } else {
+                    second = replica;
+                }
+            }
+        }
+        if (first == null) {
+            return null;
+        }
+        return second == null || first.activeConnections() <= second.activeConnections() ? first : second;
+    }
+
+    /**
+     * Kết nối tới một replica khỏe, hoặc null nếu không có replica nào dùng được; replica
+     * không cấp được kết nối bị loại ngay để các request sau không phải chờ timeout.
+     */
+    public Connection getConnection() {
+        Replica replica = choose();
+        if (replica == null) {
+            fallbacks.increment();
+            return null;
+        }
+        try {
+            Connection connection = replica.getDataSource().getConnection();
+            routed.increment();
+            return connection;
+        } catch (SQLException e) {
+            eject(replica, e.getMessage());
+            fallbacks.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Loại replica khỏi vòng chọn; được gọi khi lấy kết nối thất bại hoặc kiểm tra sức khỏe lỗi.
+     */
+    public void eject(Replica replica, String reason) {
+        boolean wasHealthy = replica.isHealthy(System.currentTimeMillis());
+        replica.ejectedUntil = System.currentTimeMillis() + ejectMillis;
+        replica.lastError = reason;
+        if (wasHealthy) {
+            ejections.increment();
+            log.warn("Replica {} bị loại trong {} ms: {}", replica.getName(), ejectMillis, reason);
+        }
+    }
+
+    /**
+     * Kiểm tra từng replica: kết nối còn hợp lệ và (nếu cấu hình lag-query) độ trễ sao chép
+     * không vượt ngưỡng. Replica đạt thì được đưa lại vào vòng chọn ngay.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            String problem = probe(replica);
+            if (problem != null) {
+                eject(replica, problem);
+            } else if (replica.ejectedUntil != 0L) {
+                replica.ejectedUntil = 0L;
+                replica.lastError = null;
+                log.info("Replica {} hoạt động trở lại", replica.getName());
+            }
+        }
+    }
+
+    private String probe(Replica replica) {
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            if (!connection.isValid(1)) {
+                return "kết nối không hợp lệ";
+            }
+            if (lagQuery == null) {
+                return null;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next() || rs.getObject(1) == null) {
+                    return "không đọc được độ trễ sao chép";
+                }
+                long lag = rs.getLong(1);
+                return lag > maxLagSeconds ? "trễ sao chép " + lag + " s" : null;
+            }
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    public int getHealthyCount() {
+        long now = System.currentTimeMillis();
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.isHealthy(now)) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    public long getRouted() {
+        return routed.sum();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    public long getEjections() {
+        return ejections.sum();
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.getDataSource().close();
+        }
+    }
+
+    public static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile long ejectedUntil;
+        private volatile String lastError;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return dataSource.getPoolName();
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        public boolean isHealthy(long now) {
+            return now >= ejectedUntil;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package vn.iotstar.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Đánh dấu phương thức chỉ đọc được phép chạy trên replica. Chỉ có hiệu lực khi gọi qua
+ * proxy Spring và khi đã cấu hình app.datasource.replica.urls; các trường hợp còn lại
+ * (ghi, giao dịch không readOnly, vừa ghi xong) vẫn đi primary.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplicaRead {
+}
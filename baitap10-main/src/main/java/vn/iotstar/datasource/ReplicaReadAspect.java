@@ -0,0 +1,24 @@
+package vn.iotstar.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bật ngữ cảnh đọc replica trong suốt lời gọi phương thức {@link ReplicaRead}.
+ */
+@Aspect
+@Component
+public class ReplicaReadAspect {
+
+    @Around("@annotation(vn.iotstar.datasource.ReplicaRead)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        RoutingContext.enterReplicaRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RoutingContext.exitReplicaRead();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package vn.iotstar.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chọn primary hoặc replica cho mỗi kết nối. Đi replica khi đang trong phương thức
+ * {@link ReplicaRead}, không có giao dịch ghi và request không bị ghim vào primary;
+ * replica lỗi thì rơi về primary. Phải đặt sau LazyConnectionDataSourceProxy để quyết định
+ * được đưa ra lúc chạy câu lệnh đầu tiên, khi cờ readOnly của giao dịch đã được thiết lập.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+    private final long readYourWritesMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicas, long readYourWritesMillis) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            Connection connection = replicas.getConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            RoutingContext.markWrite(readYourWritesMillis);
+            return false;
+        }
+        return RoutingContext.isReplicaRead() && !RoutingContext.isPinnedToPrimary();
+    }
+}
@@ -0,0 +1,110 @@
+package vn.iotstar.datasource;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Trạng thái định tuyến của luồng/request hiện tại: đang ở trong phương thức
+ * {@link ReplicaRead} hay không, và request có bị ghim vào primary (read-your-writes) không.
+ * Dấu ghim được giữ trong request attribute và cookie, không dùng ThreadLocal sống qua request.
+ */
+public final class RoutingContext {
+    public static final String COOKIE_NAME = "BT10_PRIMARY_UNTIL";
+
+    private static final String PINNED_ATTRIBUTE = RoutingContext.class.getName() + ".pinned";
+    private static final ThreadLocal<Integer> REPLICA_READS = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    static void enterReplicaRead() {
+        Integer depth = REPLICA_READS.get();
+        REPLICA_READS.set(depth == null ? 1 : depth + 1);
+    }
+
+    static void exitReplicaRead() {
+        Integer depth = REPLICA_READS.get();
+        if (depth == null || depth <= 1) {
+            REPLICA_READS.remove();
+        } else {
+            REPLICA_READS.set(depth - 1);
+        }
+    }
+
+    public static boolean isReplicaRead() {
+        return REPLICA_READS.get() != null;
+    }
+
+    /**
+     * Request hiện tại phải đọc từ primary: đã ghi trong chính request này, hoặc trình duyệt
+     * gửi kèm cookie của lần ghi gần đây chưa hết hạn. Kết quả được nhớ trong request attribute.
+     */
+    public static boolean isPinnedToPrimary() {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null) {
+            return false;
+        }
+        Object cached = attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof Boolean pinned) {
+            return pinned;
+        }
+        boolean pinned = readUntil(attributes.getRequest()) > System.currentTimeMillis();
+        attributes.setAttribute(PINNED_ATTRIBUTE, pinned, RequestAttributes.SCOPE_REQUEST);
+        return pinned;
+    }
+
+    /**
+     * Ghi nhận một lần ghi: phần còn lại của request đọc primary, và cookie giữ điều đó
+     * thêm {@code windowMillis} cho các request kế tiếp (thường là trang sau redirect).
+     */
+    static void markWrite(long windowMillis) {
+        ServletRequestAttributes attributes = currentRequest();
+        if (attributes == null || windowMillis <= 0) {
+            return;
+        }
+        attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()
+                || attributes.getAttribute(COOKIE_NAME, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        long until = System.currentTimeMillis() + windowMillis;
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, Long.toString(until))
+                .httpOnly(true)
+                .path("/")
+                .sameSite("Lax")
+                .maxAge((windowMillis + 999) / 1000)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        attributes.setAttribute(COOKIE_NAME, until, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private static ServletRequestAttributes currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes : null;
+    }
+
+    private static long readUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0L;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        return 0L;
+    }
+}
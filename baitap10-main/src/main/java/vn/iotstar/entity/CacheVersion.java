@@ -0,0 +1,21 @@
+package vn.iotstar.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "cache_versions")
+public class CacheVersion implements Serializable {
+    @Id
+    @Column(name = "name", length = 50)
+    private String name; // tên vùng cache, ví dụ "categories"
+
+    @Column(name = "version", nullable = false)
+    private Long version; // tăng mỗi lần dữ liệu gốc thay đổi (dùng chung giữa các node)
+}
@@ -29,14 +29,15 @@ public class Product implements Serializable {
     @Column(nullable = false)
     private Double price; // giá sản phẩm
 
-    @Column(nullable = false)
+    // Chỉ ghi khi thêm mới; sau đó chỉ StockService được thay đổi cột này (UPDATE có điều kiện)
+    @Column(nullable = false, updatable = false)
     private Integer quantity; // số lượng trong kho
 
     @Column(name = "image", nullable = true)
     private String image; // tên file ảnh (lưu trong thư mục upload.path)
 
     // Nếu bạn có bảng Category thì thêm quan hệ ManyToOne
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 }
@@ -0,0 +1,13 @@
+package vn.iotstar.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phát ra sau khi một danh mục được thêm, sửa hoặc xóa.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+}
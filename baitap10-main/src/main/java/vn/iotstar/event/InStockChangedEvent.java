@@ -0,0 +1,15 @@
+package vn.iotstar.event;
+
+import java.util.Collection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phát ra khi các sản phẩm chuyển giữa còn hàng và hết hàng (không phát cho mỗi lần giữ chỗ).
+ */
+@Getter
+@AllArgsConstructor
+public class InStockChangedEvent {
+    private final Collection<Long> productIds;
+}
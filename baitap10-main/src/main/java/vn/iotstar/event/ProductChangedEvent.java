@@ -0,0 +1,19 @@
+package vn.iotstar.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import vn.iotstar.entity.Product;
+
+/**
+ * Phát ra sau khi một sản phẩm được lưu hoặc xóa. {@code product} là null khi bị xóa.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+    private final Product product;
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
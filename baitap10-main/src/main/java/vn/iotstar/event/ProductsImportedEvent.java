@@ -0,0 +1,14 @@
+package vn.iotstar.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phát ra sau một lần nhập hàng loạt: các sản phẩm có id lớn hơn {@code afterId} là mới.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsImportedEvent {
+    private final long afterId;
+    private final long inserted;
+}
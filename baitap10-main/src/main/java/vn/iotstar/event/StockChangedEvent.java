@@ -0,0 +1,13 @@
+package vn.iotstar.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phát ra khi số lượng có thể bán của một sản phẩm thay đổi (giữ chỗ, hủy, đặt lại tồn kho).
+ */
+@Getter
+@AllArgsConstructor
+public class StockChangedEvent {
+    private final Long productId;
+}
@@ -0,0 +1,19 @@
+package vn.iotstar.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import vn.iotstar.entity.User;
+
+/**
+ * Phát ra sau khi một người dùng được lưu hoặc xóa. {@code user} là null khi bị xóa.
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final Long userId;
+    private final User user;
+
+    public boolean isDeleted() {
+        return user == null;
+    }
+}
@@ -0,0 +1,188 @@
+package vn.iotstar.feed;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import vn.iotstar.event.CategoryChangedEvent;
+import vn.iotstar.event.ProductChangedEvent;
+import vn.iotstar.event.ProductsImportedEvent;
+import vn.iotstar.event.StockChangedEvent;
+import vn.iotstar.model.ProductListItem;
+import vn.iotstar.repository.ProductRepository;
+import vn.iotstar.service.StockService;
+
+/**
+ * Đẩy thay đổi giá/tồn kho tới trang sản phẩm qua WebSocket.
+ *
+ * Các listener chỉ đánh dấu id sản phẩm đã đổi nên người ghi không bao giờ phải chờ.
+ * Mỗi cửa sổ {@code app.feed.window-ms}, mọi thay đổi dồn lại thành một tin duy nhất
+ * (một sản phẩm đổi nhiều lần chỉ gửi trạng thái mới nhất), được serialize một lần và
+ * xếp vào hàng đợi có giới hạn của từng session.
+ */
+@Component
+public class CatalogChangeFeed {
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeFeed.class);
+    // Giữ câu IN (...) ở kích thước hợp lý khi có nhập hàng loạt
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    private final ProductRepository productRepository;
+    private final StockService stockService;
+    private final ObjectMapper objectMapper;
+    private final int sessionBuffer;
+
+    private final Map<String, FeedSession> sessions = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reload = new AtomicBoolean();
+    // Việc gửi có thể chặn theo tốc độ mạng của từng client: mỗi tác vụ gửi một virtual thread
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public CatalogChangeFeed(ProductRepository productRepository, StockService stockService, ObjectMapper objectMapper,
+                             @Value("${app.feed.session-buffer:16}") int sessionBuffer) {
+        this.productRepository = productRepository;
+        this.stockService = stockService;
+        this.objectMapper = objectMapper;
+        this.sessionBuffer = sessionBuffer;
+    }
+
+    public FeedSession subscribe(WebSocketSession session) {
+        FeedSession subscriber = new FeedSession(session, sessionBuffer);
+        sessions.put(session.getId(), subscriber);
+        return subscriber;
+    }
+
+    public void unsubscribe(WebSocketSession session) {
+        sessions.remove(session.getId());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        events.increment();
+        if (event.isDeleted()) {
+            deleted.add(event.getProductId());
+        } else {
+            changed.add(event.getProductId());
+        }
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        events.increment();
+        changed.add(event.getProductId());
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        events.increment();
+        reload.set(true);
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        events.increment();
+        reload.set(true);
+    }
+
+    /** Gom các thay đổi từ lần trước và phát một tin tới mọi session. */
+    @Scheduled(fixedDelayString = "${app.feed.window-ms:250}")
+    public void flush() {
+        List<Long> changedIds = takeAll(changed);
+        List<Long> deletedIds = takeAll(deleted);
+        boolean reloadNeeded = reload.getAndSet(false);
+        if (changedIds.isEmpty() && deletedIds.isEmpty() && !reloadNeeded) {
+            return;
+        }
+        if (sessions.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> products = new ArrayList<>(changedIds.size());
+        for (int from = 0; from < changedIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> ids = changedIds.subList(from, Math.min(changedIds.size(), from + MAX_IDS_PER_QUERY));
+            Map<Long, Long> available = stockService.available(ids);
+            for (ProductListItem item : productRepository.findListItemsByIdIn(ids)) {
+                Map<String, Object> product = new LinkedHashMap<>();
+                product.put("id", item.getId());
+                product.put("title", item.getTitle());
+                product.put("price", item.getPrice());
+                product.put("quantity", available.getOrDefault(item.getId(), item.getQuantity().longValue()));
+                product.put("categoryId", item.getCategoryId());
+                products.add(product);
+            }
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("products", products);
+        payload.put("deleted", deletedIds);
+        payload.put("reload", reloadNeeded);
+        TextMessage message;
+        try {
+            message = new TextMessage(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize catalog changes", e);
+            return;
+        }
+        broadcast(message);
+    }
+
+    void broadcast(TextMessage message) {
+        broadcasts.increment();
+        for (FeedSession session : sessions.values()) {
+            dropped.add(session.enqueue(message, sender));
+        }
+    }
+
+    private static List<Long> takeAll(Set<Long> ids) {
+        List<Long> taken = new ArrayList<>();
+        for (Long id : ids) {
+            if (ids.remove(id)) {
+                taken.add(id);
+            }
+        }
+        return taken;
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.shutdownNow();
+    }
+
+    public int getSubscribers() {
+        return sessions.size();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getEvents() {
+        return events.sum();
+    }
+
+    public long getBroadcasts() {
+        return broadcasts.sum();
+    }
+}
@@ -0,0 +1,40 @@
+package vn.iotstar.feed;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * Endpoint /user/feed: client chỉ nghe, tin nhắn client gửi lên bị bỏ qua.
+ */
+@Component
+public class ChangeFeedHandler extends TextWebSocketHandler {
+
+    private final CatalogChangeFeed changeFeed;
+
+    public ChangeFeedHandler(CatalogChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        changeFeed.subscribe(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        // feed một chiều
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        changeFeed.unsubscribe(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        changeFeed.unsubscribe(session);
+    }
+}
@@ -0,0 +1,46 @@
+package vn.iotstar.feed;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/**
+ * Handshake WebSocket không đi qua AuthInterceptor của MVC nên kiểm tra phiên đăng nhập ở đây.
+ */
+@Component
+public class FeedHandshakeInterceptor implements HandshakeInterceptor {
+
+    private final SessionManager sessionManager;
+
+    public FeedHandshakeInterceptor(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            SessionPrincipal user = sessionManager.resolve(servletRequest.getServletRequest());
+            if (user != null && user.hasRole("user")) {
+                attributes.put(SessionManager.PRINCIPAL_ATTRIBUTE, user);
+                return true;
+            }
+        }
+        response.setStatusCode(HttpStatus.FORBIDDEN);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,91 @@
+package vn.iotstar.feed;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Một người nghe change feed: hàng đợi có giới hạn, đầy thì bỏ tin cũ nhất.
+ * Luồng phát chỉ xếp tin vào hàng đợi; việc gửi qua socket chạy trên executor riêng,
+ * mỗi lúc tối đa một tác vụ gửi cho một session (WebSocketSession không an toàn đa luồng).
+ */
+public final class FeedSession {
+    private final WebSocketSession session;
+    private final ArrayBlockingQueue<TextMessage> queue;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public FeedSession(WebSocketSession session, int capacity) {
+        this.session = session;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public String getId() {
+        return session.getId();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /** Xếp tin và lên lịch gửi; không bao giờ chặn người gọi. Trả về số tin cũ đã bị bỏ. */
+    public int enqueue(TextMessage message, Executor sender) {
+        int evicted = 0;
+        while (!queue.offer(message)) {
+            if (queue.poll() != null) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            dropped.addAndGet(evicted);
+        }
+        if (sending.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+        return evicted;
+    }
+
+    private void drain() {
+        while (true) {
+            TextMessage message;
+            while ((message = queue.poll()) != null) {
+                if (!send(message)) {
+                    queue.clear();
+                    return;
+                }
+            }
+            sending.set(false);
+            // Tin đến sau lần poll cuối nhưng trước khi nhả cờ: tự lấy lại quyền gửi
+            if (queue.isEmpty() || !sending.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private boolean send(TextMessage message) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        try {
+            session.sendMessage(message);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // socket đã hỏng, không còn gì để làm
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package vn.iotstar.image;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lưu ảnh theo địa chỉ nội dung: tên file là SHA-256 của dữ liệu, nên cùng một ảnh
+ * tải lên nhiều lần chỉ được ghi một lần và URL của ảnh không bao giờ đổi nội dung.
+ *
+ * Cấu trúc thư mục dưới upload.path:
+ * originals/ab/&lt;hash&gt;.jpg, thumbs/&lt;width&gt;/ab/&lt;hash&gt;.jpg (hoặc &lt;hash&gt;.jpg.none), tmp/
+ */
+@Component
+public class ImageStore {
+    private static final Pattern KEY = Pattern.compile("^[0-9a-f]{64}\\.(jpg|png|gif|webp)$");
+
+    private final Path originals;
+    private final Path thumbnails;
+    private final Path tmp;
+
+    public ImageStore(@Value("${upload.path}") String uploadPath) {
+        Path root = Path.of(uploadPath).toAbsolutePath().normalize();
+        this.originals = root.resolve("originals");
+        this.thumbnails = root.resolve("thumbs");
+        this.tmp = root.resolve("tmp");
+    }
+
+    /**
+     * Ghi ảnh vào kho và trả về khóa (hash + đuôi). Định dạng được nhận diện từ
+     * magic bytes, không tin Content-Type của client.
+     *
+     * @throws IllegalArgumentException nếu dữ liệu không phải JPEG/PNG/GIF/WebP
+     */
+    public String store(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(16);
+        String extension = detectExtension(buffered.readNBytes(12));
+        buffered.reset();
+        if (extension == null) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+
+        Files.createDirectories(tmp);
+        Path part = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            MessageDigest sha256 = sha256();
+            try (InputStream digesting = new DigestInputStream(buffered, sha256);
+                 OutputStream out = Files.newOutputStream(part)) {
+                digesting.transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(sha256.digest()) + "." + extension;
+            Path target = original(key);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                // Hai lần tải cùng nội dung chạy song song: file đích giống hệt nhau nên ghi đè là an toàn
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * URL ảnh gốc cho giá trị Product.image. Sản phẩm tạo trước khi có kho này còn giữ
+     * đường dẫn/URL cũ (không phải khóa): trả nguyên giá trị đó như trước đây.
+     */
+    public String url(String image) {
+        return isValidKey(image) ? "/media/" + image : image;
+    }
+
+    /** Như {@link #url}, nhưng trỏ tới thumbnail khi giá trị là khóa. */
+    public String thumbnailUrl(String image) {
+        return isValidKey(image) ? "/media/thumb/" + image : image;
+    }
+
+    public boolean isValidKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    public Path original(String key) {
+        checkKey(key);
+        return originals.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    public Path thumbnail(String key, int width) {
+        checkKey(key);
+        return thumbnails.resolve(Integer.toString(width)).resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /**
+     * File đánh dấu ảnh không tạo được thumbnail (ImageIO không đọc được, vd. WebP, hoặc ảnh quá lớn),
+     * để không thử lại ở mỗi request.
+     */
+    public Path noThumbnail(String key, int width) {
+        Path thumbnail = thumbnail(key, width);
+        return thumbnail.resolveSibling(thumbnail.getFileName() + ".none");
+    }
+
+    /** Đường dẫn file tạm cùng ổ đĩa để có thể move nguyên tử vào kho. */
+    Path createTempFile() throws IOException {
+        Files.createDirectories(tmp);
+        return Files.createTempFile(tmp, "thumb-", ".part");
+    }
+
+    public static String hash(String key) {
+        return key.substring(0, key.indexOf('.'));
+    }
+
+    public static String extension(String key) {
+        return key.substring(key.indexOf('.') + 1);
+    }
+
+    public static String contentType(String key) {
+        return switch (extension(key)) {
+            case "jpg" -> "image/jpeg";
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            default -> "application/octet-stream";
+        };
+    }
+
+    private void checkKey(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid image key");
+        }
+    }
+
+    static String detectExtension(byte[] head) {
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (head.length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "png";
+        }
+        if (head.length >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "gif";
+        }
+        if (head.length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package vn.iotstar.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Tạo thumbnail bất đồng bộ trên pool luồng có giới hạn. Khi hàng đợi đầy, yêu cầu
+ * bị bỏ qua: ảnh gốc vẫn được phục vụ và thumbnail sẽ được tạo lại ở lần truy cập sau.
+ * Ảnh không thể tạo thumbnail được đánh dấu một lần ({@link ImageStore#noThumbnail}) và không thử lại.
+ */
+@Component
+public class ThumbnailGenerator {
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailGenerator.class);
+    // Chặn ảnh "bom giải nén": kích thước khai báo quá lớn thì không decode
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    private final ImageStore imageStore;
+    private final int width;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ThumbnailGenerator(ImageStore imageStore,
+                              @Value("${app.image.thumbnail-width:360}") int width,
+                              @Value("${app.image.threads:0}") int threads,
+                              @Value("${app.image.queue-capacity:512}") int queueCapacity) {
+        this.imageStore = imageStore;
+        this.width = width;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "thumbnail-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /** Ảnh đã được đánh dấu là không tạo được thumbnail: luôn dùng ảnh gốc. */
+    public boolean isUnsupported(String key) {
+        return Files.exists(imageStore.noThumbnail(key, width));
+    }
+
+    /**
+     * Xếp lịch tạo thumbnail nếu chưa có. Trả về false nếu đã có, không tạo được, đang tạo, hoặc pool đầy.
+     */
+    public boolean submit(String key) {
+        if (Files.exists(imageStore.thumbnail(key, width)) || isUnsupported(key) || !inFlight.add(key)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(key);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Thumbnail generation failed for {}", key, e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            rejected.increment();
+            return false;
+        }
+    }
+
+    void generate(String key) throws IOException {
+        Path source = imageStore.original(key);
+        Path target = imageStore.thumbnail(key, width);
+        BufferedImage image = read(source);
+        if (image == null) {
+            // Định dạng ImageIO không đọc được (vd. WebP) hoặc ảnh quá lớn: dùng ảnh gốc
+            markUnsupported(key);
+            return;
+        }
+        Path part = imageStore.createTempFile();
+        try {
+            if (image.getWidth() <= width) {
+                Files.copy(source, part, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                String format = ImageStore.extension(key);
+                if (!ImageIO.write(resize(image, format), format, part.toFile())) {
+                    markUnsupported(key);
+                    return;
+                }
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            generated.increment();
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    private void markUnsupported(String key) throws IOException {
+        Path marker = imageStore.noThumbnail(key, width);
+        Files.createDirectories(marker.getParent());
+        try {
+            Files.createFile(marker);
+        } catch (FileAlreadyExistsException e) {
+            // node khác vừa đánh dấu
+        }
+    }
+
+    private BufferedImage resize(BufferedImage image, String format) {
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        // JPEG không có kênh alpha
+        int type = "jpg".equals(format) || !image.getColorModel().hasAlpha()
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    log.warn("Skipping thumbnail for oversized image {}", source.getFileName());
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public long getGenerated() {
+        return generated.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
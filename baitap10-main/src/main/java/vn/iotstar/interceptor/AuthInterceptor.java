@@ -2,31 +2,36 @@ package vn.iotstar.interceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import vn.iotstar.entity.User;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
 
 @Component
 public class AuthInterceptor implements HandlerInterceptor {
 
+    private final SessionManager sessionManager;
+
+    public AuthInterceptor(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
             throws Exception {
-        HttpSession session = request.getSession(false);
-        User user = (session != null) ? (User) session.getAttribute("user") : null;
+        SessionPrincipal user = sessionManager.resolve(request);
 
         String uri = request.getRequestURI();
 
         if (uri.startsWith("/admin")) {
-            if (user == null || !"admin".equals(user.getRole())) {
+            if (user == null || !user.hasRole("admin")) {
                 response.sendRedirect("/login");
                 return false;
             }
         } else if (uri.startsWith("/user")) {
-            if (user == null || !"user".equals(user.getRole())) {
+            if (user == null || !user.hasRole("user")) {
                 response.sendRedirect("/login");
                 return false;
             }
@@ -0,0 +1,209 @@
+package vn.iotstar.mail;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import vn.iotstar.entity.MailOutbox;
+import vn.iotstar.repository.MailOutboxRepository;
+
+/**
+ * Gửi email từ bảng mail_outbox theo lô. Mỗi email được "nhận" bằng UPDATE có điều kiện nên
+ * nhiều node có thể cùng chạy; tối đa {@code app.mail.concurrency} kết nối SMTP cùng lúc.
+ * Gửi lỗi thì thử lại với thời gian chờ tăng gấp đôi (có jitter), quá max-attempts thì đánh dấu FAILED.
+ *
+ * Khi bật spring.threads.virtual.enabled, mỗi email gửi trên một virtual thread (SMTP chỉ chờ mạng)
+ * và semaphore giữ giới hạn concurrency thay cho pool luồng cố định.
+ */
+@Component
+public class MailDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+    public static final String SEND_TIMER = "app.mail.send";
+
+    private final MailOutboxRepository outboxRepository;
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final ExecutorService executor;
+    private final Semaphore connections;
+    private final Timer sendTimer;
+
+    @Value("${spring.mail.username:no-reply@localhost}")
+    private String from;
+
+    @Value("${app.mail.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.backoff-initial-ms:5000}")
+    private long backoffInitialMillis;
+
+    @Value("${app.mail.backoff-max-ms:3600000}")
+    private long backoffMaxMillis;
+
+    @Value("${app.mail.lease-seconds:120}")
+    private long leaseSeconds;
+
+    private volatile long pending;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public MailDispatcher(MailOutboxRepository outboxRepository, ObjectProvider<JavaMailSender> mailSender,
+                          MeterRegistry registry, @Value("${app.mail.concurrency:4}") int concurrency,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mail-", 1).factory());
+            this.connections = new Semaphore(Math.max(1, concurrency));
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+                Thread t = new Thread(r, "mail-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            this.connections = null;
+        }
+        this.sendTimer = Timer.builder(SEND_TIMER)
+                .description("Thời gian gửi một email qua SMTP")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    /** Lấy các email đến hạn, gửi song song trong giới hạn concurrency và chờ cả lô xong. */
+    @Scheduled(fixedDelayString = "${app.mail.poll-interval-ms:1000}")
+    public void dispatch() {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            // Chưa cấu hình spring.mail.host: email nằm chờ trong outbox
+            pending = outboxRepository.countByStatus(MailOutbox.Status.PENDING);
+            return;
+        }
+        List<MailOutbox> due;
+        do {
+            Instant now = now();
+            due = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                    MailOutbox.Status.PENDING, now, Limit.of(batchSize));
+            List<Callable<Void>> tasks = new ArrayList<>(due.size());
+            for (MailOutbox mail : due) {
+                if (outboxRepository.claim(mail.getId(), mail.getAttempts(), now.plusSeconds(leaseSeconds),
+                        MailOutbox.Status.PENDING) == 1) {
+                    int attempt = mail.getAttempts() + 1;
+                    tasks.add(() -> {
+                        sendLimited(sender, mail, attempt);
+                        return null;
+                    });
+                }
+            }
+            try {
+                executor.invokeAll(tasks);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } while (due.size() == batchSize);
+        pending = outboxRepository.countByStatus(MailOutbox.Status.PENDING);
+    }
+
+    private void sendLimited(JavaMailSender sender, MailOutbox mail, int attempt) throws InterruptedException {
+        if (connections == null) {
+            send(sender, mail, attempt);
+            return;
+        }
+        connections.acquire();
+        try {
+            send(sender, mail, attempt);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private void send(JavaMailSender sender, MailOutbox mail, int attempt) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(mail.getRecipient());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        long start = System.nanoTime();
+        try {
+            sender.send(message);
+            sendTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            outboxRepository.complete(mail.getId(), MailOutbox.Status.SENT, now(), null);
+            sent.increment();
+        } catch (MailException e) {
+            String error = truncate(e.getMessage());
+            if (attempt >= maxAttempts) {
+                log.warn("Giving up on mail {} to {} after {} attempts", mail.getId(), mail.getRecipient(), attempt, e);
+                outboxRepository.complete(mail.getId(), MailOutbox.Status.FAILED, null, error);
+                failed.increment();
+            } else {
+                outboxRepository.reschedule(mail.getId(), now().plusMillis(backoff(attempt)), error);
+                retried.increment();
+            }
+        }
+    }
+
+    /** initial * 2^(attempt-1), tối đa backoff-max-ms, lệch ngẫu nhiên ±20% để các email lỗi không dồn cùng lúc. */
+    long backoff(int attempt) {
+        long delay = backoffInitialMillis << Math.min(attempt - 1, 30);
+        delay = Math.min(delay < 0 ? backoffMaxMillis : delay, backoffMaxMillis);
+        return (long) (delay * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getRetried() {
+        return retried.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,110 @@
+package vn.iotstar.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import vn.iotstar.admission.AdmissionInterceptor;
+import vn.iotstar.audit.AuditLog;
+import vn.iotstar.cache.CategoryCache;
+import vn.iotstar.cache.PageCache;
+import vn.iotstar.datasource.ReplicaPool;
+import vn.iotstar.feed.CatalogChangeFeed;
+import vn.iotstar.image.ThumbnailGenerator;
+import vn.iotstar.mail.MailDispatcher;
+import vn.iotstar.search.ProductFacetIndex;
+import vn.iotstar.search.ProductSearchIndex;
+import vn.iotstar.search.UserSearchIndex;
+import vn.iotstar.security.PasswordHasher;
+import vn.iotstar.service.impl.AvailabilityServiceImpl;
+import vn.iotstar.session.SessionManager;
+
+@Configuration
+public class MetricsConfig {
+    public static final String QUERY_TIMER = "app.db.statement";
+    public static final String SLOW_QUERY_COUNTER = "app.db.statement.slow";
+
+    @Bean
+    public MeterBinder queryMetrics(@Value("${app.metrics.slow-query-ms:100}") long slowQueryMillis) {
+        return registry -> QueryTimingListener.bind(new QueryTimingListener.QueryMetrics(
+                Timer.builder(QUERY_TIMER)
+                        .description("Thời gian thực thi câu lệnh JDBC do Hibernate phát ra")
+                        .publishPercentiles(0.5, 0.99)
+                        .publishPercentileHistogram()
+                        .register(registry),
+                Counter.builder(SLOW_QUERY_COUNTER)
+                        .description("Số câu lệnh chạy lâu hơn app.metrics.slow-query-ms")
+                        .register(registry),
+                slowQueryMillis));
+    }
+
+    @Bean
+    public MeterBinder componentMetrics(CategoryCache categoryCache, PasswordHasher passwordHasher,
+                                        SessionManager sessionManager, ProductSearchIndex searchIndex,
+                                        ThumbnailGenerator thumbnailGenerator, PageCache pageCache,
+                                        CatalogChangeFeed changeFeed, MailDispatcher mailDispatcher,
+                                        AvailabilityServiceImpl availabilityService, UserSearchIndex userSearchIndex,
+                                        ProductFacetIndex facetIndex, AdmissionInterceptor admission, AuditLog auditLog,
+                                        ObjectProvider<ReplicaPool> replicaPool) {
+        return registry -> {
+            FunctionCounter.builder("app.category.cache.hits", categoryCache, CategoryCache::getHits).register(registry);
+            FunctionCounter.builder("app.category.cache.misses", categoryCache, CategoryCache::getMisses).register(registry);
+            FunctionCounter.builder("app.category.cache.reloads", categoryCache, CategoryCache::getReloads).register(registry);
+            FunctionCounter.builder("app.page.cache.hits", pageCache, PageCache::getHits).register(registry);
+            FunctionCounter.builder("app.page.cache.misses", pageCache, PageCache::getMisses).register(registry);
+            FunctionCounter.builder("app.page.cache.not-modified", pageCache, PageCache::getNotModified).register(registry);
+            FunctionCounter.builder("app.page.cache.invalidations", pageCache, PageCache::getInvalidations).register(registry);
+            Gauge.builder("app.password.hash.queue", passwordHasher, PasswordHasher::getQueueDepth).register(registry);
+            Gauge.builder("app.password.hash.active", passwordHasher, PasswordHasher::getActiveCount).register(registry);
+            Gauge.builder("app.sessions.active", sessionManager, SessionManager::activeSessions).register(registry);
+            Gauge.builder("app.search.index.documents", searchIndex, ProductSearchIndex::size).register(registry);
+            Gauge.builder("app.search.users.documents", userSearchIndex, UserSearchIndex::size).register(registry);
+            Gauge.builder("app.search.facets.documents", facetIndex, ProductFacetIndex::size).register(registry);
+            Gauge.builder("app.image.thumbnail.queue", thumbnailGenerator, ThumbnailGenerator::getQueueDepth).register(registry);
+            FunctionCounter.builder("app.image.thumbnail.rejected", thumbnailGenerator, ThumbnailGenerator::getRejected)
+                    .register(registry);
+            Gauge.builder("app.feed.subscribers", changeFeed, CatalogChangeFeed::getSubscribers).register(registry);
+            FunctionCounter.builder("app.feed.events", changeFeed, CatalogChangeFeed::getEvents).register(registry);
+            FunctionCounter.builder("app.feed.broadcasts", changeFeed, CatalogChangeFeed::getBroadcasts).register(registry);
+            FunctionCounter.builder("app.feed.dropped", changeFeed, CatalogChangeFeed::getDropped).register(registry);
+            Gauge.builder("app.mail.outbox.pending", mailDispatcher, MailDispatcher::getPending).register(registry);
+            FunctionCounter.builder("app.mail.sent", mailDispatcher, MailDispatcher::getSent).register(registry);
+            FunctionCounter.builder("app.mail.retried", mailDispatcher, MailDispatcher::getRetried).register(registry);
+            FunctionCounter.builder("app.mail.failed", mailDispatcher, MailDispatcher::getFailed).register(registry);
+            FunctionCounter.builder("app.availability.filter.answers", availabilityService,
+                    AvailabilityServiceImpl::getFilterAnswers).register(registry);
+            FunctionCounter.builder("app.availability.db.checks", availabilityService,
+                    AvailabilityServiceImpl::getDatabaseChecks).register(registry);
+            FunctionCounter.builder("app.admission.admitted", admission, AdmissionInterceptor::getAdmitted)
+                    .register(registry);
+            FunctionCounter.builder("app.admission.shed", admission, AdmissionInterceptor::getShed).register(registry);
+            FunctionCounter.builder("app.admission.shed.rate", admission, AdmissionInterceptor::getShedRate)
+                    .register(registry);
+            FunctionCounter.builder("app.admission.shed.concurrency", admission, AdmissionInterceptor::getShedConcurrency)
+                    .register(registry);
+            Gauge.builder("app.admission.in-flight", admission, AdmissionInterceptor::getInFlight).register(registry);
+            FunctionCounter.builder("app.audit.written", auditLog, AuditLog::getWritten).register(registry);
+            FunctionCounter.builder("app.audit.dropped", auditLog, AuditLog::getDropped).register(registry);
+            Gauge.builder("app.audit.backlog", auditLog, AuditLog::getBacklog).register(registry);
+            Gauge.builder("app.audit.segments", auditLog, AuditLog::getSegments).register(registry);
+            // Chỉ có khi cấu hình app.datasource.replica.urls
+            replicaPool.ifAvailable(pool -> {
+                if (pool.getReplicas().isEmpty()) {
+                    return;
+                }
+                Gauge.builder("app.datasource.replicas.healthy", pool, ReplicaPool::getHealthyCount).register(registry);
+                FunctionCounter.builder("app.datasource.replica.reads", pool, ReplicaPool::getRouted).register(registry);
+                FunctionCounter.builder("app.datasource.replica.fallbacks", pool, ReplicaPool::getFallbacks)
+                        .register(registry);
+                FunctionCounter.builder("app.datasource.replica.ejections", pool, ReplicaPool::getEjections)
+                        .register(registry);
+            });
+        };
+    }
+}
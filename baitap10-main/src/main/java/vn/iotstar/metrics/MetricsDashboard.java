@@ -0,0 +1,145 @@
+package vn.iotstar.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Gom số liệu từ MeterRegistry thành bảng cho trang /admin/metrics:
+ * endpoint chậm nhất (tách controller/render), service, repository và truy vấn.
+ */
+@Component
+public class MetricsDashboard {
+    private static final String HTTP_TIMER = "http.server.requests";
+    private static final String REPOSITORY_TIMER = "spring.data.repository.invocations";
+    private static final String[] GAUGES = {
+            "app.sessions.active", "app.password.hash.queue", "app.password.hash.active",
+            "app.search.index.documents", "app.search.users.documents", "app.search.facets.documents",
+            "app.image.thumbnail.queue", "app.feed.subscribers",
+            "app.mail.outbox.pending", "app.datasource.replicas.healthy", "app.admission.in-flight",
+            "app.audit.backlog",
+            "hikaricp.connections.active", "hikaricp.connections.pending", "jvm.threads.live"
+    };
+    private static final String[] COUNTERS = {
+            "app.category.cache.hits", "app.category.cache.misses", "app.category.cache.reloads",
+            "app.page.cache.hits", "app.page.cache.misses", "app.page.cache.not-modified",
+            "app.image.thumbnail.rejected", "app.feed.broadcasts", "app.feed.dropped",
+            "app.mail.sent", "app.mail.retried", "app.mail.failed",
+            "app.availability.filter.answers", "app.availability.db.checks",
+            "app.datasource.replica.reads", "app.datasource.replica.fallbacks", "app.datasource.replica.ejections",
+            "app.admission.admitted", "app.admission.shed.rate", "app.admission.shed.concurrency",
+            "app.audit.written", "app.audit.dropped",
+            MetricsConfig.SLOW_QUERY_COUNTER
+    };
+
+    private final MeterRegistry registry;
+    private final int topN;
+
+    public MetricsDashboard(MeterRegistry registry, @Value("${app.metrics.top-n:10}") int topN) {
+        this.registry = registry;
+        this.topN = topN;
+    }
+
+    /** Một dòng trong bảng; thời gian tính bằng ms. */
+    public record Row(String name, long count, double totalMs, double meanMs, double p99Ms, double maxMs,
+                      double handlerMs, double renderMs) {
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("endpoints", endpoints());
+        data.put("services", top(ServiceTimingAspect.SERVICE_TIMER, "class", "method"));
+        data.put("repositories", top(REPOSITORY_TIMER, "repository", "method"));
+        Timer query = registry.find(MetricsConfig.QUERY_TIMER).timer();
+        data.put("queries", query == null ? null : row("statements", List.of(query), 0, 0));
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (String name : GAUGES) {
+            Gauge gauge = registry.find(name).gauge();
+            if (gauge != null) {
+                values.put(name, gauge.value());
+            }
+        }
+        for (String name : COUNTERS) {
+            FunctionCounter fc = registry.find(name).functionCounter();
+            Counter c = registry.find(name).counter();
+            if (fc != null) {
+                values.put(name, fc.count());
+            } else if (c != null) {
+                values.put(name, c.count());
+            }
+        }
+        data.put("values", values);
+        return data;
+    }
+
+    /** Top-N endpoint theo p99, gộp các timer khác nhau theo status/outcome. */
+    private List<Row> endpoints() {
+        Map<String, List<Timer>> byEndpoint = new LinkedHashMap<>();
+        for (Timer timer : registry.find(HTTP_TIMER).timers()) {
+            String uri = timer.getId().getTag("uri");
+            if (uri == null || uri.startsWith("/actuator") || uri.startsWith("/admin/metrics")) {
+                continue;
+            }
+            byEndpoint.computeIfAbsent(timer.getId().getTag("method") + " " + uri, k -> new ArrayList<>()).add(timer);
+        }
+        List<Row> rows = new ArrayList<>();
+        byEndpoint.forEach((endpoint, timers) -> {
+            String method = endpoint.substring(0, endpoint.indexOf(' '));
+            String uri = endpoint.substring(endpoint.indexOf(' ') + 1);
+            rows.add(row(endpoint, timers,
+                    mean(TimingInterceptor.HANDLER_TIMER, uri, method),
+                    mean(TimingInterceptor.RENDER_TIMER, uri, method)));
+        });
+        rows.sort(Comparator.comparingDouble(Row::p99Ms).reversed());
+        return rows.size() > topN ? rows.subList(0, topN) : rows;
+    }
+
+    /** Top-N theo tổng thời gian, mỗi timer (theo cặp tag) là một dòng. */
+    private List<Row> top(String timerName, String tag1, String tag2) {
+        Map<String, List<Timer>> grouped = new LinkedHashMap<>();
+        for (Timer timer : registry.find(timerName).timers()) {
+            String name = timer.getId().getTag(tag1) + "." + timer.getId().getTag(tag2);
+            grouped.computeIfAbsent(name, k -> new ArrayList<>()).add(timer);
+        }
+        List<Row> rows = new ArrayList<>();
+        grouped.forEach((name, timers) -> rows.add(row(name, timers, 0, 0)));
+        rows.sort(Comparator.comparingDouble(Row::totalMs).reversed());
+        return rows.size() > topN ? rows.subList(0, topN) : rows;
+    }
+
+    private double mean(String timerName, String uri, String method) {
+        Timer timer = registry.find(timerName).tag("uri", uri).tag("method", method).timer();
+        return timer == null ? 0 : timer.mean(TimeUnit.MILLISECONDS);
+    }
+
+    private static Row row(String name, List<Timer> timers, double handlerMs, double renderMs) {
+        long count = 0;
+        double total = 0;
+        double max = 0;
+        double p99 = 0;
+        for (Timer timer : timers) {
+            count += timer.count();
+            total += timer.totalTime(TimeUnit.MILLISECONDS);
+            max = Math.max(max, timer.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.99) {
+                    p99 = Math.max(p99, percentile.value(TimeUnit.MILLISECONDS));
+                }
+            }
+        }
+        return new Row(name, count, total, count == 0 ? 0 : total / count, p99, max, handlerMs, renderMs);
+    }
+}
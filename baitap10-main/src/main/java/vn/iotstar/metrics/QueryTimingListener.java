@@ -0,0 +1,74 @@
+package vn.iotstar.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Đo thời gian thực thi câu lệnh JDBC của Hibernate. Hibernate tạo một instance cho mỗi
+ * Session (đơn luồng) qua hibernate.session.events.auto, nên thời điểm bắt đầu chỉ cần
+ * giữ trong một field: không khóa, không cấp phát cho mỗi câu lệnh.
+ *
+ * Thời gian repository trừ đi thời gian này xấp xỉ chi phí hydrate entity của Hibernate.
+ */
+public class QueryTimingListener implements SessionEventListener {
+    // Được gán bởi QueryMetrics khi context khởi động; null thì bỏ qua (vd. công cụ ngoài Spring)
+    private static volatile QueryMetrics metrics;
+
+    private long statementStart;
+    private long batchStart;
+
+    static void bind(QueryMetrics queryMetrics) {
+        metrics = queryMetrics;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long start) {
+        QueryMetrics m = metrics;
+        if (m != null && start != 0) {
+            m.record(System.nanoTime() - start);
+        }
+    }
+
+    /** Timer và bộ đếm câu lệnh chậm dùng chung cho mọi Session. */
+    static final class QueryMetrics {
+        private final Timer timer;
+        private final Counter slow;
+        private final long slowThresholdNanos;
+
+        QueryMetrics(Timer timer, Counter slow, long slowThresholdMillis) {
+            this.timer = timer;
+            this.slow = slow;
+            this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        }
+
+        void record(long nanos) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            if (nanos >= slowThresholdNanos) {
+                slow.increment();
+            }
+        }
+    }
+}
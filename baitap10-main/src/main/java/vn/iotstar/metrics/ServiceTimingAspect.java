@@ -0,0 +1,50 @@
+package vn.iotstar.metrics;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Đo thời gian các phương thức public của *ServiceImpl. Thời gian repository do
+ * Spring Data tự ghi (spring.data.repository.invocations).
+ */
+@Aspect
+@Component
+public class ServiceTimingAspect {
+    public static final String SERVICE_TIMER = "app.service";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceTimingAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Bỏ qua getter không tham số (bộ đếm đọc mỗi lần scrape metrics)
+    @Around("execution(public * vn.iotstar.service.impl.*ServiceImpl.*(..)) && !execution(public * get*())")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, m -> Timer.builder(SERVICE_TIMER)
+                    .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", m.getName())
+                    .register(registry));
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package vn.iotstar.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Tách thời gian một request thành phần controller (gồm service/truy vấn) và phần render view.
+ * Timer được tạo một lần cho mỗi (uri pattern, method) rồi tra lại, không tạo chuỗi khóa mỗi request.
+ */
+@Component
+public class TimingInterceptor implements HandlerInterceptor {
+    public static final String HANDLER_TIMER = "app.request.handler";
+    public static final String RENDER_TIMER = "app.request.render";
+
+    private static final String START = TimingInterceptor.class.getName() + ".start";
+    private static final String HANDLED = TimingInterceptor.class.getName() + ".handled";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Timer[]>> timers = new ConcurrentHashMap<>();
+
+    public TimingInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        request.setAttribute(HANDLED, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(START) instanceof Long start)) {
+            return;
+        }
+        long now = System.nanoTime();
+        Timer[] pair = timers(request);
+        if (request.getAttribute(HANDLED) instanceof Long handled) {
+            pair[0].record(handled - start, TimeUnit.NANOSECONDS);
+            pair[1].record(now - handled, TimeUnit.NANOSECONDS);
+        } else {
+            // Interceptor sau chặn request hoặc handler ném lỗi: không có giai đoạn render
+            pair[0].record(now - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] timers(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+        ConcurrentHashMap<String, Timer[]> byMethod = timers.get(uri);
+        if (byMethod == null) {
+            byMethod = timers.computeIfAbsent(uri, k -> new ConcurrentHashMap<>());
+        }
+        Timer[] pair = byMethod.get(method);
+        if (pair == null) {
+            pair = byMethod.computeIfAbsent(method, m -> new Timer[] {
+                    timer(HANDLER_TIMER, uri, m), timer(RENDER_TIMER, uri, m) });
+        }
+        return pair;
+    }
+
+    private Timer timer(String name, String uri, String method) {
+        return Timer.builder(name)
+                .tag("uri", uri)
+                .tag("method", method)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+}
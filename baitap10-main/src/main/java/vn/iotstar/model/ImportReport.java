@@ -0,0 +1,50 @@
+package vn.iotstar.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Kết quả một lần nhập hàng loạt. Danh sách lỗi bị giới hạn để bộ nhớ không tăng theo kích thước file.
+ */
+@Getter
+public class ImportReport {
+    private long totalRows;
+    private long inserted;
+    private long failed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        private final long line;
+        private final String message;
+    }
+
+    public void rowRead() {
+        totalRows++;
+    }
+
+    public void inserted(int count) {
+        inserted += count;
+    }
+
+    public void error(long line, String message, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void finish(long elapsedNanos) {
+        elapsedMillis = elapsedNanos / 1_000_000;
+        rowsPerSecond = elapsedNanos == 0 ? 0 : totalRows * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,21 @@
+package vn.iotstar.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một dòng dữ liệu nhập từ nhà cung cấp (CSV hoặc NDJSON), giữ nguyên dạng chuỗi
+ * để lỗi chuyển kiểu được báo theo từng dòng.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRow {
+    private String title;
+    private String description;
+    private String price;
+    private String quantity;
+    private String image;
+    private String category; // tên danh mục
+}
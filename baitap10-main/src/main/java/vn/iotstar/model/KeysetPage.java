@@ -0,0 +1,43 @@
+package vn.iotstar.model;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import lombok.Getter;
+
+/**
+ * Một trang kết quả phân trang theo keyset (cursor = id của dòng cuối cùng).
+ */
+@Getter
+public class KeysetPage<T> {
+    private final List<T> content;
+    private final Long cursor;      // cursor của trang hiện tại (null = trang đầu)
+    private final Long nextCursor;  // null nếu không còn trang sau
+    private final int size;
+
+    public KeysetPage(List<T> content, Long cursor, Long nextCursor, int size) {
+        this.content = content;
+        this.cursor = cursor;
+        this.nextCursor = nextCursor;
+        this.size = size;
+    }
+
+    public boolean isFirst() {
+        return cursor == null || cursor <= 0;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Dựng trang từ danh sách đã đọc với limit = size + 1: nếu có dòng thừa thì còn trang sau.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, Long cursor, int size, ToLongFunction<T> idOf) {
+        if (rows.size() > size) {
+            List<T> content = rows.subList(0, size);
+            return new KeysetPage<>(content, cursor, idOf.applyAsLong(content.get(size - 1)), size);
+        }
+        return new KeysetPage<>(rows, cursor, null, size);
+    }
+}
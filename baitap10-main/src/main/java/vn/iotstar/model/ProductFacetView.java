@@ -0,0 +1,11 @@
+package vn.iotstar.model;
+
+/**
+ * Projection gồm các cột dùng để dựng chỉ mục facet sản phẩm.
+ */
+public interface ProductFacetView {
+    Long getId();
+    Long getCategoryId();
+    Double getPrice();
+    Integer getQuantity();
+}
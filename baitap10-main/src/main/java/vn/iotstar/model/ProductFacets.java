@@ -0,0 +1,27 @@
+package vn.iotstar.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Số đếm facet cho trang sản phẩm. Mỗi số đếm đã áp bộ lọc của các facet còn lại.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductFacets {
+    private final long total;
+    private final List<FacetValue> categories;
+    private final List<FacetValue> priceBands;
+    private final long inStock;
+
+    @Getter
+    @AllArgsConstructor
+    public static class FacetValue {
+        private final String value;
+        private final String label;
+        private final long count;
+        private final boolean selected;
+    }
+}
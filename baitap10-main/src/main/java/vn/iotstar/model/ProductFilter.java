@@ -0,0 +1,41 @@
+package vn.iotstar.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import lombok.Getter;
+
+/**
+ * Bộ lọc facet của trang sản phẩm: danh mục và khoảng giá (chọn nhiều, OR trong cùng facet), còn hàng.
+ */
+@Getter
+public class ProductFilter {
+    private final List<Long> categoryIds;
+    private final List<Integer> priceBands;
+    private final boolean inStock;
+
+    public ProductFilter(Collection<Long> categoryIds, Collection<Integer> priceBands, boolean inStock) {
+        this.categoryIds = categoryIds == null ? List.of()
+                : categoryIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        this.priceBands = priceBands == null ? List.of()
+                : priceBands.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        this.inStock = inStock;
+    }
+
+    public boolean isEmpty() {
+        return categoryIds.isEmpty() && priceBands.isEmpty() && !inStock;
+    }
+
+    /** Tham số query của bộ lọc (không có dấu '?'), dùng để giữ bộ lọc trên link phân trang. */
+    public String toQueryString() {
+        StringJoiner query = new StringJoiner("&");
+        categoryIds.forEach(id -> query.add("category=" + id));
+        priceBands.forEach(band -> query.add("band=" + band));
+        if (inStock) {
+            query.add("inStock=true");
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package vn.iotstar.model;
+
+/**
+ * Read model cho trang danh sách sản phẩm: tên danh mục được join sẵn,
+ * mô tả chỉ lấy phần đầu thay vì cả cột TEXT.
+ */
+public interface ProductListItem {
+    int DESCRIPTION_PREVIEW_LENGTH = 120;
+
+    Long getId();
+    String getTitle();
+    String getDescriptionPreview();
+    Double getPrice();
+    Integer getQuantity();
+    String getImage();
+    Long getCategoryId();
+    String getCategoryName();
+}
@@ -0,0 +1,9 @@
+package vn.iotstar.model;
+
+/**
+ * Projection chỉ gồm id và tiêu đề, dùng để dựng chỉ mục tìm kiếm.
+ */
+public interface ProductTitleView {
+    Long getId();
+    String getTitle();
+}
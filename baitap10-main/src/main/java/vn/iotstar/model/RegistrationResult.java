@@ -0,0 +1,10 @@
+package vn.iotstar.model;
+
+/**
+ * Kết quả đăng ký: do ràng buộc unique của DB quyết định, không phải kiểm tra trước.
+ */
+public enum RegistrationResult {
+    CREATED,
+    USERNAME_TAKEN,
+    EMAIL_TAKEN
+}
@@ -0,0 +1,10 @@
+package vn.iotstar.model;
+
+/**
+ * Projection chỉ gồm id, username và email, dùng để dựng chỉ mục tìm kiếm người dùng.
+ */
+public interface UserNameView {
+    Long getId();
+    String getUsername();
+    String getEmail();
+}
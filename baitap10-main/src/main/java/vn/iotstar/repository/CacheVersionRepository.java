@@ -0,0 +1,21 @@
+package vn.iotstar.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import vn.iotstar.entity.CacheVersion;
+
+@Repository
+public interface CacheVersionRepository extends JpaRepository<CacheVersion, String> {
+
+    @Query("SELECT v.version FROM CacheVersion v WHERE v.name = :name")
+    Long findVersion(@Param("name") String name);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CacheVersion v SET v.version = v.version + 1 WHERE v.name = :name")
+    int increment(@Param("name") String name);
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Repository;
 
 import vn.iotstar.entity.Category;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -14,4 +15,8 @@ import java.util.List;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByCategoryNameContaining(String name);
     Page<Category> findByCategoryNameContaining(String name, Pageable pageable);
-} 
\ No newline at end of file
+
+    // Phân trang keyset theo id
+    List<Category> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    List<Category> findByCategoryNameContainingAndIdGreaterThanOrderByIdAsc(String name, Long id, Limit limit);
+} 
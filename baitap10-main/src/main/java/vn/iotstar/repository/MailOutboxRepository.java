@@ -0,0 +1,46 @@
+package vn.iotstar.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.iotstar.entity.MailOutbox;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    List<MailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            MailOutbox.Status status, Instant now, Limit limit);
+
+    long countByStatus(MailOutbox.Status status);
+
+    /**
+     * Nhận một email để gửi: chỉ thành công nếu chưa node nào nhận (attempts chưa đổi).
+     * next_attempt_at được đẩy tới leaseUntil để nếu node chết giữa chừng, email tự đến hạn lại.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.attempts = m.attempts + 1, m.nextAttemptAt = :leaseUntil"
+            + " WHERE m.id = :id AND m.status = :pending AND m.attempts = :attempts")
+    int claim(@Param("id") Long id, @Param("attempts") int attempts, @Param("leaseUntil") Instant leaseUntil,
+              @Param("pending") MailOutbox.Status pending);
+
+    /** Kết thúc một email: SENT (kèm sentAt) hoặc FAILED (kèm lỗi cuối cùng). */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = :status, m.sentAt = :sentAt, m.lastError = :error WHERE m.id = :id")
+    int complete(@Param("id") Long id, @Param("status") MailOutbox.Status status, @Param("sentAt") Instant sentAt,
+                 @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.nextAttemptAt = :nextAttemptAt, m.lastError = :error WHERE m.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+}
@@ -1,14 +1,84 @@
 package vn.iotstar.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.iotstar.entity.Product;
+import vn.iotstar.model.ProductFacetView;
+import vn.iotstar.model.ProductListItem;
+import vn.iotstar.model.ProductTitleView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    String LIST_ITEM_SELECT = "SELECT p.id AS id, p.title AS title,"
+            + " SUBSTRING(p.description, 1, " + ProductListItem.DESCRIPTION_PREVIEW_LENGTH + ") AS descriptionPreview,"
+            + " p.price AS price, p.quantity AS quantity, p.image AS image,"
+            + " c.id AS categoryId, c.categoryName AS categoryName"
+            + " FROM Product p LEFT JOIN p.category c";
+
     List<Product> findByTitleContaining(String title);
     Page<Product> findByTitleContaining(String title, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+
+    List<ProductTitleView> findTitlesByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT p.id AS id, c.id AS categoryId, p.price AS price, p.quantity AS quantity"
+            + " FROM Product p LEFT JOIN p.category c WHERE p.id > :cursor ORDER BY p.id")
+    List<ProductFacetView> findFacetViews(@Param("cursor") Long cursor, Pageable pageable);
+
+    // Phân trang keyset theo id (WHERE id > :cursor ORDER BY id LIMIT n), một câu SQL cho cả trang
+    @Query(LIST_ITEM_SELECT + " WHERE p.id > :cursor ORDER BY p.id")
+    List<ProductListItem> findListItems(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Query(LIST_ITEM_SELECT + " WHERE p.title LIKE CONCAT('%', :title, '%') AND p.id > :cursor ORDER BY p.id")
+    List<ProductListItem> findListItemsByTitle(@Param("title") String title, @Param("cursor") Long cursor,
+            Pageable pageable);
+
+    // Join thực thể tường minh: p.category.id không đi qua alias join nên Hibernate sinh p.category_id,
+    // lọc trên khóa ngoại để dùng idx_products_category_id (category_id, id) thay vì quét theo khóa chính
+    @Query("SELECT p.id AS id, p.title AS title,"
+            + " SUBSTRING(p.description, 1, " + ProductListItem.DESCRIPTION_PREVIEW_LENGTH + ") AS descriptionPreview,"
+            + " p.price AS price, p.quantity AS quantity, p.image AS image,"
+            + " c.id AS categoryId, c.categoryName AS categoryName"
+            + " FROM Product p JOIN Category c ON c.id = p.category.id"
+            + " WHERE p.category.id = :categoryId AND p.id > :cursor ORDER BY p.id")
+    List<ProductListItem> findListItemsByCategory(@Param("categoryId") Long categoryId, @Param("cursor") Long cursor,
+            Pageable pageable);
+
+    // Bộ lọc facet bằng SQL khi chỉ mục facet chưa dựng xong. allCategories = true thì bỏ qua categoryIds
+    // (vẫn phải khác rỗng); khoảng giá [minPrice, maxPrice) bao các band đã chọn, band lẻ được lọc lại ở service
+    @Query(LIST_ITEM_SELECT + " WHERE p.id > :cursor"
+            + " AND (:allCategories = true OR c.id IN :categoryIds)"
+            + " AND (:inStock = false OR p.quantity > 0)"
+            + " AND p.price >= :minPrice AND p.price < :maxPrice ORDER BY p.id")
+    List<ProductListItem> findListItemsFiltered(@Param("allCategories") boolean allCategories,
+            @Param("categoryIds") Collection<Long> categoryIds, @Param("inStock") boolean inStock,
+            @Param("minPrice") double minPrice, @Param("maxPrice") double maxPrice,
+            @Param("cursor") Long cursor, Pageable pageable);
+
+    @Query(LIST_ITEM_SELECT + " WHERE p.id IN :ids")
+    List<ProductListItem> findListItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Đọc toàn bảng theo luồng (con trỏ phía server), read-only để Hibernate không giữ snapshot
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAllWithCategory();
 }
@@ -1,18 +1,31 @@
 package vn.iotstar.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import vn.iotstar.entity.User;
+import vn.iotstar.model.UserNameView;
 
 import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    @Query("SELECT u FROM User u WHERE u.username = :username AND u.password = :password")
-    User findByUsernameAndPassword(@Param("username") String username, @Param("password") String password);
-
     List<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    // Phân trang keyset theo id
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    List<User> findByUsernameAndIdGreaterThanOrderByIdAsc(String username, Long id, Limit limit);
+
+    // Dựng chỉ mục tìm kiếm: chỉ đọc các cột cần thiết theo lô keyset
+    List<UserNameView> findNamesByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+}
@@ -0,0 +1,241 @@
+package vn.iotstar.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Chỉ mục facet cho sản phẩm: một RoaringBitmap cho mỗi danh mục, mỗi khoảng giá và trạng thái còn hàng.
+ * Lọc là phép giao/hợp bitmap, đếm facet là andCardinality, không tạo danh sách id trung gian.
+ * Id được lưu như số nguyên không dấu 32 bit. Không thread-safe: lớp bọc bên ngoài chịu trách nhiệm đồng bộ.
+ */
+public final class FacetIndex {
+
+    private static final long MAX_ID = 0xFFFF_FFFFL;
+
+    /** Trạng thái facet hiện tại của một sản phẩm, cần để gỡ khỏi bitmap cũ khi cập nhật. */
+    private record Doc(Long categoryId, int band, boolean inStock) {
+    }
+
+    private final double[] bandBounds;
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final RoaringBitmap[] bands;
+    private final Map<Long, RoaringBitmap> categories = new HashMap<>();
+    private final LongObjectHashMap<Doc> docs;
+
+    /**
+     * @param bandBounds cận dưới (tăng dần) của các khoảng giá từ khoảng thứ hai trở đi;
+     *                   n cận tạo thành n + 1 khoảng
+     */
+    public FacetIndex(double[] bandBounds, int expectedProducts) {
+        this.bandBounds = bandBounds.clone();
+        Arrays.sort(this.bandBounds);
+        bands = new RoaringBitmap[this.bandBounds.length + 1];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = new RoaringBitmap();
+        }
+        docs = new LongObjectHashMap<>(expectedProducts);
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    public int bandCount() {
+        return bands.length;
+    }
+
+    public double[] bandBounds() {
+        return bandBounds.clone();
+    }
+
+    public static boolean supports(long productId) {
+        return productId > 0 && productId <= MAX_ID;
+    }
+
+    /**
+     * Thêm hoặc cập nhật sản phẩm. Id phải nằm trong [1, 2^32 - 1].
+     */
+    public void put(long productId, Long categoryId, double price, boolean available) {
+        remove(productId);
+        int id = (int) productId;
+        Doc doc = new Doc(categoryId, band(price), available);
+        docs.put(productId, doc);
+        all.add(id);
+        bands[doc.band()].add(id);
+        if (categoryId != null) {
+            categories.computeIfAbsent(categoryId, k -> new RoaringBitmap()).add(id);
+        }
+        if (available) {
+            inStock.add(id);
+        }
+    }
+
+    /**
+     * Cập nhật danh mục/giá, giữ nguyên trạng thái còn hàng nếu sản phẩm đã có trong chỉ mục.
+     */
+    public void update(long productId, Long categoryId, double price, boolean availableIfNew) {
+        Doc doc = docs.get(productId);
+        put(productId, categoryId, price, doc == null ? availableIfNew : doc.inStock());
+    }
+
+    public boolean remove(long productId) {
+        Doc doc = docs.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        int id = (int) productId;
+        all.remove(id);
+        bands[doc.band()].remove(id);
+        inStock.remove(id);
+        if (doc.categoryId() != null) {
+            RoaringBitmap bitmap = categories.get(doc.categoryId());
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                categories.remove(doc.categoryId());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Đổi trạng thái còn hàng; trả về true nếu trạng thái thực sự thay đổi.
+     */
+    public boolean setInStock(long productId, boolean available) {
+        Doc doc = docs.get(productId);
+        if (doc == null || doc.inStock() == available) {
+            return false;
+        }
+        docs.put(productId, new Doc(doc.categoryId(), doc.band(), available));
+        if (available) {
+            inStock.add((int) productId);
+        } else {
+            inStock.remove((int) productId);
+        }
+        return true;
+    }
+
+    /** Nén các container thành dạng run-length sau khi nạp hàng loạt. */
+    public void optimize() {
+        all.runOptimize();
+        inStock.runOptimize();
+        for (RoaringBitmap bitmap : bands) {
+            bitmap.runOptimize();
+        }
+        for (RoaringBitmap bitmap : categories.values()) {
+            bitmap.runOptimize();
+        }
+    }
+
+    /**
+     * Id (tăng dần) lớn hơn {@code afterId} khớp bộ lọc, tối đa {@code limit} phần tử.
+     * Trong cùng một facet là OR, giữa các facet là AND; facet không chọn giá trị nào thì không lọc.
+     */
+    public long[] page(Collection<Long> categoryIds, Collection<Integer> bandIndexes, boolean inStockOnly,
+                       long afterId, int limit) {
+        RoaringBitmap matches = intersect(categoryMask(categoryIds), bandMask(bandIndexes), stockMask(inStockOnly));
+        long[] out = new long[limit];
+        int n = 0;
+        long next = afterId >= MAX_ID ? -1 : matches.nextValue((int) (Math.max(afterId, 0L) + 1));
+        while (next >= 0 && n < limit) {
+            out[n++] = next;
+            next = next >= MAX_ID ? -1 : matches.nextValue((int) (next + 1));
+        }
+        return n == limit ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Số đếm của mỗi giá trị facet, tính với bộ lọc của các facet còn lại (không tính chính facet đó)
+     * để người dùng thấy chọn thêm một giá trị sẽ ra bao nhiêu sản phẩm.
+     */
+    public Counts counts(Collection<Long> categoryIds, Collection<Integer> bandIndexes, boolean inStockOnly) {
+        RoaringBitmap categoryMask = categoryMask(categoryIds);
+        RoaringBitmap bandMask = bandMask(bandIndexes);
+        RoaringBitmap stockMask = stockMask(inStockOnly);
+
+        RoaringBitmap exceptCategory = intersect(null, bandMask, stockMask);
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        categories.forEach((categoryId, bitmap) ->
+                categoryCounts.put(categoryId, (long) RoaringBitmap.andCardinality(bitmap, exceptCategory)));
+
+        RoaringBitmap exceptBand = intersect(categoryMask, null, stockMask);
+        long[] bandCounts = new long[bands.length];
+        for (int i = 0; i < bands.length; i++) {
+            bandCounts[i] = RoaringBitmap.andCardinality(bands[i], exceptBand);
+        }
+
+        long inStockCount = RoaringBitmap.andCardinality(inStock, intersect(categoryMask, bandMask, null));
+        long total = intersect(categoryMask, bandMask, stockMask).getLongCardinality();
+        return new Counts(total, categoryCounts, bandCounts, inStockCount);
+    }
+
+    /** Số sản phẩm khớp bộ lọc và số đếm theo từng giá trị facet. */
+    public record Counts(long total, Map<Long, Long> categoryCounts, long[] bandCounts, long inStockCount) {
+    }
+
+    int band(double price) {
+        return band(bandBounds, price);
+    }
+
+    /** Chỉ số khoảng giá của {@code price} với các cận (tăng dần) {@code bandBounds}. */
+    public static int band(double[] bandBounds, double price) {
+        int pos = Arrays.binarySearch(bandBounds, price);
+        // Giá bằng đúng cận dưới thuộc về khoảng bắt đầu từ cận đó
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    private RoaringBitmap categoryMask(Collection<Long> categoryIds) {
+        return categoryIds.isEmpty() ? null : union(categoryBitmaps(categoryIds));
+    }
+
+    private RoaringBitmap bandMask(Collection<Integer> bandIndexes) {
+        return bandIndexes.isEmpty() ? null : union(bandBitmaps(bandIndexes));
+    }
+
+    private RoaringBitmap stockMask(boolean inStockOnly) {
+        return inStockOnly ? inStock : null;
+    }
+
+    private List<RoaringBitmap> categoryBitmaps(Collection<Long> categoryIds) {
+        List<RoaringBitmap> out = new ArrayList<>(categoryIds.size());
+        for (Long categoryId : categoryIds) {
+            RoaringBitmap bitmap = categories.get(categoryId);
+            if (bitmap != null) {
+                out.add(bitmap);
+            }
+        }
+        return out;
+    }
+
+    private List<RoaringBitmap> bandBitmaps(Collection<Integer> bandIndexes) {
+        List<RoaringBitmap> out = new ArrayList<>(bandIndexes.size());
+        for (Integer index : bandIndexes) {
+            if (index != null && index >= 0 && index < bands.length) {
+                out.add(bands[index]);
+            }
+        }
+        return out;
+    }
+
+    private static RoaringBitmap union(List<RoaringBitmap> bitmaps) {
+        return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.toArray(new RoaringBitmap[0]));
+    }
+
+    /** Giao các mặt nạ khác null; không có mặt nạ nào thì là toàn bộ sản phẩm. */
+    private RoaringBitmap intersect(RoaringBitmap a, RoaringBitmap b, RoaringBitmap c) {
+        RoaringBitmap result = null;
+        for (RoaringBitmap mask : new RoaringBitmap[] { a, b, c }) {
+            if (mask != null) {
+                result = result == null ? mask : RoaringBitmap.and(result, mask);
+            }
+        }
+        return result == null ? all : result;
+    }
+}
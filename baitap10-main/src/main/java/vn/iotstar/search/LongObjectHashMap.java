@@ -0,0 +1,127 @@
+package vn.iotstar.search;
+
+/**
+ * Bảng băm open-addressing với khóa long nguyên thủy (không boxing).
+ * Khóa 0 được dành làm ô trống nên không được dùng. Không thread-safe.
+ */
+final class LongObjectHashMap<V> {
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    LongObjectHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == EMPTY) {
+                return null;
+            }
+            if (k == key) {
+                return (V) values[i];
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return null;
+            }
+            if (k == key) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == EMPTY) {
+                return null;
+            }
+            if (k == key) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+        V old = (V) values[i];
+        // Backward-shift deletion: dời các phần tử phía sau về lấp lỗ, không cần tombstone
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            long k = keys[j];
+            if (k == EMPTY) {
+                break;
+            }
+            int home = slot(k);
+            boolean movable = (j > hole) ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                keys[hole] = k;
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        size--;
+        return old;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k != EMPTY) {
+                int j = slot(k);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = k;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
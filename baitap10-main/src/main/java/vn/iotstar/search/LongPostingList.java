@@ -0,0 +1,69 @@
+package vn.iotstar.search;
+
+import java.util.Arrays;
+
+/**
+ * Danh sách id tài liệu (long) được giữ tăng dần trong một mảng nguyên thủy.
+ * Id mới thường lớn hơn id cuối nên add() hầu như là append O(1).
+ */
+final class LongPostingList {
+    private long[] ids = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    void add(long id) {
+        if (size > 0 && id <= ids[size - 1]) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+            return;
+        }
+        ensureCapacity();
+        ids[size++] = id;
+    }
+
+    boolean remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Vị trí phần tử đầu tiên lớn hơn {@code id}.
+     */
+    int firstAfter(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package vn.iotstar.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Mảng (khóa, id) sắp xếp theo khóa rồi id, dùng cho tìm theo tiền tố bằng tìm kiếm nhị phân.
+ * Thêm/xóa lẻ dịch mảng (System.arraycopy); nạp hàng loạt thì nối vào cuối rồi gọi {@link #sort()}
+ * một lần. Không thread-safe.
+ */
+final class PrefixIndex {
+    private String[] keys;
+    private long[] ids;
+    private int size;
+
+    PrefixIndex(int capacity) {
+        keys = new String[Math.max(16, capacity)];
+        ids = new long[keys.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(String key, long id) {
+        int pos = search(key, id);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        grow();
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        keys[pos] = key;
+        ids[pos] = id;
+        size++;
+    }
+
+    void remove(String key, long id) {
+        int pos = search(key, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        keys[--size] = null;
+    }
+
+    /** Nạp hàng loạt: chỉ nối vào cuối, phải gọi {@link #sort()} trước khi dùng. */
+    void append(String key, long id) {
+        grow();
+        keys[size] = key;
+        ids[size] = id;
+        size++;
+    }
+
+    /**
+     * Id của các khóa bắt đầu bằng {@code prefix}, theo thứ tự khóa, tối đa {@code limit}.
+     */
+    long[] withPrefix(String prefix, int limit) {
+        int from = search(prefix, Long.MIN_VALUE);
+        from = from >= 0 ? from : -from - 1;
+        long[] out = new long[Math.min(limit, size - from)];
+        int n = 0;
+        for (int i = from; i < size && n < out.length && keys[i].startsWith(prefix); i++) {
+            out[n++] = ids[i];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private int search(String key, long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = keys[mid].compareTo(key);
+            if (cmp == 0) {
+                cmp = Long.compare(ids[mid], id);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void grow() {
+        if (size == keys.length) {
+            int capacity = keys.length + (keys.length >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+    }
+
+    void sort() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        String[] k = keys;
+        long[] d = ids;
+        Arrays.sort(order, Comparator.<Integer, String>comparing(i -> k[i]).thenComparingLong(i -> d[i]));
+        String[] sortedKeys = new String[keys.length];
+        long[] sortedIds = new long[keys.length];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = k[order[i]];
+            sortedIds[i] = d[order[i]];
+        }
+        keys = sortedKeys;
+        ids = sortedIds;
+    }
+}
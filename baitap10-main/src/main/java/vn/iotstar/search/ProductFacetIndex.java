@@ -0,0 +1,256 @@
+package vn.iotstar.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import vn.iotstar.entity.Product;
+import vn.iotstar.event.InStockChangedEvent;
+import vn.iotstar.event.ProductChangedEvent;
+import vn.iotstar.event.ProductsImportedEvent;
+import vn.iotstar.event.StockChangedEvent;
+import vn.iotstar.model.ProductFacetView;
+import vn.iotstar.repository.ProductRepository;
+import vn.iotstar.service.StockService;
+
+/**
+ * Chỉ mục facet (danh mục, khoảng giá, còn hàng) cho trang sản phẩm, dựng khi khởi động và cập nhật
+ * theo ProductChangedEvent/ProductsImportedEvent. Thay đổi tồn kho chỉ đánh dấu sản phẩm, được tính lại
+ * theo lô định kỳ để đường giữ chỗ không phải truy vấn thêm.
+ */
+@Component
+public class ProductFacetIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+    private static final int STOCK_BATCH = 500;
+
+    private final ProductRepository productRepository;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final double[] priceBands;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Thay đổi xảy ra trong lúc rebuild, áp lại vào chỉ mục mới trước khi hoán đổi
+    private final Queue<ProductChangedEvent> pending = new ConcurrentLinkedQueue<>();
+    private final Set<Long> stockDirty = ConcurrentHashMap.newKeySet();
+
+    private FacetIndex index;
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    @Value("${app.search.index.batch-size:5000}")
+    private int batchSize;
+
+    public ProductFacetIndex(ProductRepository productRepository, StockService stockService,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.facets.price-bands:100000,500000,2000000,10000000}") double[] priceBands) {
+        this.productRepository = productRepository;
+        this.stockService = stockService;
+        this.eventPublisher = eventPublisher;
+        this.priceBands = priceBands;
+        this.index = new FacetIndex(priceBands, 1024);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Dựng lại toàn bộ chỉ mục theo từng lô keyset rồi hoán đổi; truy vấn vẫn dùng chỉ mục cũ trong lúc dựng.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuilding = true;
+            long start = System.nanoTime();
+            FacetIndex fresh = new FacetIndex(priceBands, (int) Math.min(productRepository.count(), 1 << 26));
+            load(fresh, 0L);
+            fresh.optimize();
+
+            lock.writeLock().lock();
+            try {
+                ProductChangedEvent event;
+                while ((event = pending.poll()) != null) {
+                    apply(fresh, event);
+                }
+                index = fresh;
+                rebuilding = false;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Product facet index built: {} products in {} ms",
+                    fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuilding = false;
+            pending.clear();
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(index, event);
+            if (rebuilding) {
+                pending.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        load(null, event.getAfterId());
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        stockDirty.add(event.getProductId());
+    }
+
+    /**
+     * Tính lại trạng thái còn hàng của các sản phẩm vừa đổi tồn kho. Trong lúc rebuild thì để dành,
+     * vì chỉ mục mới có thể đã đọc số lượng trước thay đổi.
+     */
+    @Scheduled(fixedDelayString = "${app.facets.stock-refresh-ms:500}")
+    public void refreshStock() {
+        if (rebuilding || stockDirty.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(stockDirty);
+        stockDirty.removeAll(ids);
+        List<Long> flipped = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += STOCK_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + STOCK_BATCH));
+            Map<Long, Long> available = stockService.available(batch);
+            lock.writeLock().lock();
+            try {
+                available.forEach((id, quantity) -> {
+                    if (index.setInStock(id, quantity > 0)) {
+                        flipped.add(id);
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (!flipped.isEmpty()) {
+            eventPublisher.publishEvent(new InStockChangedEvent(flipped));
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Chỉ dùng trong test: giả lập chỉ mục chưa dựng xong. */
+    void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    public double[] getPriceBands() {
+        return priceBands.clone();
+    }
+
+    public long[] page(Collection<Long> categoryIds, Collection<Integer> bands, boolean inStockOnly,
+                       long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.page(categoryIds, bands, inStockOnly, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FacetIndex.Counts counts(Collection<Long> categoryIds, Collection<Integer> bands, boolean inStockOnly) {
+        lock.readLock().lock();
+        try {
+            return index.counts(categoryIds, bands, inStockOnly);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nạp các sản phẩm có id lớn hơn {@code afterId}; sản phẩm hết hàng trong DB được hỏi thêm phần
+     * đang giữ trong bộ nhớ. {@code fresh} null: ghi vào chỉ mục đang dùng, chỉ giữ write lock trong lúc
+     * ghi từng lô.
+     */
+    private void load(FacetIndex fresh, long afterId) {
+        boolean shared = fresh == null;
+        long after = afterId;
+        List<ProductFacetView> rows;
+        do {
+            rows = productRepository.findFacetViews(after, PageRequest.ofSize(batchSize));
+            List<Long> soldOut = new ArrayList<>();
+            for (ProductFacetView row : rows) {
+                if (row.getQuantity() == null || row.getQuantity() <= 0) {
+                    soldOut.add(row.getId());
+                }
+            }
+            Map<Long, Long> pooled = soldOut.isEmpty() ? Map.of() : stockService.available(soldOut);
+            if (shared) {
+                lock.writeLock().lock();
+            }
+            try {
+                FacetIndex into = shared ? index : fresh;
+                for (ProductFacetView row : rows) {
+                    after = row.getId();
+                    if (FacetIndex.supports(row.getId())) {
+                        boolean available = (row.getQuantity() != null && row.getQuantity() > 0)
+                                || pooled.getOrDefault(row.getId(), 0L) > 0;
+                        into.put(row.getId(), row.getCategoryId(), row.getPrice(), available);
+                    }
+                }
+            } finally {
+                if (shared) {
+                    lock.writeLock().unlock();
+                }
+            }
+        } while (rows.size() == batchSize);
+    }
+
+    private static void apply(FacetIndex target, ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getProductId());
+            return;
+        }
+        if (!FacetIndex.supports(event.getProductId())) {
+            return;
+        }
+        Product product = event.getProduct();
+        Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+        // Cột quantity chỉ ghi khi thêm mới; sau đó trạng thái còn hàng do StockChangedEvent cập nhật
+        target.update(event.getProductId(), categoryId, product.getPrice(),
+                product.getQuantity() != null && product.getQuantity() > 0);
+    }
+}
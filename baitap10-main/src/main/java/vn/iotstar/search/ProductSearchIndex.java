@@ -0,0 +1,193 @@
+package vn.iotstar.search;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import vn.iotstar.event.ProductChangedEvent;
+import vn.iotstar.event.ProductsImportedEvent;
+import vn.iotstar.model.ProductTitleView;
+import vn.iotstar.repository.ProductRepository;
+
+/**
+ * Chỉ mục trigram trên Product.title, dựng khi khởi động và cập nhật theo ProductChangedEvent.
+ * Thay cho LIKE '%kw%' (quét toàn bảng) khi từ khóa đủ dài.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Thay đổi xảy ra trong lúc rebuild, áp lại vào chỉ mục mới trước khi hoán đổi
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+
+    private TrigramIndex index = new TrigramIndex();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    @Value("${app.search.index.batch-size:5000}")
+    private int batchSize;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Dựng lại toàn bộ chỉ mục bằng cách đọc (id, title) theo từng lô keyset rồi hoán đổi.
+     * Tìm kiếm vẫn dùng chỉ mục cũ trong lúc dựng.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            TrigramIndex fresh = load();
+            install(fresh);
+            log.info("Product search index built: {} products, {} trigrams in {} ms",
+                    fresh.documentCount(), fresh.trigramCount(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuilding = false;
+            pending.clear();
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Bước 1 của rebuild: từ đây mọi thay đổi được ghi cả vào pending.
+     */
+    TrigramIndex load() {
+        rebuilding = true;
+        TrigramIndex fresh = new TrigramIndex((int) Math.min(productRepository.count(), 1 << 26));
+        long after = 0L;
+        List<ProductTitleView> rows;
+        do {
+            rows = productRepository.findTitlesByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+            for (ProductTitleView row : rows) {
+                fresh.add(row.getId(), row.getTitle());
+                after = row.getId();
+            }
+        } while (rows.size() == batchSize);
+        return fresh;
+    }
+
+    /**
+     * Bước 2 của rebuild: áp các thay đổi xảy ra trong lúc đọc rồi hoán đổi chỉ mục.
+     */
+    void install(TrigramIndex fresh) {
+        lock.writeLock().lock();
+        try {
+            Change change;
+            while ((change = pending.poll()) != null) {
+                change.applyTo(fresh);
+            }
+            index = fresh;
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Change change = new Change(event.getProductId(), event.isDeleted() ? null : event.getProduct().getTitle());
+        lock.writeLock().lock();
+        try {
+            record(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nhập hàng loạt ghi thẳng bằng JDBC: bổ sung các dòng mới (id lớn hơn afterId) theo lô.
+     * Trong lúc rebuild, các dòng này cũng vào pending như mọi thay đổi khác, vì lượt đọc của
+     * rebuild có thể đã đi qua chúng.
+     */
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        long after = event.getAfterId();
+        List<ProductTitleView> rows;
+        do {
+            rows = productRepository.findTitlesByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+            lock.writeLock().lock();
+            try {
+                for (ProductTitleView row : rows) {
+                    record(new Change(row.getId(), row.getTitle()));
+                    after = row.getId();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (rows.size() == batchSize);
+    }
+
+    /** Gọi khi đang giữ write lock. */
+    private void record(Change change) {
+        change.applyTo(index);
+        if (rebuilding) {
+            pending.add(change);
+        }
+    }
+
+    /**
+     * Chỉ mục chỉ trả lời được khi đã dựng xong và từ khóa có ít nhất một trigram.
+     */
+    public boolean canServe(String keyword) {
+        return ready && TrigramIndex.normalize(keyword).length() >= TrigramIndex.MIN_QUERY_LENGTH;
+    }
+
+    public long[] rank(String keyword, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.rank(keyword, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] candidates(String keyword, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.candidates(keyword, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.documentCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Một thay đổi tiêu đề; {@code title} null nghĩa là sản phẩm đã bị xóa. */
+    private record Change(long productId, String title) {
+        void applyTo(TrigramIndex target) {
+            if (title == null) {
+                target.remove(productId);
+            } else {
+                target.add(productId, title);
+            }
+        }
+    }
+}
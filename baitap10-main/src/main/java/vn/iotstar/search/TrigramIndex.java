@@ -0,0 +1,180 @@
+package vn.iotstar.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Chỉ mục đảo ngược theo trigram (3 ký tự liên tiếp) dùng cho tìm kiếm chuỗi con.
+ * Posting list và bảng băm đều dùng mảng long nguyên thủy. Không thread-safe:
+ * lớp bọc bên ngoài chịu trách nhiệm đồng bộ.
+ */
+public final class TrigramIndex {
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final long[] NO_IDS = new long[0];
+    // Bit 48 luôn bật để khóa trigram không bao giờ bằng 0 (ô trống của LongObjectHashMap)
+    private static final long KEY_MARKER = 1L << 48;
+
+    private final LongObjectHashMap<LongPostingList> postings;
+    private final LongObjectHashMap<long[]> documents;
+
+    public TrigramIndex() {
+        this(1024);
+    }
+
+    public TrigramIndex(int expectedDocuments) {
+        postings = new LongObjectHashMap<>(Math.max(1024, expectedDocuments / 4));
+        documents = new LongObjectHashMap<>(expectedDocuments);
+    }
+
+    public int documentCount() {
+        return documents.size();
+    }
+
+    public int trigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Thêm hoặc cập nhật tài liệu. Id phải khác 0.
+     */
+    public void add(long docId, String text) {
+        remove(docId);
+        long[] grams = trigrams(text);
+        documents.put(docId, grams);
+        for (long gram : grams) {
+            LongPostingList list = postings.get(gram);
+            if (list == null) {
+                list = new LongPostingList();
+                postings.put(gram, list);
+            }
+            list.add(docId);
+        }
+    }
+
+    public boolean remove(long docId) {
+        long[] grams = documents.remove(docId);
+        if (grams == null) {
+            return false;
+        }
+        for (long gram : grams) {
+            LongPostingList list = postings.get(gram);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(long docId) {
+        return documents.get(docId) != null;
+    }
+
+    /**
+     * Id (tăng dần) của các tài liệu chứa mọi trigram của truy vấn, lớn hơn {@code afterId},
+     * tối đa {@code limit} phần tử. Trả về null nếu truy vấn quá ngắn để dùng chỉ mục.
+     * Kết quả là ứng viên: có thể có dương tính giả, người gọi cần kiểm tra lại chuỗi con.
+     */
+    public long[] candidates(String query, long afterId, int limit) {
+        LongPostingList[] lists = postingsFor(query);
+        if (lists == null) {
+            return null;
+        }
+        if (lists.length == 0) {
+            return NO_IDS;
+        }
+        LongPostingList smallest = lists[0];
+        long[] out = new long[Math.min(limit, smallest.size())];
+        int n = 0;
+        for (int i = smallest.firstAfter(afterId); i < smallest.size() && n < out.length; i++) {
+            long id = smallest.get(i);
+            if (inAll(lists, id)) {
+                out[n++] = id;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Tối đa {@code limit} id xếp hạng theo độ khớp: tài liệu càng ít trigram (tiêu đề càng
+     * sát với truy vấn) càng đứng trước, hòa thì id nhỏ hơn trước.
+     */
+    public long[] rank(String query, int limit) {
+        long[] ids = candidates(query, 0L, Integer.MAX_VALUE);
+        if (ids == null || ids.length == 0) {
+            return ids;
+        }
+        // Đóng gói (số trigram << 40 | id) để sắp xếp trên mảng long, không cần đối tượng trung gian
+        long[] keyed = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            long grams = Math.min(documents.get(ids[i]).length, 0xFFFFFL);
+            keyed[i] = (grams << 40) | ids[i];
+        }
+        Arrays.sort(keyed);
+        int n = Math.min(limit, keyed.length);
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = keyed[i] & ((1L << 40) - 1);
+        }
+        return out;
+    }
+
+    private LongPostingList[] postingsFor(String query) {
+        long[] grams = trigrams(query);
+        if (grams.length == 0) {
+            return null;
+        }
+        LongPostingList[] lists = new LongPostingList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            LongPostingList list = postings.get(grams[i]);
+            if (list == null) {
+                return new LongPostingList[0];
+            }
+            lists[i] = list;
+        }
+        // Duyệt danh sách ngắn nhất, kiểm tra thành viên trong các danh sách còn lại
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+        return lists;
+    }
+
+    private static boolean inAll(LongPostingList[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Các trigram phân biệt (đã sắp xếp) của chuỗi sau khi chuẩn hóa.
+     */
+    static long[] trigrams(String text) {
+        String s = normalize(text);
+        if (s.length() < MIN_QUERY_LENGTH) {
+            return NO_IDS;
+        }
+        long[] grams = new long[s.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = KEY_MARKER
+                    | ((long) s.charAt(i) << 32)
+                    | ((long) s.charAt(i + 1) << 16)
+                    | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int n = 1;
+        for (int i = 1; i < grams.length; i++) {
+            if (grams[i] != grams[n - 1]) {
+                grams[n++] = grams[i];
+            }
+        }
+        return n == grams.length ? grams : Arrays.copyOf(grams, n);
+    }
+}
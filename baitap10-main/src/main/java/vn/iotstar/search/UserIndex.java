@@ -0,0 +1,227 @@
+package vn.iotstar.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chỉ mục tìm kiếm người dùng theo username/email:
+ * <ul>
+ * <li>hai mảng sắp xếp (username, email) cho gợi ý tự động theo thứ tự chữ cái;</li>
+ * <li>posting list theo tiền tố 1-2 ký tự cho truy vấn quá ngắn để dùng trigram;</li>
+ * <li>TrigramIndex trên "username email" cho tìm chuỗi con từ 3 ký tự.</li>
+ * </ul>
+ * Không thread-safe: lớp bọc bên ngoài chịu trách nhiệm đồng bộ.
+ */
+public final class UserIndex {
+
+    public record Entry(long id, String username, String email) {
+    }
+
+    private static final long[] NO_IDS = new long[0];
+    // Số ứng viên lấy mỗi vòng khi lọc lại kết quả trigram
+    private static final int CANDIDATE_BATCH = 256;
+    // Bit 48 luôn bật để khóa không bao giờ bằng 0 (ô trống của LongObjectHashMap)
+    private static final long KEY_MARKER = 1L << 48;
+
+    private final LongObjectHashMap<Entry> entries;
+    private final TrigramIndex trigrams;
+    private final PrefixIndex usernames;
+    private final PrefixIndex emails;
+    // Id tăng dần theo tiền tố 1-2 ký tự của username hoặc email: phân trang keyset không cần sắp xếp
+    private final LongObjectHashMap<LongPostingList> shortPrefixes;
+
+    public UserIndex() {
+        this(1024);
+    }
+
+    public UserIndex(int expectedUsers) {
+        entries = new LongObjectHashMap<>(expectedUsers);
+        trigrams = new TrigramIndex(expectedUsers);
+        usernames = new PrefixIndex(expectedUsers);
+        emails = new PrefixIndex(expectedUsers);
+        shortPrefixes = new LongObjectHashMap<>(4096);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Entry get(long id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Thêm hoặc cập nhật người dùng. Id phải khác 0.
+     */
+    public void add(long id, String username, String email) {
+        remove(id);
+        Entry entry = new Entry(id, username, email);
+        entries.put(id, entry);
+        trigrams.add(id, text(entry));
+        usernames.add(TrigramIndex.normalize(username), id);
+        emails.add(TrigramIndex.normalize(email), id);
+        addShortPrefixes(entry);
+    }
+
+    /**
+     * Nạp khi dựng lại: id chưa có trong chỉ mục. Gọi {@link #finishLoad()} sau lần nạp cuối.
+     */
+    public void load(long id, String username, String email) {
+        Entry entry = new Entry(id, username, email);
+        entries.put(id, entry);
+        trigrams.add(id, text(entry));
+        usernames.append(TrigramIndex.normalize(username), id);
+        emails.append(TrigramIndex.normalize(email), id);
+        addShortPrefixes(entry);
+    }
+
+    /**
+     * Sắp xếp các mảng tiền tố sau khi nạp hàng loạt.
+     */
+    public void finishLoad() {
+        usernames.sort();
+        emails.sort();
+    }
+
+    public boolean remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        trigrams.remove(id);
+        usernames.remove(TrigramIndex.normalize(entry.username()), id);
+        emails.remove(TrigramIndex.normalize(entry.email()), id);
+        for (long key : shortPrefixKeys(entry)) {
+            LongPostingList list = shortPrefixes.get(key);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    shortPrefixes.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Id (tăng dần) lớn hơn {@code afterId} của người dùng có username hoặc email chứa
+     * {@code query}, tối đa {@code limit} phần tử. Truy vấn ngắn hơn 3 ký tự chỉ khớp theo tiền tố.
+     */
+    public long[] search(String query, long afterId, int limit) {
+        String q = TrigramIndex.normalize(query).strip();
+        if (q.isEmpty() || limit <= 0) {
+            return NO_IDS;
+        }
+        if (q.length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            return prefixSearch(q, afterId, limit);
+        }
+        long[] out = new long[limit];
+        int n = 0;
+        long after = afterId;
+        long[] candidates;
+        do {
+            candidates = trigrams.candidates(q, after, CANDIDATE_BATCH);
+            for (long id : candidates) {
+                if (matches(entries.get(id), q) && n < limit) {
+                    out[n++] = id;
+                }
+                after = id;
+            }
+        } while (n < limit && candidates.length == CANDIDATE_BATCH);
+        return n == limit ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Gợi ý tự động: khớp tiền tố username trước, rồi tiền tố email, cuối cùng là chuỗi con.
+     */
+    public List<Entry> suggest(String query, int limit) {
+        String q = TrigramIndex.normalize(query).strip();
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        addAll(ids, usernames.withPrefix(q, limit), limit);
+        addAll(ids, emails.withPrefix(q, limit), limit);
+        if (ids.size() < limit && q.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+            addAll(ids, search(q, 0L, limit), limit);
+        }
+        List<Entry> out = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            out.add(entries.get(id));
+        }
+        return out;
+    }
+
+    private long[] prefixSearch(String prefix, long afterId, int limit) {
+        LongPostingList list = shortPrefixes.get(shortPrefixKey(prefix, prefix.length()));
+        if (list == null) {
+            return NO_IDS;
+        }
+        int from = list.firstAfter(afterId);
+        long[] out = new long[Math.min(limit, list.size() - from)];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = list.get(from + i);
+        }
+        return out;
+    }
+
+    private void addShortPrefixes(Entry entry) {
+        for (long key : shortPrefixKeys(entry)) {
+            LongPostingList list = shortPrefixes.get(key);
+            if (list == null) {
+                list = new LongPostingList();
+                shortPrefixes.put(key, list);
+            }
+            // Username và email trùng tiền tố: add() bỏ qua id đã có
+            list.add(entry.id());
+        }
+    }
+
+    private static long[] shortPrefixKeys(Entry entry) {
+        String username = TrigramIndex.normalize(entry.username());
+        String email = TrigramIndex.normalize(entry.email());
+        long[] keys = new long[4];
+        int n = 0;
+        for (String s : new String[] { username, email }) {
+            for (int length = 1; length <= Math.min(2, s.length()); length++) {
+                keys[n++] = shortPrefixKey(s, length);
+            }
+        }
+        return n == keys.length ? keys : Arrays.copyOf(keys, n);
+    }
+
+    private static long shortPrefixKey(String s, int length) {
+        long key = KEY_MARKER | ((long) length << 32) | ((long) s.charAt(0) << 16);
+        return length > 1 ? key | s.charAt(1) : key;
+    }
+
+    private static void addAll(Set<Long> target, long[] ids, int limit) {
+        for (int i = 0; i < ids.length && target.size() < limit; i++) {
+            target.add(ids[i]);
+        }
+    }
+
+    private static boolean matches(Entry entry, String q) {
+        return entry != null && (containsIgnoreCase(entry.username(), q) || containsIgnoreCase(entry.email(), q));
+    }
+
+    private static boolean containsIgnoreCase(String text, String q) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0, last = text.length() - q.length(); i <= last; i++) {
+            if (text.regionMatches(true, i, q, 0, q.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ký tự xuống dòng ngăn trigram vắt qua ranh giới username/email khớp nhầm truy vấn
+    private static String text(Entry entry) {
+        return entry.username() + '\n' + entry.email();
+    }
+}
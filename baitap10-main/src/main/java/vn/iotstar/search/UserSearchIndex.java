@@ -0,0 +1,143 @@
+package vn.iotstar.search;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import vn.iotstar.event.UserChangedEvent;
+import vn.iotstar.model.UserNameView;
+import vn.iotstar.repository.UserRepository;
+
+/**
+ * Chỉ mục tìm kiếm người dùng cho trang quản trị, dựng khi khởi động và cập nhật theo UserChangedEvent.
+ * Danh sách phân trang và gợi ý tự động dùng chung một chỉ mục.
+ */
+@Component
+public class UserSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private final UserRepository userRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Thay đổi xảy ra trong lúc rebuild, áp lại vào chỉ mục mới trước khi hoán đổi
+    private final Queue<UserChangedEvent> pending = new ConcurrentLinkedQueue<>();
+
+    private UserIndex index = new UserIndex();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    @Value("${app.search.index.batch-size:5000}")
+    private int batchSize;
+
+    public UserSearchIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Dựng lại toàn bộ chỉ mục bằng cách đọc (id, username, email) theo từng lô keyset rồi hoán đổi.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuilding = true;
+            long start = System.nanoTime();
+            UserIndex fresh = new UserIndex((int) Math.min(userRepository.count(), 1 << 26));
+            long after = 0L;
+            List<UserNameView> rows;
+            do {
+                rows = userRepository.findNamesByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+                for (UserNameView row : rows) {
+                    fresh.load(row.getId(), row.getUsername(), row.getEmail());
+                    after = row.getId();
+                }
+            } while (rows.size() == batchSize);
+            fresh.finishLoad();
+
+            lock.writeLock().lock();
+            try {
+                UserChangedEvent event;
+                while ((event = pending.poll()) != null) {
+                    apply(fresh, event);
+                }
+                index = fresh;
+                rebuilding = false;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("User search index built: {} users in {} ms",
+                    fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuilding = false;
+            pending.clear();
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(index, event);
+            if (rebuilding) {
+                pending.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long[] search(String keyword, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(keyword, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<UserIndex.Entry> suggest(String keyword, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.suggest(keyword, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(UserIndex target, UserChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getUserId());
+        } else {
+            target.add(event.getUserId(), event.getUser().getUsername(), event.getUser().getEmail());
+        }
+    }
+}
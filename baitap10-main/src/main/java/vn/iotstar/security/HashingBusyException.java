@@ -0,0 +1,11 @@
+package vn.iotstar.security;
+
+/**
+ * Hàng đợi băm mật khẩu đã đầy hoặc quá thời gian chờ: yêu cầu nên được thử lại sau.
+ */
+public class HashingBusyException extends RuntimeException {
+
+    public HashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,129 @@
+package vn.iotstar.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Băm/kiểm tra mật khẩu bcrypt trên một pool luồng riêng có giới hạn.
+ * Số luồng mặc định bằng số nhân CPU và hàng đợi có sức chứa cố định: khi quá tải,
+ * yêu cầu bị từ chối ngay (HashingBusyException) thay vì chiếm hết luồng Tomcat.
+ * Pool vẫn là luồng platform khi bật virtual thread: bcrypt tốn CPU, pool là giới hạn CPU của request.
+ */
+@Component
+public class PasswordHasher {
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    // Hash cố định cùng cost, để đăng nhập với username không tồn tại vẫn tốn đúng một lần bcrypt
+    private final String dummyHash;
+
+    public PasswordHasher(@Value("${app.security.bcrypt-strength:10}") int strength,
+                          @Value("${app.security.hash-threads:0}") int threads,
+                          @Value("${app.security.hash-queue-capacity:256}") int queueCapacity,
+                          @Value("${app.security.hash-timeout-ms:3000}") long timeoutMillis) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hasher-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    public String encode(String rawPassword) {
+        return call(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Kiểm tra mật khẩu. Giá trị lưu chưa phải bcrypt (dữ liệu cũ dạng plaintext)
+     * được so sánh thời gian hằng và nên được băm lại ngay sau khi đăng nhập thành công.
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return call(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    /**
+     * Kiểm tra mật khẩu với hash cố định (luôn sai) trên cùng pool: thời gian trả lời khi username
+     * không tồn tại giống khi sai mật khẩu, không lộ username nào có thật.
+     */
+    public void matchesDummy(String rawPassword) {
+        String raw = rawPassword == null ? "" : rawPassword;
+        call(() -> encoder.matches(raw, dummyHash));
+    }
+
+    /**
+     * true nếu giá trị lưu là plaintext hoặc được băm với cost thấp hơn cấu hình hiện tại.
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    public boolean isHashed(String value) {
+        return value != null && BCRYPT.matcher(value).matches();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new HashingBusyException("Password hashing queue is full", e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HashingBusyException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HashingBusyException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package vn.iotstar.service;
+
+/**
+ * Kiểm tra nhanh username/email còn trống cho form đăng ký. Kết quả chỉ mang tính gợi ý:
+ * câu INSERT khi đăng ký mới là nơi quyết định.
+ */
+public interface AvailabilityService {
+    boolean isUsernameAvailable(String username);
+
+    boolean isEmailAvailable(String email);
+
+    /** Ghi nhận username/email vừa được lưu (gọi sau khi transaction đã commit). */
+    void record(String username, String email);
+}
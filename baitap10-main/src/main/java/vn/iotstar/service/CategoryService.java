@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import vn.iotstar.entity.Category;
+import vn.iotstar.model.KeysetPage;
 
 
 public interface CategoryService {
@@ -12,5 +13,7 @@ public interface CategoryService {
     void deleteById(Long id);
     List<Category> search(String keyword);
     Optional<Category> findById(Long id);
+    KeysetPage<Category> findPage(Long cursor, int size);
+    KeysetPage<Category> searchPage(String keyword, Long cursor, int size);
 
 } 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package vn.iotstar.service;
+
+import vn.iotstar.entity.User;
+
+public interface MailService {
+    /**
+     * Ghi email vào outbox trong transaction hiện tại (bắt buộc phải có); email chỉ được gửi
+     * nếu transaction commit.
+     */
+    void queue(String recipient, String subject, String body);
+
+    /** Email xác nhận đăng ký tài khoản. */
+    void queueRegistrationConfirmation(User user);
+}
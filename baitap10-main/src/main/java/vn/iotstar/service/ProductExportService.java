@@ -0,0 +1,13 @@
+package vn.iotstar.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import vn.iotstar.model.ExportFormat;
+
+public interface ProductExportService {
+    /**
+     * Ghi toàn bộ sản phẩm (kèm tên danh mục) ra {@code out}; trả về số dòng đã ghi.
+     */
+    long export(ExportFormat format, OutputStream out) throws IOException;
+}
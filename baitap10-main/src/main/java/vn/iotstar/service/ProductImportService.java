@@ -0,0 +1,11 @@
+package vn.iotstar.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import vn.iotstar.model.ImportReport;
+
+public interface ProductImportService {
+    ImportReport importCsv(InputStream in) throws IOException;
+    ImportReport importNdjson(InputStream in) throws IOException;
+}
@@ -2,6 +2,10 @@ package vn.iotstar.service;
 
 import java.util.List;
 import vn.iotstar.entity.Product;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductFacets;
+import vn.iotstar.model.ProductFilter;
+import vn.iotstar.model.ProductListItem;
 
 public interface ProductService {
     List<Product> findAll();
@@ -9,4 +13,15 @@ public interface ProductService {
     void deleteById(Long id);
     List<Product> search(String keyword);
     Product findById(Long id);
+    KeysetPage<ProductListItem> findPage(Long cursor, int size);
+    KeysetPage<ProductListItem> findPageByCategory(Long categoryId, Long cursor, int size);
+    KeysetPage<ProductListItem> searchPage(String keyword, Long cursor, int size);
+    /**
+     * Trang sản phẩm theo bộ lọc facet, lọc bằng bitmap trong bộ nhớ. Khi chỉ mục chưa sẵn sàng
+     * áp dụng cùng bộ lọc (danh mục, còn hàng, khoảng giá) bằng SQL.
+     */
+    KeysetPage<ProductListItem> filterPage(ProductFilter filter, Long cursor, int size);
+    /** Số đếm facet cho bộ lọc hiện tại; null khi chỉ mục chưa sẵn sàng. */
+    ProductFacets facets(ProductFilter filter);
+    void rebuildSearchIndex();
 }
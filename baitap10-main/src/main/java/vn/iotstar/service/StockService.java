@@ -0,0 +1,32 @@
+package vn.iotstar.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+import vn.iotstar.stock.Reservation;
+
+public interface StockService {
+    /**
+     * Giữ {@code quantity} sản phẩm cho {@code userId}; ném OutOfStockException nếu không đủ hàng
+     * (hoặc sản phẩm không tồn tại), ReservationLimitException nếu vượt giới hạn giữ chỗ.
+     */
+    Reservation reserve(Long productId, long quantity, Long userId);
+
+    /** Xác nhận bán: số lượng giữ chỗ bị trừ hẳn. Giữ chỗ của người khác coi như không tồn tại. */
+    void commit(String reservationId, Long userId);
+
+    /** Hủy giữ chỗ: số lượng quay lại kho. Giữ chỗ của người khác coi như không tồn tại. */
+    void release(String reservationId, Long userId);
+
+    /** Số lượng còn có thể giữ chỗ (cột quantity cộng phần đang giữ trong bộ nhớ). */
+    long available(Long productId);
+
+    /** Như {@link #available(Long)} cho nhiều sản phẩm trong một truy vấn; sản phẩm không tồn tại bị bỏ qua. */
+    Map<Long, Long> available(Collection<Long> productIds);
+
+    /**
+     * Đặt lại tồn kho nếu giá trị hiện tại vẫn bằng {@code expected} (so sánh rồi ghi);
+     * trả về false nếu đã có thay đổi khác xen vào.
+     */
+    boolean setQuantity(Long productId, long expected, long quantity);
+}
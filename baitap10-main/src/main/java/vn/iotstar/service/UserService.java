@@ -3,13 +3,30 @@ package vn.iotstar.service;
 import java.util.List;
 
 import vn.iotstar.entity.User;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.RegistrationResult;
+import vn.iotstar.search.UserIndex;
 
 public interface UserService {
     List<User> findAll();
     User findById(Long id);
     void save(User user);
+    /**
+     * Tạo tài khoản và xếp email xác nhận vào outbox trong cùng một transaction. Chỉ một câu INSERT:
+     * username/email trùng được nhận biết qua vi phạm ràng buộc unique.
+     */
+    RegistrationResult register(User user);
     void deleteById(Long id);
     List<User> search(String keyword);
-    User findByUsernameAndPassword(String username, String password);
+    User authenticate(String username, String rawPassword);
     User findByUsername(String username);
+    KeysetPage<User> findPage(Long cursor, int size);
+    /**
+     * Tìm theo tiền tố/chuỗi con của username hoặc email trên chỉ mục trong bộ nhớ, phân trang theo id.
+     */
+    KeysetPage<User> searchPage(String keyword, Long cursor, int size);
+    /**
+     * Gợi ý cho ô tìm kiếm: tiền tố username, rồi tiền tố email, rồi chuỗi con. Không truy vấn DB.
+     */
+    List<UserIndex.Entry> autocomplete(String keyword, int limit);
 }
@@ -0,0 +1,136 @@
+package vn.iotstar.service.impl;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import vn.iotstar.service.AvailabilityService;
+import vn.iotstar.util.BloomFilter;
+
+/**
+ * Bloom filter của mọi username và email đặt trước DB: tên chưa có trong filter chắc chắn còn trống
+ * (trả lời không cần truy vấn), chỉ khi filter nói "có thể đã dùng" mới hỏi DB.
+ *
+ * Filter được dựng lúc khởi động và dựng lại định kỳ (Bloom filter không xóa được phần tử,
+ * và node khác cũng có thể tạo tài khoản). Trong lúc chưa dựng xong, mọi câu hỏi đi thẳng DB.
+ * Filter lưu khóa viết thường nên không bỏ sót dù collation của DB có phân biệt hoa thường hay không.
+ */
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long minExpected;
+    private final double fpp;
+
+    private volatile Filters current;
+    private volatile Filters building;
+
+    private final LongAdder filterAnswers = new LongAdder();
+    private final LongAdder databaseChecks = new LongAdder();
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+        Filters(long expected, double fpp) {
+            this(new BloomFilter(expected, fpp), new BloomFilter(expected, fpp));
+        }
+
+        void put(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+
+    public AvailabilityServiceImpl(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.availability.expected-users:100000}") long minExpected,
+                                   @Value("${app.availability.fpp:0.01}") double fpp) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.minExpected = minExpected;
+        this.fpp = fpp;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.availability.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.availability.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        // Chừa chỗ cho tài khoản mới tới lần dựng lại sau
+        Filters next = new Filters(Math.max(minExpected, (count == null ? 0 : count) * 2), fpp);
+        // Gắn filter mới trước khi quét: tài khoản commit sau thời điểm này được record() ghi vào cả hai
+        building = next;
+        try {
+            jdbcTemplate.query("SELECT username, email FROM users",
+                    rs -> {
+                        next.put(rs.getString(1), rs.getString(2));
+                    });
+            current = next;
+        } catch (RuntimeException e) {
+            log.warn("Could not build availability filters, falling back to database checks", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    @Override
+    public boolean isUsernameAvailable(String username) {
+        Filters filters = current;
+        if (filters != null && !filters.usernames().mightContain(normalize(username))) {
+            filterAnswers.increment();
+            return true;
+        }
+        databaseChecks.increment();
+        return !exists("SELECT COUNT(*) FROM users WHERE username = ?", username.trim());
+    }
+
+    @Override
+    public boolean isEmailAvailable(String email) {
+        Filters filters = current;
+        if (filters != null && !filters.emails().mightContain(normalize(email))) {
+            filterAnswers.increment();
+            return true;
+        }
+        databaseChecks.increment();
+        return !exists("SELECT COUNT(*) FROM users WHERE email = ?", email.trim());
+    }
+
+    @Override
+    public void record(String username, String email) {
+        Filters filters = current;
+        if (filters != null) {
+            filters.put(username, email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.put(username, email);
+        }
+    }
+
+    private boolean exists(String sql, String value) {
+        // So sánh trực tiếp trên cột để dùng được unique index
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, value);
+        return count != null && count > 0;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public long getFilterAnswers() {
+        return filterAnswers.sum();
+    }
+
+    public long getDatabaseChecks() {
+        return databaseChecks.sum();
+    }
+}
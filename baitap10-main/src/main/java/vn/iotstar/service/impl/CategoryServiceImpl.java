@@ -1,8 +1,14 @@
 package vn.iotstar.service.impl;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import vn.iotstar.cache.CategoryCache;
+import vn.iotstar.datasource.ReplicaRead;
 import vn.iotstar.entity.Category;
+import vn.iotstar.event.CategoryChangedEvent;
+import vn.iotstar.model.KeysetPage;
 import vn.iotstar.repository.CategoryRepository;
 import vn.iotstar.service.CategoryService;
 
@@ -12,33 +18,63 @@ import java.util.Optional;
 @Service
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryCache categoryCache,
+                               ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public List<Category> findAll() {
-        return categoryRepository.findAll();
+        return categoryCache.getAll();
     }
     @Override
     public Category save(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryCache.invalidate();
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
     public void deleteById(Long id) {
         categoryRepository.deleteById(id);
+        categoryCache.invalidate();
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     @Override
+    @ReplicaRead
     public List<Category> search(String keyword) {
         return categoryRepository.findByCategoryNameContaining(keyword);
     }
 
     @Override
     public Optional<Category> findById(Long id) {
-        return categoryRepository.findById(id);
+        return categoryCache.get(id);
+    }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<Category> findPage(Long cursor, int size) {
+        long after = cursor == null ? 0L : cursor;
+        List<Category> rows = categoryRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1));
+        return KeysetPage.of(rows, cursor, size, Category::getId);
+    }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<Category> searchPage(String keyword, Long cursor, int size) {
+        if (keyword == null || keyword.isEmpty()) {
+            return findPage(cursor, size);
+        }
+        long after = cursor == null ? 0L : cursor;
+        List<Category> rows = categoryRepository.findByCategoryNameContainingAndIdGreaterThanOrderByIdAsc(
+                keyword, after, Limit.of(size + 1));
+        return KeysetPage.of(rows, cursor, size, Category::getId);
     }
-    
 }
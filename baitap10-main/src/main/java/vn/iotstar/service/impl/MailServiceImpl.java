@@ -0,0 +1,38 @@
+package vn.iotstar.service.impl;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.iotstar.entity.MailOutbox;
+import vn.iotstar.entity.User;
+import vn.iotstar.repository.MailOutboxRepository;
+import vn.iotstar.service.MailService;
+
+@Service
+public class MailServiceImpl implements MailService {
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queue(String recipient, String subject, String body) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        mailOutboxRepository.save(new MailOutbox(null, recipient, subject, body, MailOutbox.Status.PENDING,
+                0, now, now, null, null));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queueRegistrationConfirmation(User user) {
+        String body = "Xin chào " + user.getUsername() + ",\n\n"
+                + "Tài khoản của bạn đã được tạo thành công với email " + user.getEmail() + ".\n"
+                + "Nếu bạn không thực hiện đăng ký này, vui lòng bỏ qua email.\n";
+        queue(user.getEmail(), "Xác nhận đăng ký tài khoản", body);
+    }
+}
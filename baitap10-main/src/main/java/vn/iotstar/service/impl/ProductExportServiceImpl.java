@@ -0,0 +1,126 @@
+package vn.iotstar.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import vn.iotstar.entity.Product;
+import vn.iotstar.model.ExportFormat;
+import vn.iotstar.repository.ProductRepository;
+import vn.iotstar.service.ProductExportService;
+
+/**
+ * Xuất sản phẩm theo luồng: mỗi entity được detach ngay sau khi ghi nên persistence
+ * context không lớn dần và heap không phụ thuộc kích thước bảng.
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+    private static final String[] COLUMNS = { "id", "title", "description", "price", "quantity", "image", "category" };
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductExportServiceImpl(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long rows = 0;
+        try (Stream<Product> stream = productRepository.streamAllWithCategory()) {
+            if (format == ExportFormat.NDJSON) {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+                // Mặc định Jackson chèn dấu cách giữa các giá trị gốc; tự xuống dòng sau mỗi đối tượng
+                json.setRootValueSeparator(null);
+                for (Iterator<Product> it = stream.iterator(); it.hasNext(); rows++) {
+                    Product product = it.next();
+                    writeJson(json, product);
+                    json.flush();
+                    writer.write('\n');
+                    detach(product);
+                }
+            } else {
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+                for (Iterator<Product> it = stream.iterator(); it.hasNext(); rows++) {
+                    Product product = it.next();
+                    writeCsv(writer, product);
+                    detach(product);
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void detach(Product product) {
+        entityManager.detach(product);
+        if (product.getCategory() != null) {
+            entityManager.detach(product.getCategory());
+        }
+    }
+
+    private static void writeJson(JsonGenerator json, Product product) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", product.getId());
+        json.writeStringField("title", product.getTitle());
+        json.writeStringField("description", product.getDescription());
+        json.writeNumberField("price", product.getPrice());
+        json.writeNumberField("quantity", product.getQuantity());
+        json.writeStringField("image", product.getImage());
+        json.writeStringField("category",
+                product.getCategory() == null ? null : product.getCategory().getCategoryName());
+        json.writeEndObject();
+    }
+
+    private static void writeCsv(Writer writer, Product product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writeCsvField(writer, product.getTitle());
+        writer.write(',');
+        writeCsvField(writer, product.getDescription());
+        writer.write(',');
+        writer.write(String.valueOf(product.getPrice()));
+        writer.write(',');
+        writer.write(String.valueOf(product.getQuantity()));
+        writer.write(',');
+        writeCsvField(writer, product.getImage());
+        writer.write(',');
+        writeCsvField(writer, product.getCategory() == null ? null : product.getCategory().getCategoryName());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
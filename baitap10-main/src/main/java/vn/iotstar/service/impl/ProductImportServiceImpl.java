@@ -0,0 +1,241 @@
+package vn.iotstar.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import vn.iotstar.entity.Category;
+import vn.iotstar.event.ProductsImportedEvent;
+import vn.iotstar.model.ImportReport;
+import vn.iotstar.model.ImportRow;
+import vn.iotstar.service.CategoryService;
+import vn.iotstar.service.ProductImportService;
+import vn.iotstar.util.BoundedLineReader;
+import vn.iotstar.util.CsvRecordReader;
+import vn.iotstar.util.RecordFormatException;
+
+/**
+ * Nhập sản phẩm hàng loạt bằng JDBC batch. Products dùng IDENTITY nên Hibernate không batch
+ * được INSERT; ở đây ghi thẳng bằng JdbcTemplate.batchUpdate, để DB tự cấp id và không đọc
+ * lại khóa sinh ra, mỗi chunk một transaction.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final String INSERT_SQL =
+            "INSERT INTO products (title, description, price, quantity, image, category_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryService categoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${app.import.max-record-chars:65536}")
+    private int maxRecordChars;
+
+    public ProductImportServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                    CategoryService categoryService, ApplicationEventPublisher eventPublisher,
+                                    ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.categoryService = categoryService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportReport importCsv(InputStream in) throws IOException {
+        Import run = new Import();
+        try (CsvRecordReader csv = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), maxRecordChars)) {
+            List<String> header = csv.next();
+            if (header == null) {
+                return run.finish();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            while (true) {
+                List<String> record;
+                try {
+                    record = csv.next();
+                } catch (RecordFormatException e) {
+                    run.report.rowRead();
+                    run.report.error(e.getLine(), e.getMessage(), maxErrors);
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                ImportRow row = new ImportRow(
+                        column(record, columns, "title"),
+                        column(record, columns, "description"),
+                        column(record, columns, "price"),
+                        column(record, columns, "quantity"),
+                        column(record, columns, "image"),
+                        column(record, columns, "category"));
+                run.accept(csv.getRecordLine(), row);
+            }
+        }
+        return run.finish();
+    }
+
+    @Override
+    public ImportReport importNdjson(InputStream in) throws IOException {
+        Import run = new Import();
+        try (BoundedLineReader reader = new BoundedLineReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), maxRecordChars)) {
+            while (true) {
+                String line;
+                try {
+                    line = reader.readLine();
+                } catch (RecordFormatException e) {
+                    run.report.rowRead();
+                    run.report.error(e.getLine(), e.getMessage(), maxErrors);
+                    continue;
+                }
+                if (line == null) {
+                    break;
+                }
+                long lineNumber = reader.getLineNumber();
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportRow row;
+                try {
+                    row = objectMapper.readValue(line, ImportRow.class);
+                } catch (JsonProcessingException e) {
+                    run.report.rowRead();
+                    run.report.error(lineNumber, "Invalid JSON: " + e.getOriginalMessage(), maxErrors);
+                    continue;
+                }
+                run.accept(lineNumber, row);
+            }
+        }
+        return run.finish();
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    /**
+     * Trạng thái của một lần nhập: chunk đang gom và báo cáo.
+     */
+    private class Import {
+        final ImportReport report = new ImportReport();
+        final long startNanos = System.nanoTime();
+        final long maxIdBefore;
+        final Map<String, Long> categoryIds = new HashMap<>();
+        final List<Object[]> chunk = new ArrayList<>(chunkSize);
+        final List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        Import() {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+            maxIdBefore = maxId == null ? 0L : maxId;
+            // Danh mục lấy từ cache, tra theo tên không phân biệt hoa thường
+            for (Category category : categoryService.findAll()) {
+                categoryIds.put(category.getCategoryName().trim().toLowerCase(Locale.ROOT), category.getId());
+            }
+        }
+
+        void accept(long line, ImportRow row) {
+            report.rowRead();
+            Object[] params;
+            try {
+                params = toParams(row);
+            } catch (IllegalArgumentException e) {
+                report.error(line, e.getMessage(), maxErrors);
+                return;
+            }
+            chunk.add(params);
+            chunkLines.add(line);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        Object[] toParams(ImportRow row) {
+            String title = row.getTitle() == null ? "" : row.getTitle().trim();
+            if (title.isEmpty() || title.length() > 200) {
+                throw new IllegalArgumentException("title is required (max 200 characters)");
+            }
+            double price;
+            int quantity;
+            try {
+                price = Double.parseDouble(row.getPrice().trim());
+                quantity = Integer.parseInt(row.getQuantity().trim());
+            } catch (NullPointerException | NumberFormatException e) {
+                throw new IllegalArgumentException("price and quantity must be numbers");
+            }
+            if (price < 0 || quantity < 0) {
+                throw new IllegalArgumentException("price and quantity must not be negative");
+            }
+            Long categoryId = null;
+            if (row.getCategory() != null && !row.getCategory().isBlank()) {
+                categoryId = categoryIds.get(row.getCategory().trim().toLowerCase(Locale.ROOT));
+                if (categoryId == null) {
+                    throw new IllegalArgumentException("unknown category '" + row.getCategory() + "'");
+                }
+            }
+            String image = row.getImage() == null || row.getImage().isBlank() ? null : row.getImage().trim();
+            return new Object[] { title, row.getDescription(), price, quantity, image, categoryId };
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, chunk));
+                report.inserted(chunk.size());
+            } catch (DataAccessException batchFailure) {
+                // Cả chunk đã rollback: ghi lại từng dòng để chỉ loại đúng dòng lỗi
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, chunk.get(i));
+                        report.inserted(1);
+                    } catch (DataAccessException e) {
+                        report.error(chunkLines.get(i), e.getMostSpecificCause().getMessage(), maxErrors);
+                    }
+                }
+            }
+            chunk.clear();
+            chunkLines.clear();
+        }
+
+        ImportReport finish() {
+            flush();
+            report.finish(System.nanoTime() - startNanos);
+            if (report.getInserted() > 0) {
+                eventPublisher.publishEvent(new ProductsImportedEvent(maxIdBefore, report.getInserted()));
+            }
+            return report;
+        }
+    }
+}
@@ -1,13 +1,32 @@
 package vn.iotstar.service.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import vn.iotstar.datasource.ReplicaRead;
+import vn.iotstar.entity.Category;
 import vn.iotstar.entity.Product;
+import vn.iotstar.event.ProductChangedEvent;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductFacets;
+import vn.iotstar.model.ProductFilter;
+import vn.iotstar.model.ProductListItem;
 import vn.iotstar.repository.ProductRepository;
+import vn.iotstar.search.FacetIndex;
+import vn.iotstar.search.ProductFacetIndex;
+import vn.iotstar.search.ProductSearchIndex;
+import vn.iotstar.search.TrigramIndex;
+import vn.iotstar.service.CategoryService;
 import vn.iotstar.service.ProductService;
 
 @Service
@@ -16,32 +35,247 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.search.max-results:200}")
+    private int maxSearchResults;
+
     @Override
+    @ReplicaRead
     public List<Product> findAll() {
         return productRepository.findAll();
     }
 
     @Override
     public Product save(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     @Override
     public void deleteById(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, null));
     }
 
     @Override
+    @ReplicaRead
     public List<Product> search(String keyword) {
         if (keyword == null || keyword.isEmpty()) {
             return productRepository.findAll();
         }
+        if (searchIndex.canServe(keyword)) {
+            return hydrate(searchIndex.rank(keyword, maxSearchResults), keyword);
+        }
         return productRepository.findByTitleContaining(keyword);
     }
 
     @Override
+    @ReplicaRead
     public Product findById(Long id) {
         Optional<Product> opt = productRepository.findById(id);
         return opt.orElse(null);
     }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<ProductListItem> findPage(Long cursor, int size) {
+        long after = cursor == null ? 0L : cursor;
+        List<ProductListItem> rows = productRepository.findListItems(after, PageRequest.ofSize(size + 1));
+        return KeysetPage.of(rows, cursor, size, ProductListItem::getId);
+    }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<ProductListItem> findPageByCategory(Long categoryId, Long cursor, int size) {
+        if (categoryId == null) {
+            return findPage(cursor, size);
+        }
+        long after = cursor == null ? 0L : cursor;
+        List<ProductListItem> rows = productRepository.findListItemsByCategory(categoryId, after,
+                PageRequest.ofSize(size + 1));
+        return KeysetPage.of(rows, cursor, size, ProductListItem::getId);
+    }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<ProductListItem> searchPage(String keyword, Long cursor, int size) {
+        if (keyword == null || keyword.isEmpty()) {
+            return findPage(cursor, size);
+        }
+        long after = cursor == null ? 0L : cursor;
+        if (searchIndex.canServe(keyword)) {
+            List<ProductListItem> rows = new ArrayList<>(size + 1);
+            while (rows.size() <= size) {
+                long[] ids = searchIndex.candidates(keyword, after, size + 1 - rows.size());
+                if (ids.length == 0) {
+                    break;
+                }
+                rows.addAll(hydrateListItems(ids, keyword));
+                after = ids[ids.length - 1];
+            }
+            return KeysetPage.of(rows, cursor, size, ProductListItem::getId);
+        }
+        List<ProductListItem> rows = productRepository.findListItemsByTitle(
+                keyword, after, PageRequest.ofSize(size + 1));
+        return KeysetPage.of(rows, cursor, size, ProductListItem::getId);
+    }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<ProductListItem> filterPage(ProductFilter filter, Long cursor, int size) {
+        if (filter.isEmpty()) {
+            return findPage(cursor, size);
+        }
+        if (!facetIndex.isReady()) {
+            return filterPageInSql(filter, cursor, size);
+        }
+        long after = cursor == null ? 0L : cursor;
+        long[] ids = facetIndex.page(filter.getCategoryIds(), filter.getPriceBands(), filter.isInStock(),
+                after, size + 1);
+        Map<Long, ProductListItem> byId = new HashMap<>();
+        for (ProductListItem item : productRepository.findListItemsByIdIn(boxed(ids))) {
+            byId.put(item.getId(), item);
+        }
+        List<ProductListItem> rows = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            ProductListItem item = byId.get(id);
+            if (item != null) {
+                rows.add(item);
+            }
+        }
+        return KeysetPage.of(rows, cursor, size, ProductListItem::getId);
+    }
+
+    /**
+     * Cùng kết quả với chỉ mục facet nhưng đọc thẳng từ DB, dùng trong lúc chỉ mục đang dựng.
+     * "Còn hàng" ở đây chỉ xét quantity trong DB, chưa tính phần tồn kho đang thuê vào bộ nhớ.
+     */
+    private KeysetPage<ProductListItem> filterPageInSql(ProductFilter filter, Long cursor, int size) {
+        double[] bounds = facetIndex.getPriceBands();
+        List<Integer> bands = filter.getPriceBands().stream().filter(b -> b >= 0 && b <= bounds.length).toList();
+        if (bands.isEmpty() && !filter.getPriceBands().isEmpty()) {
+            return KeysetPage.of(List.of(), cursor, size, ProductListItem::getId);
+        }
+        double minPrice = bands.isEmpty() || bands.get(0) == 0 ? -Double.MAX_VALUE : bounds[bands.get(0) - 1];
+        int lastBand = bands.isEmpty() ? bounds.length : bands.get(bands.size() - 1);
+        double maxPrice = lastBand == bounds.length ? Double.MAX_VALUE : bounds[lastBand];
+        boolean allCategories = filter.getCategoryIds().isEmpty();
+        List<Long> categoryIds = allCategories ? List.of(0L) : filter.getCategoryIds();
+
+        long after = cursor == null ? 0L : cursor;
+        List<ProductListItem> rows = new ArrayList<>(size + 1);
+        List<ProductListItem> batch;
+        do {
+            batch = productRepository.findListItemsFiltered(allCategories, categoryIds, filter.isInStock(),
+                    minPrice, maxPrice, after, PageRequest.ofSize(size + 1));
+            for (ProductListItem item : batch) {
+                after = item.getId();
+                // Các band đã chọn không liền nhau: bỏ dòng rơi vào khoảng trống giữa chúng
+                if (bands.isEmpty() || bands.contains(FacetIndex.band(bounds, item.getPrice()))) {
+                    rows.add(item);
+                }
+            }
+        } while (rows.size() <= size && batch.size() == size + 1);
+        return KeysetPage.of(rows, cursor, size, ProductListItem::getId);
+    }
+
+    @Override
+    public ProductFacets facets(ProductFilter filter) {
+        if (!facetIndex.isReady()) {
+            return null;
+        }
+        FacetIndex.Counts counts = facetIndex.counts(filter.getCategoryIds(), filter.getPriceBands(),
+                filter.isInStock());
+        List<ProductFacets.FacetValue> categories = new ArrayList<>();
+        for (Category category : categoryService.findAll()) {
+            categories.add(new ProductFacets.FacetValue(String.valueOf(category.getId()), category.getCategoryName(),
+                    counts.categoryCounts().getOrDefault(category.getId(), 0L),
+                    filter.getCategoryIds().contains(category.getId())));
+        }
+        double[] bounds = facetIndex.getPriceBands();
+        List<ProductFacets.FacetValue> bands = new ArrayList<>(bounds.length + 1);
+        for (int i = 0; i <= bounds.length; i++) {
+            bands.add(new ProductFacets.FacetValue(String.valueOf(i), bandLabel(bounds, i), counts.bandCounts()[i],
+                    filter.getPriceBands().contains(i)));
+        }
+        return new ProductFacets(counts.total(), categories, bands, counts.inStockCount());
+    }
+
+    @Override
+    public void rebuildSearchIndex() {
+        searchIndex.rebuild();
+    }
+
+    private static String bandLabel(double[] bounds, int band) {
+        if (bounds.length == 0) {
+            return "All prices";
+        }
+        if (band == 0) {
+            return "Under " + formatPrice(bounds[0]);
+        }
+        if (band == bounds.length) {
+            return formatPrice(bounds[band - 1]) + " and above";
+        }
+        return formatPrice(bounds[band - 1]) + " – " + formatPrice(bounds[band]);
+    }
+
+    private static String formatPrice(double price) {
+        return String.format(Locale.US, "%,.0f đ", price);
+    }
+
+    /**
+     * Nạp sản phẩm theo khóa chính, giữ nguyên thứ tự ids và loại các ứng viên
+     * không thực sự chứa từ khóa (dương tính giả của trigram).
+     */
+    private List<Product> hydrate(long[] ids, String keyword) {
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product p : productRepository.findAllById(boxed(ids))) {
+            byId.put(p.getId(), p);
+        }
+        String needle = TrigramIndex.normalize(keyword);
+        List<Product> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Product p = byId.get(id);
+            if (p != null && TrigramIndex.normalize(p.getTitle()).contains(needle)) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    private List<ProductListItem> hydrateListItems(long[] ids, String keyword) {
+        Map<Long, ProductListItem> byId = new HashMap<>();
+        for (ProductListItem item : productRepository.findListItemsByIdIn(boxed(ids))) {
+            byId.put(item.getId(), item);
+        }
+        String needle = TrigramIndex.normalize(keyword);
+        List<ProductListItem> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            ProductListItem item = byId.get(id);
+            if (item != null && TrigramIndex.normalize(item.getTitle()).contains(needle)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        List<Long> keys = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            keys.add(id);
+        }
+        return keys;
+    }
 }
@@ -0,0 +1,403 @@
+package vn.iotstar.service.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import vn.iotstar.event.StockChangedEvent;
+import vn.iotstar.service.StockService;
+import vn.iotstar.stock.OutOfStockException;
+import vn.iotstar.stock.Reservation;
+import vn.iotstar.stock.ReservationLimitException;
+import vn.iotstar.stock.StockPool;
+import vn.iotstar.stock.UnknownReservationException;
+
+/**
+ * Giữ chỗ tồn kho không bán vượt số lượng.
+ *
+ * Sản phẩm thường: mỗi lần giữ chỗ là một UPDATE có điều kiện (quantity >= n) trên DB.
+ * Sản phẩm "nóng" (nhiều lần giữ chỗ trong một chu kỳ flush): node thuê trước một lô hàng
+ * từ cột quantity bằng cùng kiểu UPDATE có điều kiện, giữ trong bộ đếm phân ô và phục vụ
+ * các lần giữ chỗ tiếp theo hoàn toàn trong bộ nhớ. Hàng thuê chưa dùng được trả về DB
+ * theo batch khi sản phẩm hết nóng và khi tắt ứng dụng.
+ *
+ * Vì hàng luôn được trừ khỏi DB trước khi đem ra giữ chỗ, tổng giữ chỗ không thể vượt tồn kho;
+ * nếu node dừng đột ngột, tối đa một lô hàng thuê mỗi sản phẩm nóng bị thiếu trong DB (không bán vượt).
+ *
+ * Giữ chỗ được ghi vào bảng stock_reservations (mỗi lần một dòng riêng, không tranh khóa dòng
+ * products), nên còn sau khi khởi động lại và vẫn hết hạn qua {@link #flush()} của bất kỳ node nào.
+ * Commit, release và hết hạn đều là DELETE theo id: chỉ lần xóa được dòng mới trả hàng về kho.
+ *
+ * Pool chỉ được tạo sau khi một UPDATE trừ kho thành công (sản phẩm tồn tại) và bị gỡ ở chu kỳ
+ * flush khi đã nguội và rỗng, nên số pool tỷ lệ với số sản phẩm đang có người mua chứ không với
+ * số id bị gửi lên. Mỗi lần giữ chỗ bị giới hạn số lượng, và mỗi người dùng bị giới hạn tổng số
+ * hàng đang giữ.
+ */
+@Service
+public class StockServiceImpl implements StockService {
+    private static final Logger log = LoggerFactory.getLogger(StockServiceImpl.class);
+
+    private static final String TAKE_SQL = "UPDATE products SET quantity = quantity - ? WHERE id = ? AND quantity >= ?";
+    private static final String GIVE_SQL = "UPDATE products SET quantity = quantity + ? WHERE id = ?";
+    private static final String INSERT_RESERVATION_SQL =
+            "INSERT INTO stock_reservations (id, product_id, user_id, quantity, expires_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_RESERVATION_SQL =
+            "SELECT id, product_id, user_id, quantity, expires_at FROM stock_reservations";
+    private static final String DELETE_RESERVATION_SQL = "DELETE FROM stock_reservations WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int stripes;
+    private final long leaseSize;
+    private final long hotThreshold;
+    private final long reservationTtlSeconds;
+    private final long maxPerReservation;
+    private final long maxHeldPerUser;
+
+    private final ConcurrentHashMap<Long, StockPool> pools = new ConcurrentHashMap<>();
+    // Tổng số hàng đang giữ theo userId
+    private final ConcurrentHashMap<Long, Long> held = new ConcurrentHashMap<>();
+    private final LongAdder leases = new LongAdder();
+
+    public StockServiceImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                            @Value("${app.stock.stripes:0}") int stripes,
+                            @Value("${app.stock.lease-size:100}") long leaseSize,
+                            @Value("${app.stock.hot-threshold:50}") long hotThreshold,
+                            @Value("${app.stock.reservation-ttl-seconds:900}") long reservationTtlSeconds,
+                            @Value("${app.stock.max-per-reservation:10}") long maxPerReservation,
+                            @Value("${app.stock.max-held-per-user:50}") long maxHeldPerUser) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.leaseSize = leaseSize;
+        this.hotThreshold = hotThreshold;
+        this.reservationTtlSeconds = reservationTtlSeconds;
+        this.maxPerReservation = maxPerReservation;
+        this.maxHeldPerUser = maxHeldPerUser;
+    }
+
+    /** Nạp lại số hàng đang giữ theo người dùng từ các giữ chỗ còn mở trước lần khởi động này. */
+    @PostConstruct
+    public void restoreHeld() {
+        jdbcTemplate.query("SELECT user_id, SUM(quantity) FROM stock_reservations GROUP BY user_id", rs -> {
+            held.merge(rs.getLong(1), rs.getLong(2), Long::sum);
+        });
+    }
+
+    @Override
+    public Reservation reserve(Long productId, long quantity, Long userId) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (quantity > maxPerReservation) {
+            throw new ReservationLimitException("At most " + maxPerReservation + " items per reservation");
+        }
+        hold(userId, quantity);
+        boolean taken = false;
+        try {
+            taken = takeForReservation(productId, quantity);
+        } finally {
+            if (!taken) {
+                unhold(userId, quantity);
+            }
+        }
+        if (!taken) {
+            throw new OutOfStockException(productId, quantity);
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), productId, userId, quantity,
+                Instant.now().plusSeconds(reservationTtlSeconds));
+        try {
+            jdbcTemplate.update(INSERT_RESERVATION_SQL, reservation.getId(), productId, userId, quantity,
+                    Timestamp.from(reservation.getExpiresAt()));
+        } catch (DataAccessException e) {
+            unhold(userId, quantity);
+            returnToPool(reservation);
+            throw e;
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(productId));
+        return reservation;
+    }
+
+    private boolean takeForReservation(Long productId, long quantity) {
+        StockPool pool = pools.get(productId);
+        if (pool == null) {
+            // Chưa có pool: trừ thẳng trên DB; UPDATE thành công cũng cho biết sản phẩm tồn tại
+            if (!take(productId, quantity)) {
+                return false;
+            }
+            pools.computeIfAbsent(productId, id -> new StockPool(stripes)).recordDemand();
+            return true;
+        }
+        pool.recordDemand();
+        return pool.tryTake(quantity) || refillAndTake(productId, pool, quantity);
+    }
+
+    private void hold(Long userId, long quantity) {
+        held.compute(userId, (id, current) -> {
+            long total = (current == null ? 0 : current) + quantity;
+            if (total > maxHeldPerUser) {
+                throw new ReservationLimitException("At most " + maxHeldPerUser + " items may be held at once");
+            }
+            return total;
+        });
+    }
+
+    private void unhold(Long userId, long quantity) {
+        held.computeIfPresent(userId, (id, current) -> current > quantity ? current - quantity : null);
+    }
+
+    /** Đường chậm: gom các ô trong bộ nhớ, thiếu thì thuê thêm từ DB. */
+    private boolean refillAndTake(Long productId, StockPool pool, long quantity) {
+        ReentrantLock lock = pool.lock();
+        lock.lock();
+        try {
+            if (pool.isRetired()) {
+                // Pool vừa bị gỡ khỏi map và đã rỗng: trừ thẳng trên DB
+                return take(productId, quantity);
+            }
+            if (pool.tryTake(quantity)) {
+                return true;
+            }
+            long pooled = pool.drain();
+            if (pooled >= quantity) {
+                pool.give(pooled - quantity);
+                return true;
+            }
+            long missing = quantity - pooled;
+            long extra = pool.isHot() ? leaseSize : 0;
+            long leased = 0;
+            if (extra > 0 && take(productId, missing + extra)) {
+                leased = missing + extra;
+                leases.increment();
+            } else if (take(productId, missing)) {
+                leased = missing;
+            }
+            if (leased == 0) {
+                pool.give(pooled);
+                return false;
+            }
+            pool.give(pooled + leased - quantity);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean take(Long productId, long amount) {
+        return jdbcTemplate.update(TAKE_SQL, amount, productId, amount) == 1;
+    }
+
+    @Override
+    public void commit(String reservationId, Long userId) {
+        // Hàng đã được trừ khỏi DB khi giữ chỗ, xác nhận chỉ cần bỏ bản ghi giữ chỗ
+        removeOwned(reservationId, userId);
+    }
+
+    @Override
+    public void release(String reservationId, Long userId) {
+        returnToPool(removeOwned(reservationId, userId));
+    }
+
+    /** Giữ chỗ của người khác được báo như không tồn tại, để không lộ id hợp lệ. */
+    private Reservation removeOwned(String reservationId, Long userId) {
+        List<Reservation> found = jdbcTemplate.query(SELECT_RESERVATION_SQL + " WHERE id = ? AND user_id = ?",
+                StockServiceImpl::reservation, reservationId, userId);
+        if (found.isEmpty() || !delete(found.get(0))) {
+            throw new UnknownReservationException(reservationId);
+        }
+        return found.get(0);
+    }
+
+    /** Xóa dòng giữ chỗ; true nếu lần gọi này xóa được (và phải trả hàng hoặc ghi nhận bán). */
+    private boolean delete(Reservation reservation) {
+        if (jdbcTemplate.update(DELETE_RESERVATION_SQL, reservation.getId()) != 1) {
+            return false;
+        }
+        unhold(reservation.getUserId(), reservation.getQuantity());
+        return true;
+    }
+
+    private static Reservation reservation(ResultSet rs, int row) throws SQLException {
+        return new Reservation(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                rs.getTimestamp(5).toInstant());
+    }
+
+    private void returnToPool(Reservation reservation) {
+        Long productId = reservation.getProductId();
+        StockPool pool = pools.get(productId);
+        boolean pooled = false;
+        if (pool != null) {
+            pool.lock().lock();
+            try {
+                if (!pool.isRetired()) {
+                    pool.give(reservation.getQuantity());
+                    pooled = true;
+                }
+            } finally {
+                pool.lock().unlock();
+            }
+        }
+        if (!pooled) {
+            jdbcTemplate.update(GIVE_SQL, reservation.getQuantity(), productId);
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(productId));
+    }
+
+    @Override
+    public long available(Long productId) {
+        Long quantity = jdbcTemplate.query("SELECT quantity FROM products WHERE id = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, productId);
+        StockPool pool = pools.get(productId);
+        return (quantity == null ? 0 : quantity) + (pool == null ? 0 : pool.sum());
+    }
+
+    @Override
+    public Map<Long, Long> available(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        Map<Long, Long> result = new HashMap<>();
+        jdbcTemplate.query("SELECT id, quantity FROM products WHERE id IN (" + placeholders + ")", rs -> {
+            long id = rs.getLong(1);
+            StockPool pool = pools.get(id);
+            result.put(id, rs.getLong(2) + (pool == null ? 0 : pool.sum()));
+        }, productIds.toArray());
+        return result;
+    }
+
+    @Override
+    public boolean setQuantity(Long productId, long expected, long quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative");
+        }
+        boolean updated = compareAndSetQuantity(productId, expected, quantity);
+        if (updated) {
+            eventPublisher.publishEvent(new StockChangedEvent(productId));
+        }
+        return updated;
+    }
+
+    private boolean compareAndSetQuantity(Long productId, long expected, long quantity) {
+        StockPool pool = pools.get(productId);
+        if (pool == null) {
+            return jdbcTemplate.update("UPDATE products SET quantity = ? WHERE id = ? AND quantity = ?",
+                    quantity, productId, expected) == 1;
+        }
+        pool.lock().lock();
+        try {
+            // Trả hàng đang thuê về DB trước để cột quantity phản ánh đủ số có thể bán
+            long pooled = pool.drain();
+            if (pooled > 0) {
+                jdbcTemplate.update(GIVE_SQL, pooled, productId);
+            }
+            return jdbcTemplate.update("UPDATE products SET quantity = ? WHERE id = ? AND quantity = ?",
+                    quantity, productId, expected) == 1;
+        } finally {
+            pool.lock().unlock();
+        }
+    }
+
+    /**
+     * Mỗi chu kỳ: đánh dấu lại sản phẩm nóng/nguội theo nhu cầu vừa qua, trả hàng thuê của
+     * sản phẩm nguội về DB trong một batch, gỡ pool nguội đã rỗng, và hủy các giữ chỗ quá hạn.
+     */
+    @Scheduled(fixedDelayString = "${app.stock.flush-interval-ms:500}")
+    public void flush() {
+        List<Reservation> expired = jdbcTemplate.query(SELECT_RESERVATION_SQL + " WHERE expires_at < ?",
+                StockServiceImpl::reservation, Timestamp.from(Instant.now()));
+        for (Reservation reservation : expired) {
+            if (delete(reservation)) {
+                returnToPool(reservation);
+            }
+        }
+        List<Object[]> returns = new ArrayList<>();
+        List<StockPool> drained = new ArrayList<>();
+        for (Map.Entry<Long, StockPool> entry : pools.entrySet()) {
+            StockPool pool = entry.getValue();
+            if (pool.updateHotness(hotThreshold)) {
+                continue;
+            }
+            if (!pool.lock().tryLock()) {
+                continue;
+            }
+            try {
+                long pooled = pool.drain();
+                if (pooled > 0) {
+                    returns.add(new Object[] { pooled, entry.getKey() });
+                    drained.add(pool);
+                } else {
+                    pool.retire();
+                    pools.remove(entry.getKey(), pool);
+                }
+            } finally {
+                pool.lock().unlock();
+            }
+        }
+        giveBack(returns, drained);
+    }
+
+    private void giveBack(List<Object[]> returns, List<StockPool> drained) {
+        if (returns.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(GIVE_SQL, returns);
+        } catch (DataAccessException e) {
+            // Ghi DB lỗi: giữ lại hàng trong bộ nhớ, chu kỳ sau thử lại
+            log.warn("Could not return leased stock to the database", e);
+            for (int i = 0; i < returns.size(); i++) {
+                drained.get(i).give((Long) returns.get(i)[0]);
+            }
+        }
+    }
+
+    /** Trả hàng thuê về DB khi tắt; giữ chỗ còn mở nằm trong stock_reservations và hết hạn như thường. */
+    @PreDestroy
+    public void flushAll() {
+        List<Object[]> returns = new ArrayList<>();
+        List<StockPool> drained = new ArrayList<>();
+        pools.forEach((productId, pool) -> {
+            long pooled = pool.drain();
+            if (pooled > 0) {
+                returns.add(new Object[] { pooled, productId });
+                drained.add(pool);
+            }
+        });
+        giveBack(returns, drained);
+    }
+
+    public long getLeases() {
+        return leases.sum();
+    }
+
+    public int getOpenReservations() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_reservations", Integer.class);
+    }
+
+    public int getPools() {
+        return pools.size();
+    }
+}
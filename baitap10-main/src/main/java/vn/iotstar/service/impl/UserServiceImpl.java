@@ -1,27 +1,70 @@
 package vn.iotstar.service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import vn.iotstar.datasource.ReplicaRead;
 import vn.iotstar.entity.User;
+import vn.iotstar.event.UserChangedEvent;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.RegistrationResult;
 import vn.iotstar.repository.UserRepository;
+import vn.iotstar.search.UserIndex;
+import vn.iotstar.search.UserSearchIndex;
+import vn.iotstar.security.PasswordHasher;
+import vn.iotstar.service.AvailabilityService;
+import vn.iotstar.service.MailService;
 import vn.iotstar.service.UserService;
 
 @Service
 public class UserServiceImpl implements UserService {
+    // Tên ràng buộc unique của bảng users (V1__baseline_schema.sql), viết thường
+    private static final String USERNAME_UNIQUE = "ukr43af9ap4edm43mmtq01oddj6";
+    private static final String EMAIL_UNIQUE = "uk6dotkott2kjsp8vw4d0m25fb7";
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
+    @ReplicaRead
     public List<User> findAll() {
         return userRepository.findAll();
     }
 
     @Override
+    @ReplicaRead
     public User findById(Long id) {
         Optional<User> opt = userRepository.findById(id);
         return opt.orElse(null);
@@ -29,22 +72,89 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void save(User user) {
+        String password = user.getPassword();
+        if (user.getId() != null && (password == null || password.isEmpty())) {
+            // Form sửa để trống mật khẩu: giữ nguyên mật khẩu cũ
+            User existing = findById(user.getId());
+            if (existing != null) {
+                user.setPassword(existing.getPassword());
+            }
+        } else if (!passwordHasher.isHashed(password)) {
+            user.setPassword(passwordHasher.encode(password));
+        }
         userRepository.save(user);
+        availabilityService.record(user.getUsername(), user.getEmail());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user));
+    }
+
+    @Override
+    public RegistrationResult register(User user) {
+        // Băm trước khi mở transaction để không giữ kết nối DB trong lúc băm
+        user.setPassword(passwordHasher.encode(user.getPassword()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(user);
+                mailService.queueRegistrationConfirmation(user);
+            });
+        } catch (DataIntegrityViolationException e) {
+            RegistrationResult taken = takenBy(e);
+            if (taken == null) {
+                // Không phải trùng username/email (quá dài, thiếu cột...): không báo nhầm là "đã tồn tại"
+                throw e;
+            }
+            user.setId(null);
+            return taken;
+        }
+        availabilityService.record(user.getUsername(), user.getEmail());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user));
+        return RegistrationResult.CREATED;
+    }
+
+    /** USERNAME_TAKEN/EMAIL_TAKEN theo ràng buộc unique bị vi phạm, null nếu là lỗi toàn vẹn khác. */
+    private static RegistrationResult takenBy(DataIntegrityViolationException e) {
+        String detail = e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        detail = detail == null ? "" : detail.toLowerCase(Locale.ROOT);
+        if (detail.contains(USERNAME_UNIQUE)) {
+            return RegistrationResult.USERNAME_TAKEN;
+        }
+        if (detail.contains(EMAIL_UNIQUE)) {
+            return RegistrationResult.EMAIL_TAKEN;
+        }
+        return null;
     }
 
     @Override
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id, null));
     }
 
     @Override
+    @ReplicaRead
     public List<User> search(String keyword) {
         return userRepository.findByUsername(keyword);
     }
 
     @Override
-    public User findByUsernameAndPassword(String username, String password) {
-        return userRepository.findByUsernameAndPassword(username, password);
+    public User authenticate(String username, String rawPassword) {
+        User user = findByUsername(username);
+        if (user == null) {
+            // Vẫn chạy bcrypt để không phân biệt được "không có username" với "sai mật khẩu" qua thời gian
+            passwordHasher.matchesDummy(rawPassword);
+            return null;
+        }
+        if (!passwordHasher.matches(rawPassword, user.getPassword())) {
+            return null;
+        }
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            // Dữ liệu cũ (plaintext) hoặc cost đã thay đổi: băm lại trong lúc đã có mật khẩu gốc
+            String hash = passwordHasher.encode(rawPassword);
+            userRepository.updatePassword(user.getId(), hash);
+            user.setPassword(hash);
+        }
+        return user;
     }
 
     @Override
@@ -53,4 +163,51 @@ public class UserServiceImpl implements UserService {
         if(list.isEmpty()) return null;
         return list.get(0);
     }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<User> findPage(Long cursor, int size) {
+        long after = cursor == null ? 0L : cursor;
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1));
+        return KeysetPage.of(rows, cursor, size, User::getId);
+    }
+
+    @Override
+    @ReplicaRead
+    public KeysetPage<User> searchPage(String keyword, Long cursor, int size) {
+        if (keyword == null || keyword.isEmpty()) {
+            return findPage(cursor, size);
+        }
+        long after = cursor == null ? 0L : cursor;
+        if (!searchIndex.isReady()) {
+            // Chỉ mục chưa dựng xong: chỉ khớp chính xác username
+            List<User> rows = userRepository.findByUsernameAndIdGreaterThanOrderByIdAsc(
+                    keyword, after, Limit.of(size + 1));
+            return KeysetPage.of(rows, cursor, size, User::getId);
+        }
+        long[] ids = searchIndex.search(keyword, after, size + 1);
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        // findAllById không giữ thứ tự: sắp lại theo id của chỉ mục, bỏ dòng vừa bị xóa
+        Map<Long, User> byId = userRepository.findAllById(idList).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> rows = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            User user = byId.get(id);
+            if (user != null) {
+                rows.add(user);
+            }
+        }
+        return KeysetPage.of(rows, cursor, size, User::getId);
+    }
+
+    @Override
+    public List<UserIndex.Entry> autocomplete(String keyword, int limit) {
+        if (keyword == null || keyword.isBlank() || !searchIndex.isReady()) {
+            return List.of();
+        }
+        return searchIndex.suggest(keyword, limit);
+    }
 }
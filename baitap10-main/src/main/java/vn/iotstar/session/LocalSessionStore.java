@@ -0,0 +1,51 @@
+package vn.iotstar.session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lưu phiên trong heap của tiến trình hiện tại (mất khi khởi động lại).
+ */
+public class LocalSessionStore implements SessionStore {
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String token, SessionPrincipal principal, long expiresAt) {
+        sessions.put(token, new Entry(principal, expiresAt));
+    }
+
+    @Override
+    public Entry get(String token, long now) {
+        Entry entry = sessions.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= now) {
+            sessions.remove(token, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    @Override
+    public boolean touch(String token, long expiresAt) {
+        return sessions.computeIfPresent(token, (k, e) -> new Entry(e.principal(), expiresAt)) != null;
+    }
+
+    @Override
+    public void remove(String token) {
+        sessions.remove(token);
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        int before = sessions.size();
+        sessions.values().removeIf(e -> e.expiresAt() <= now);
+        return before - sessions.size();
+    }
+
+    @Override
+    public int size(long now) {
+        return sessions.size();
+    }
+}
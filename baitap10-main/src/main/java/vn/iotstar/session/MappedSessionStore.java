@@ -0,0 +1,440 @@
+package vn.iotstar.session;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Lưu phiên ngoài heap trong một file ánh xạ bộ nhớ (memory-mapped) gồm các slot cố định.
+ * Phiên còn sau khi khởi động lại và các tiến trình khác trên cùng máy mở cùng file
+ * sẽ thấy chung phiên. Mỗi slot được giành quyền ghi bằng CAS trên trường trạng thái
+ * (nguyên tử cả giữa các tiến trình vì cùng trang bộ nhớ), đọc không khóa kiểu seqlock.
+ *
+ * State, chủ (node id ngẫu nhiên mỗi lần khởi động, không dùng pid vì các container đều là pid 1
+ * và không thấy tiến trình của nhau) và hạn lease nằm chung một long, đổi bằng một CAS. Slot bị bỏ
+ * ở WRITING khi tiến trình chết giữa chừng được thu hồi khi hết lease, lúc mở file hoặc trong
+ * purgeExpired; một lần ghi chỉ kéo dài vài micro giây nên lease LEASE_SECONDS là dư.
+ *
+ * <pre>
+ * slot (128 byte):
+ *   0  long  lock       bit 0-1 state (EMPTY / WRITING / USED / DELETED),
+ *                       ở WRITING: bit 2-31 node id, bit 32-63 hạn lease (giây epoch)
+ *   8  long  seq        tăng mỗi lần ghi, để người đọc phát hiện đọc dở
+ *   16 long  tokenHi
+ *   24 long  tokenLo
+ *   32 long  expiresAt
+ *   40 long  userId
+ *   48 byte  roleLen,     49..63  role (UTF-8)
+ *   64 byte  usernameLen, 65..127 username (UTF-8)
+ * </pre>
+ */
+public class MappedSessionStore implements SessionStore, AutoCloseable {
+    private static final int MAGIC = 0x42543130; // "BT10"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 128;
+    private static final int MAX_PROBE = 64;
+    // Thời gian chờ tối đa một slot đang WRITING (tránh treo nếu tiến trình khác chết giữa chừng)
+    private static final long MAX_WAIT_NANOS = 100_000_000L;
+    private static final long LEASE_SECONDS = 10;
+
+    private static final int EMPTY = 0;
+    private static final int WRITING = 1;
+    private static final int USED = 2;
+    private static final int DELETED = 3;
+
+    private static final int STATE_MASK = 3;
+    private static final long NODE_MASK = 0x3FFFFFFFL;
+    private static final long NODE = newNodeId();
+
+    private static final int OFF_STATE = 0;
+    private static final int OFF_SEQ = 8;
+    private static final int OFF_TOKEN_HI = 16;
+    private static final int OFF_TOKEN_LO = 24;
+    private static final int OFF_EXPIRES = 32;
+    private static final int OFF_USER_ID = 40;
+    private static final int OFF_ROLE = 48;
+    private static final int ROLE_MAX = 15;
+    private static final int OFF_USERNAME = 64;
+    private static final int USERNAME_MAX = 63;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+
+    public MappedSessionStore(Path file, int slots) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + (long) slots * SLOT_SIZE;
+        // Khóa cấp tiến trình chỉ khi khởi tạo file, để hai node không cùng ghi header
+        try (FileLock lock = channel.lock()) {
+            if (channel.size() == 0 || isOlderFormat(channel)) {
+                // File định dạng cũ (trường khóa khác): khởi tạo lại, các phiên cũ phải đăng nhập lại
+                MappedByteBuffer init = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                init.order(ByteOrder.nativeOrder());
+                for (int i = 0; i < size; i += Long.BYTES) {
+                    init.putLong(i, 0L);
+                }
+                init.putInt(4, FORMAT_VERSION);
+                init.putInt(8, slots);
+                init.putInt(12, SLOT_SIZE);
+                init.putInt(0, MAGIC);
+                init.force();
+            }
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.nativeOrder());
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getInt(12) != SLOT_SIZE) {
+            channel.close();
+            throw new IOException("Not a session store file: " + file);
+        }
+        // Dùng số slot đã ghi trong file để mọi tiến trình băm cùng một cách
+        this.slots = header.getInt(8);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) this.slots * SLOT_SIZE);
+        this.buffer.order(ByteOrder.nativeOrder());
+        reclaimAbandoned(System.currentTimeMillis());
+    }
+
+    private static boolean isOlderFormat(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.nativeOrder());
+        return header.getInt(0) == MAGIC && header.getInt(4) < FORMAT_VERSION;
+    }
+
+    @Override
+    public void put(String token, SessionPrincipal principal, long expiresAt) {
+        long[] key = parse(token);
+        if (key == null) {
+            throw new IllegalArgumentException("Malformed session token");
+        }
+        byte[] role = encode(principal.getRole(), ROLE_MAX);
+        byte[] username = encode(principal.getUsername(), USERNAME_MAX);
+        long now = System.currentTimeMillis();
+        int home = home(key);
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            int base = offset((home + probe) % slots);
+            if (!claimForInsert(base, now)) {
+                continue;
+            }
+            LONG.setOpaque(buffer, base + OFF_SEQ, (long) LONG.getOpaque(buffer, base + OFF_SEQ) + 1);
+            VarHandle.releaseFence();
+            LONG.setOpaque(buffer, base + OFF_TOKEN_HI, key[0]);
+            LONG.setOpaque(buffer, base + OFF_TOKEN_LO, key[1]);
+            LONG.setOpaque(buffer, base + OFF_EXPIRES, expiresAt);
+            long userId = principal.getId() == null ? 0L : principal.getId();
+            LONG.setOpaque(buffer, base + OFF_USER_ID, userId);
+            buffer.put(base + OFF_ROLE, (byte) role.length);
+            buffer.put(base + OFF_ROLE + 1, role);
+            buffer.put(base + OFF_USERNAME, (byte) username.length);
+            buffer.put(base + OFF_USERNAME + 1, username);
+            if (release(base, USED)) {
+                return;
+            }
+            // Lease hết trước khi ghi xong và slot đã bị thu hồi: ghi lại ở slot khác
+        }
+        throw new IllegalStateException("Session store is full around slot " + home);
+    }
+
+    @Override
+    public Entry get(String token, long now) {
+        long[] key = parse(token);
+        if (key == null) {
+            return null;
+        }
+        int home = home(key);
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            int base = offset((home + probe) % slots);
+            long started = System.nanoTime();
+            for (int attempt = 0; backoff(attempt, started); attempt++) {
+                int state = state(base);
+                if (state == EMPTY) {
+                    return null;
+                }
+                if (state == WRITING) {
+                    continue;
+                }
+                if (state != USED) {
+                    break;
+                }
+                long seq = (long) LONG.getAcquire(buffer, base + OFF_SEQ);
+                long hi = (long) LONG.getOpaque(buffer, base + OFF_TOKEN_HI);
+                long lo = (long) LONG.getOpaque(buffer, base + OFF_TOKEN_LO);
+                long expiresAt = (long) LONG.getOpaque(buffer, base + OFF_EXPIRES);
+                long userId = (long) LONG.getOpaque(buffer, base + OFF_USER_ID);
+                boolean match = hi == key[0] && lo == key[1];
+                String role = match ? readString(base + OFF_ROLE, ROLE_MAX) : null;
+                String username = match ? readString(base + OFF_USERNAME, USERNAME_MAX) : null;
+                VarHandle.acquireFence();
+                if (state(base) != USED || (long) LONG.getAcquire(buffer, base + OFF_SEQ) != seq) {
+                    // Slot bị ghi trong lúc đọc: đọc lại chính slot này
+                    continue;
+                }
+                if (!match) {
+                    break;
+                }
+                if (expiresAt <= now) {
+                    return null;
+                }
+                return new Entry(new SessionPrincipal(userId, username, role), expiresAt);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean touch(String token, long expiresAt) {
+        long[] key = parse(token);
+        if (key == null) {
+            return false;
+        }
+        int base = lock(key);
+        if (base < 0) {
+            return false;
+        }
+        LONG.setOpaque(buffer, base + OFF_SEQ, (long) LONG.getOpaque(buffer, base + OFF_SEQ) + 1);
+        VarHandle.releaseFence();
+        LONG.setOpaque(buffer, base + OFF_EXPIRES, expiresAt);
+        return release(base, USED);
+    }
+
+    @Override
+    public void remove(String token) {
+        long[] key = parse(token);
+        if (key == null) {
+            return;
+        }
+        int base = lock(key);
+        if (base >= 0) {
+            LONG.setOpaque(buffer, base + OFF_SEQ, (long) LONG.getOpaque(buffer, base + OFF_SEQ) + 1);
+            release(base, DELETED);
+        }
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        int purged = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int base = offset(slot);
+            if (state(base) == USED
+                    && (long) LONG.getOpaque(buffer, base + OFF_EXPIRES) <= now
+                    && claim(base, USED)) {
+                if ((long) LONG.getOpaque(buffer, base + OFF_EXPIRES) <= now) {
+                    LONG.setOpaque(buffer, base + OFF_SEQ, (long) LONG.getOpaque(buffer, base + OFF_SEQ) + 1);
+                    release(base, DELETED);
+                    purged++;
+                } else {
+                    release(base, USED);
+                }
+            }
+        }
+        return purged + reclaimAbandoned(System.currentTimeMillis());
+    }
+
+    /**
+     * Chuyển các slot WRITING đã hết lease sang DELETED, bất kể node nào giữ.
+     */
+    int reclaimAbandoned(long nowMillis) {
+        long nowSeconds = nowMillis / 1000;
+        int reclaimed = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int base = offset(slot);
+            long word = (long) LONG.getAcquire(buffer, base + OFF_STATE);
+            if (stateOf(word) == WRITING && leaseOf(word) < nowSeconds
+                    && LONG.compareAndSet(buffer, base + OFF_STATE, word, (long) DELETED)) {
+                reclaimed++;
+            }
+        }
+        return reclaimed;
+    }
+
+    @Override
+    public int size(long now) {
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int base = offset(slot);
+            if (state(base) == USED && (long) LONG.getOpaque(buffer, base + OFF_EXPIRES) > now) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Giành quyền ghi một slot trống, đã xóa hoặc đã hết hạn.
+     */
+    private boolean claimForInsert(int base, long now) {
+        int state = state(base);
+        if (state == EMPTY || state == DELETED) {
+            return claim(base, state);
+        }
+        if (state == USED && (long) LONG.getOpaque(buffer, base + OFF_EXPIRES) <= now && claim(base, USED)) {
+            // Kiểm tra lại sau khi giành được: phiên có thể vừa được gia hạn
+            if ((long) LONG.getOpaque(buffer, base + OFF_EXPIRES) <= now) {
+                return true;
+            }
+            release(base, USED);
+        }
+        return false;
+    }
+
+    /**
+     * Tìm slot của token và chuyển sang WRITING; trả về offset, hoặc -1 nếu không có.
+     */
+    private int lock(long[] key) {
+        int home = home(key);
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            int base = offset((home + probe) % slots);
+            long started = System.nanoTime();
+            for (int attempt = 0; backoff(attempt, started); attempt++) {
+                int state = state(base);
+                if (state == EMPTY) {
+                    return -1;
+                }
+                if (state == WRITING) {
+                    continue;
+                }
+                if (state != USED
+                        || (long) LONG.getOpaque(buffer, base + OFF_TOKEN_HI) != key[0]
+                        || (long) LONG.getOpaque(buffer, base + OFF_TOKEN_LO) != key[1]) {
+                    break;
+                }
+                if (!claim(base, USED)) {
+                    continue;
+                }
+                if ((long) LONG.getOpaque(buffer, base + OFF_TOKEN_HI) == key[0]
+                        && (long) LONG.getOpaque(buffer, base + OFF_TOKEN_LO) == key[1]) {
+                    return base;
+                }
+                release(base, USED);
+                break;
+            }
+        }
+        return -1;
+    }
+
+    private int state(int base) {
+        return stateOf((long) LONG.getAcquire(buffer, base + OFF_STATE));
+    }
+
+    /** state -> WRITING, ghi node này làm chủ kèm hạn lease trong cùng một CAS. */
+    private boolean claim(int base, int state) {
+        long lease = System.currentTimeMillis() / 1000 + LEASE_SECONDS;
+        return LONG.compareAndSet(buffer, base + OFF_STATE, (long) state, writing(NODE, lease));
+    }
+
+    /**
+     * Kết thúc ghi: đặt trạng thái mới và bỏ chủ. False nếu slot không còn của node này
+     * (lease đã hết và slot bị thu hồi trong lúc ghi).
+     */
+    private boolean release(int base, int state) {
+        long word = (long) LONG.getAcquire(buffer, base + OFF_STATE);
+        return stateOf(word) == WRITING && nodeOf(word) == NODE
+                && LONG.compareAndSet(buffer, base + OFF_STATE, word, (long) state);
+    }
+
+    static long writing(long node, long leaseSeconds) {
+        return leaseSeconds << 32 | (node & NODE_MASK) << 2 | WRITING;
+    }
+
+    private static int stateOf(long word) {
+        return (int) (word & STATE_MASK);
+    }
+
+    private static long nodeOf(long word) {
+        return word >>> 2 & NODE_MASK;
+    }
+
+    private static long leaseOf(long word) {
+        return word >>> 32;
+    }
+
+    private static long newNodeId() {
+        long id;
+        do {
+            id = new SecureRandom().nextLong() & NODE_MASK;
+        } while (id == 0);
+        return id;
+    }
+
+    /**
+     * Chờ giữa các lần thử lại trên cùng một slot: quay vòng ngắn rồi nhường CPU.
+     * Trả về false khi đã chờ quá MAX_WAIT_NANOS.
+     */
+    private static boolean backoff(int attempt, long startedNanos) {
+        if (attempt == 0) {
+            return true;
+        }
+        if (attempt < 64) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return (attempt & 63) != 0 || System.nanoTime() - startedNanos < MAX_WAIT_NANOS;
+    }
+
+    private String readString(int offset, int max) {
+        int length = Math.min(buffer.get(offset) & 0xFF, max);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * UTF-8 của {@code value}; không cắt bớt mà báo lỗi nếu dài hơn {@code max} byte.
+     */
+    private static byte[] encode(String value, int max) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= max) {
+            return bytes;
+        }
+        throw new IllegalArgumentException("Value too long for session slot: " + value);
+    }
+
+    private int home(long[] key) {
+        long h = (key[0] ^ key[1]) * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 1) % slots);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Token là 32 ký tự hex (128 bit), tách thành hai long.
+     */
+    static long[] parse(String token) {
+        if (token == null || token.length() != 32) {
+            return null;
+        }
+        try {
+            return new long[] { HexFormat.fromHexDigitsToLong(token, 0, 16),
+                    HexFormat.fromHexDigitsToLong(token, 16, 32) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
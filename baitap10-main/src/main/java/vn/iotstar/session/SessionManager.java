@@ -0,0 +1,114 @@
+package vn.iotstar.session;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Quản lý phiên đăng nhập bằng cookie token + SessionStore, thay cho HttpSession.
+ * Phiên được gia hạn kiểu trượt khi đã dùng quá nửa thời gian sống.
+ */
+@Component
+public class SessionManager {
+    public static final String COOKIE_NAME = "BT10_SESSION";
+    public static final String PRINCIPAL_ATTRIBUTE = "principal";
+
+    private final SessionStore store;
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMillis;
+
+    public SessionManager(SessionStore store, @Value("${app.session.ttl-minutes:30}") long ttlMinutes) {
+        this.store = store;
+        this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+    }
+
+    public String createSession(SessionPrincipal principal) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        store.put(token, principal, System.currentTimeMillis() + ttlMillis);
+        return token;
+    }
+
+    public void login(SessionPrincipal principal, HttpServletRequest request, HttpServletResponse response) {
+        String token = createSession(principal);
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        writeCookie(response, token, Duration.ofMillis(ttlMillis));
+    }
+
+    /**
+     * Người dùng của request hiện tại, hoặc null nếu chưa đăng nhập. Kết quả được nhớ
+     * trong request attribute nên mỗi request chỉ tra store một lần.
+     */
+    public SessionPrincipal resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        if (cached instanceof SessionPrincipal principal) {
+            return principal;
+        }
+        String token = readToken(request);
+        if (token == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        SessionStore.Entry entry = store.get(token, now);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - now < ttlMillis / 2) {
+            store.touch(token, now + ttlMillis);
+        }
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, entry.principal());
+        return entry.principal();
+    }
+
+    public void logout(HttpServletRequest request, HttpServletResponse response) {
+        String token = readToken(request);
+        if (token != null) {
+            store.remove(token);
+        }
+        request.removeAttribute(PRINCIPAL_ATTRIBUTE);
+        writeCookie(response, "", Duration.ZERO);
+    }
+
+    public int activeSessions() {
+        return store.size(System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${app.session.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        store.purgeExpired(System.currentTimeMillis());
+    }
+
+    private static String readToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void writeCookie(HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .path("/")
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
@@ -0,0 +1,24 @@
+package vn.iotstar.session;
+
+import java.io.Serializable;
+
+import lombok.Value;
+import vn.iotstar.entity.User;
+
+/**
+ * Thông tin tối thiểu về người đăng nhập được giữ trong phiên (không chứa mật khẩu).
+ */
+@Value
+public class SessionPrincipal implements Serializable {
+    Long id;
+    String username;
+    String role;
+
+    public static SessionPrincipal of(User user) {
+        return new SessionPrincipal(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    public boolean hasRole(String expected) {
+        return expected.equalsIgnoreCase(role);
+    }
+}
@@ -0,0 +1,28 @@
+package vn.iotstar.session;
+
+/**
+ * Nơi lưu phiên đăng nhập theo token. Cài đặt được chọn bằng app.session.store.
+ */
+public interface SessionStore {
+
+    record Entry(SessionPrincipal principal, long expiresAt) {
+    }
+
+    void put(String token, SessionPrincipal principal, long expiresAt);
+
+    /**
+     * Phiên còn hạn tại thời điểm {@code now}, hoặc null.
+     */
+    Entry get(String token, long now);
+
+    /**
+     * Gia hạn phiên; false nếu phiên không còn.
+     */
+    boolean touch(String token, long expiresAt);
+
+    void remove(String token);
+
+    int purgeExpired(long now);
+
+    int size(long now);
+}
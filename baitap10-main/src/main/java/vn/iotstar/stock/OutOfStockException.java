@@ -0,0 +1,11 @@
+package vn.iotstar.stock;
+
+/**
+ * Không đủ hàng để giữ chỗ theo số lượng yêu cầu.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(Long productId, long requested) {
+        super("Not enough stock for product " + productId + " (requested " + requested + ")");
+    }
+}
@@ -0,0 +1,21 @@
+package vn.iotstar.stock;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Value;
+
+/**
+ * Một lần giữ hàng: số lượng đã được trừ khỏi kho cho tới khi commit (bán) hoặc release (trả lại).
+ * Chỉ người đã giữ ({@code userId}) mới commit/release được.
+ */
+@Value
+public class Reservation {
+    String id;
+    Long productId;
+    @JsonIgnore
+    Long userId;
+    long quantity;
+    Instant expiresAt;
+}
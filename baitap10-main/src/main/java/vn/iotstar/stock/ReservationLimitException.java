@@ -0,0 +1,11 @@
+package vn.iotstar.stock;
+
+/**
+ * Vượt giới hạn giữ chỗ: quá số lượng cho một lần giữ, hoặc người dùng đang giữ quá nhiều hàng.
+ */
+public class ReservationLimitException extends RuntimeException {
+
+    public ReservationLimitException(String message) {
+        super(message);
+    }
+}
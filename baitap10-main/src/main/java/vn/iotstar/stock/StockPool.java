@@ -0,0 +1,63 @@
+package vn.iotstar.stock;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hàng đã thuê từ DB cho một sản phẩm, chưa được giữ chỗ. Đường nhanh chỉ là CAS trên
+ * bộ đếm phân ô; khóa chỉ dùng khi phải gom ô hoặc thuê thêm từ DB.
+ */
+public final class StockPool {
+    private final StripedCounter counter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder demand = new LongAdder();
+    private volatile boolean hot;
+    // Đã bị gỡ khỏi map; chỉ đổi dưới lock() khi pool rỗng
+    private volatile boolean retired;
+
+    public StockPool(int stripes) {
+        this.counter = new StripedCounter(stripes);
+    }
+
+    public boolean tryTake(long quantity) {
+        return counter.tryTake(StripedCounter.hint(), quantity);
+    }
+
+    public void give(long quantity) {
+        counter.add(StripedCounter.hint(), quantity);
+    }
+
+    public long drain() {
+        return counter.drain();
+    }
+
+    public long sum() {
+        return counter.sum();
+    }
+
+    public ReentrantLock lock() {
+        return lock;
+    }
+
+    public void recordDemand() {
+        demand.increment();
+    }
+
+    public boolean isHot() {
+        return hot;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void retire() {
+        retired = true;
+    }
+
+    /** Cập nhật trạng thái theo số lần giữ chỗ từ chu kỳ trước; trả về trạng thái mới. */
+    public boolean updateHotness(long threshold) {
+        hot = demand.sumThenReset() >= threshold;
+        return hot;
+    }
+}
@@ -0,0 +1,66 @@
+package vn.iotstar.stock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bộ đếm không âm chia thành nhiều ô (mỗi ô cách nhau 128 byte để tránh false sharing).
+ * Mỗi luồng ưu tiên ô của mình; lấy ra chỉ thành công khi một ô đủ số lượng,
+ * nên tổng không bao giờ âm.
+ */
+final class StripedCounter {
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedCounter(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+    }
+
+    static int hint() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id * 0x9E3779B97F4A7C15L >>> 40);
+    }
+
+    boolean tryTake(int hint, long amount) {
+        for (int i = 0; i <= mask; i++) {
+            int index = ((hint + i) & mask) * PADDING;
+            long value;
+            while ((value = cells.get(index)) >= amount) {
+                if (cells.compareAndSet(index, value, value - amount)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    void add(int hint, long amount) {
+        if (amount != 0) {
+            cells.getAndAdd((hint & mask) * PADDING, amount);
+        }
+    }
+
+    /** Lấy hết về 0 và trả về tổng đã lấy. */
+    long drain() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    long sum() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    int stripes() {
+        return mask + 1;
+    }
+}
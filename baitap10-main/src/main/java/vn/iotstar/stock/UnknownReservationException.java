@@ -0,0 +1,11 @@
+package vn.iotstar.stock;
+
+/**
+ * Mã giữ chỗ không tồn tại, đã được xác nhận/hủy, hoặc đã hết hạn.
+ */
+public class UnknownReservationException extends RuntimeException {
+
+    public UnknownReservationException(String reservationId) {
+        super("Unknown or expired reservation " + reservationId);
+    }
+}
@@ -0,0 +1,80 @@
+package vn.iotstar.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Đọc từng dòng như {@link java.io.BufferedReader#readLine()} nhưng mỗi dòng tối đa
+ * {@code maxLineChars} ký tự: dòng dài hơn bị bỏ tới ký tự xuống dòng kế tiếp thay vì nạp
+ * cả vào bộ nhớ.
+ */
+public class BoundedLineReader implements Closeable {
+    private final Reader reader;
+    private final int maxLineChars;
+    private final StringBuilder line = new StringBuilder();
+    private long lineNumber;
+    private int pending = -2; // ký tự đã đọc trước, -2 = chưa có
+
+    public BoundedLineReader(Reader reader, int maxLineChars) {
+        this.reader = reader;
+        this.maxLineChars = maxLineChars;
+    }
+
+    /**
+     * Số thứ tự (tính từ 1) của dòng vừa đọc.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Dòng kế tiếp không gồm ký tự xuống dòng, hoặc null khi hết dữ liệu.
+     *
+     * @throws RecordFormatException dòng dài hơn giới hạn; lần gọi sau đọc tiếp từ dòng kế tiếp
+     */
+    public String readLine() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber++;
+        line.setLength(0);
+        while (c != -1 && c != '\r' && c != '\n') {
+            if (line.length() == maxLineChars) {
+                while (c != -1 && c != '\r' && c != '\n') {
+                    c = read();
+                }
+                consumeNewline(c);
+                throw new RecordFormatException("Line longer than " + maxLineChars + " characters", lineNumber);
+            }
+            line.append((char) c);
+            c = read();
+        }
+        consumeNewline(c);
+        return line.toString();
+    }
+
+    private void consumeNewline(int c) throws IOException {
+        if (c == '\r') {
+            int n = read();
+            if (n != '\n') {
+                pending = n;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
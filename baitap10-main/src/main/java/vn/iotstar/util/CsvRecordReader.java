@@ -0,0 +1,154 @@
+package vn.iotstar.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc CSV (RFC 4180) từng bản ghi một từ luồng, không nạp cả file vào bộ nhớ.
+ * Hỗ trợ trường trong dấu ngoặc kép, "" để thoát ngoặc kép và xuống dòng trong trường.
+ * Mỗi bản ghi giới hạn {@code maxRecordChars} ký tự, nên một dấu ngoặc kép không đóng
+ * không kéo cả phần còn lại của luồng vào bộ nhớ.
+ */
+public class CsvRecordReader implements Closeable {
+    private final Reader reader;
+    private final int maxRecordChars;
+    private final StringBuilder field = new StringBuilder();
+    private int lineNumber = 1;
+    private int recordLine;
+    private int pending = -2; // ký tự đã đọc trước, -2 = chưa có
+
+    public CsvRecordReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * Dòng bắt đầu của bản ghi vừa đọc (tính từ 1).
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Bản ghi kế tiếp, hoặc null khi hết dữ liệu. Dòng trống bị bỏ qua.
+     *
+     * @throws RecordFormatException bản ghi quá dài hoặc ngoặc kép không đóng; lần gọi sau đọc tiếp
+     *         từ dòng vật lý kế tiếp
+     */
+    public List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                consumeNewline(c);
+                continue;
+            }
+            pending = c;
+            return readRecord();
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        recordLine = lineNumber;
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStart = true;
+        int length = 0;
+        while (true) {
+            int c = read();
+            // Ký tự xuống dòng kết thúc bản ghi không tính vào độ dài
+            boolean end = c == -1 || !quoted && (c == '\r' || c == '\n');
+            if (!end) {
+                checkLength(++length, c);
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new RecordFormatException("Unterminated quoted field", recordLine);
+                }
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        checkLength(++length, n);
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        pending = n;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == -1 || c == '\r' || c == '\n') {
+                values.add(field.toString());
+                if (c != -1) {
+                    consumeNewline(c);
+                }
+                return values;
+            }
+            if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                continue;
+            }
+            if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+                continue;
+            }
+            fieldStart = false;
+            field.append((char) c);
+        }
+    }
+
+    private void checkLength(int length, int c) throws IOException {
+        if (length > maxRecordChars) {
+            // Bỏ tới hết dòng vật lý hiện tại rồi đọc tiếp như một bản ghi mới
+            skipLine(c);
+            throw new RecordFormatException("Record longer than " + maxRecordChars + " characters", recordLine);
+        }
+    }
+
+    private void skipLine(int c) throws IOException {
+        while (c != -1 && c != '\r' && c != '\n') {
+            c = read();
+        }
+        if (c != -1) {
+            consumeNewline(c);
+        }
+    }
+
+    private void consumeNewline(int c) throws IOException {
+        lineNumber++;
+        if (c == '\r') {
+            int n = read();
+            if (n != '\n') {
+                pending = n;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,19 @@
+package vn.iotstar.util;
+
+import java.io.IOException;
+
+import lombok.Getter;
+
+/**
+ * Một bản ghi hỏng khi nhập (quá dài, ngoặc kép không đóng). Chỉ bản ghi đó bị bỏ,
+ * {@link CsvRecordReader#next()} và {@link BoundedLineReader#readLine()} đọc tiếp được từ dòng sau.
+ */
+@Getter
+public class RecordFormatException extends IOException {
+    private final long line;
+
+    public RecordFormatException(String message, long line) {
+        super(message);
+        this.line = line;
+    }
+}
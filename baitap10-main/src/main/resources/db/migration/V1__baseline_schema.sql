@@ -0,0 +1,33 @@
+-- Schema ban đầu, trùng với những gì Hibernate ddl-auto=update đã tạo trên MySQL.
+-- DB đã có sẵn bảng được đánh dấu baseline ở phiên bản này (spring.flyway.baseline-on-migrate),
+-- nên tên ràng buộc giữ nguyên như Hibernate sinh ra để DB cũ và DB mới giống nhau.
+
+CREATE TABLE categories (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    category_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK41g4n0emuvcm3qyf1f6cn43c0 UNIQUE (category_name)
+) ENGINE=InnoDB;
+
+CREATE TABLE products (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    description TEXT,
+    price FLOAT(53) NOT NULL,
+    quantity INTEGER NOT NULL,
+    image VARCHAR(255),
+    category_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT FKog2rp4qthbtt2lfyhfo32lsw9 FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(20) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+) ENGINE=InnoDB;
@@ -0,0 +1,9 @@
+-- Chỉ mục cho các đường truy cập nóng (kiểm tra bằng QueryPlanTests).
+-- Các truy vấn khác đã đi theo khóa chính hoặc ràng buộc unique:
+--   keyset theo id của products/categories/users (PRIMARY KEY),
+--   users.username và users.email (đăng nhập, kiểm tra trùng), categories.category_name.
+-- Tìm theo chuỗi con (LIKE '%x%') không dùng được B-tree; đã có chỉ mục trigram trong bộ nhớ.
+
+-- Trang sản phẩm theo danh mục: WHERE category_id = ? AND id > ? ORDER BY id LIMIT n
+-- đọc liên tiếp trên chỉ mục, không sắp xếp. MySQL dùng luôn chỉ mục này cho khóa ngoại.
+CREATE INDEX idx_products_category_id ON products (category_id, id);
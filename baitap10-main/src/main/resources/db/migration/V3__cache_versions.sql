@@ -0,0 +1,8 @@
+-- Số phiên bản cho cache danh mục (CategoryCache): mỗi lần ghi tăng phiên bản để node khác nạp lại.
+-- IF NOT EXISTS: DB chạy ddl-auto=update trước khi có Flyway có thể đã có sẵn bảng này.
+
+CREATE TABLE IF NOT EXISTS cache_versions (
+    name VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
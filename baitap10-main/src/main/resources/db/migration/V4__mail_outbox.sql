@@ -0,0 +1,17 @@
+-- Outbox email xác nhận đăng ký, ghi cùng transaction với user và được MailDispatcher gửi sau.
+-- IF NOT EXISTS: DB chạy ddl-auto=update trước khi có Flyway có thể đã có sẵn bảng (kèm chỉ mục).
+
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status ENUM('FAILED', 'PENDING', 'SENT') NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6),
+    last_error VARCHAR(500),
+    PRIMARY KEY (id),
+    INDEX idx_mail_outbox_due (status, next_attempt_at)
+) ENGINE=InnoDB;
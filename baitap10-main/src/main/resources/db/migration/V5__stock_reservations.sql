@@ -0,0 +1,12 @@
+-- Giữ chỗ tồn kho (StockServiceImpl): số lượng đã trừ khỏi products.quantity, còn lại sau khi
+-- khởi động lại và được trả kho khi hết hạn. Chỉ mục theo hạn cho lần quét hết hạn mỗi chu kỳ flush.
+
+CREATE TABLE stock_reservations (
+    id VARCHAR(36) NOT NULL,
+    product_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_stock_reservations_expires (expires_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,175 @@
+package vn.iotstar;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh thời gian khởi động giữa jar mặc định và bản build production (profile prod,
+ * AOT, CDS): thời gian từ lúc tạo tiến trình tới response 200 đầu tiên của /login, và RSS
+ * sau khi ứng dụng đứng yên. Mỗi lượt chạy là một JVM mới trên cùng một DB H2 dạng file;
+ * các phương án chạy xen kẽ để nhiễu của máy chia đều.
+ *
+ * <pre>
+ * mvn -Pprod -DskipTests package
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=vn.iotstar.StartupBenchmark [-Dexec.args="runs idleSeconds"]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private record Variant(String name, Path jar, List<String> jvmArgs, List<String> appArgs) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int idleSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Path target = Path.of("target");
+        Path app = target.resolve("app");
+        Path jar = target.resolve("baitap10-1.0.jar");
+        Path extracted = app.resolve("baitap10-1.0.jar");
+        Path archive = app.resolve("application.jsa");
+        for (Path required : List.of(jar, extracted, archive)) {
+            if (!Files.exists(required)) {
+                throw new IllegalStateException("Thiếu " + required + ": chạy mvn -Pprod -DskipTests package trước");
+            }
+        }
+        List<String> prod = List.of("--spring.profiles.active=prod");
+        List<Variant> variants = List.of(
+                new Variant("default", jar, List.of(), List.of()),
+                new Variant("prod", extracted, List.of(), prod),
+                new Variant("prod+aot", extracted, List.of("-Dspring.aot.enabled=true"), prod),
+                new Variant("prod+aot+cds", extracted,
+                        List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive), prod));
+
+        Path work = Files.createTempDirectory("baitap10-startup");
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        System.out.printf("runs=%d idle=%ds java=%s work=%s%n", runs, idleSeconds,
+                System.getProperty("java.version"), work);
+
+        // Lượt khởi động không tính: Flyway tạo schema trên DB mới, các lượt đo sau đều chạy trên DB đã migrate
+        measure(variants.get(0), work, http, 0);
+
+        Map<String, List<long[]>> results = new LinkedHashMap<>();
+        for (int r = 0; r < runs; r++) {
+            for (Variant variant : variants) {
+                results.computeIfAbsent(variant.name(), k -> new ArrayList<>())
+                        .add(measure(variant, work, http, idleSeconds));
+            }
+        }
+
+        System.out.printf("%-14s %12s %12s %12s %12s%n", "variant", "login p50", "login min", "login max", "RSS p50");
+        for (Map.Entry<String, List<long[]>> entry : results.entrySet()) {
+            long[] millis = entry.getValue().stream().mapToLong(m -> m[0]).sorted().toArray();
+            long[] rss = entry.getValue().stream().mapToLong(m -> m[1]).sorted().toArray();
+            System.out.printf("%-14s %9d ms %9d ms %9d ms %9d MB%n", entry.getKey(), median(millis),
+                    millis[0], millis[millis.length - 1], median(rss) / 1024);
+        }
+    }
+
+    /**
+     * Khởi động một JVM, trả về {thời gian tới /login 200 (ms), RSS sau idleSeconds (KB)}.
+     */
+    private static long[] measure(Variant variant, Path work, HttpClient http, int idleSeconds) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(variant.jvmArgs());
+        command.add("-jar");
+        command.add(variant.jar().toString());
+        command.addAll(variant.appArgs());
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:file:" + work.resolve("db").toAbsolutePath()
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--upload.path=" + work.resolve("uploads").toAbsolutePath(),
+                "--app.audit.dir=" + work.resolve("audit").toAbsolutePath(),
+                "--logging.level.root=WARN"));
+        Path log = work.resolve(variant.name() + ".log");
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        // Tính từ trước khi tạo tiến trình nên gồm cả thời gian khởi động JVM
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            waitForLogin(process, http, login, log);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            if (idleSeconds == 0) {
+                return new long[] { elapsed, 0L };
+            }
+            Thread.sleep(idleSeconds * 1000L);
+            return new long[] { elapsed, rssKilobytes(process.pid()) };
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void waitForLogin(Process process, HttpClient http, HttpRequest login, Path log)
+            throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Ứng dụng dừng trước khi sẵn sàng, xem " + log);
+            }
+            try {
+                if (http.send(login, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // cổng chưa mở
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("/login chưa trả 200 sau 2 phút, xem " + log);
+    }
+
+    /** RSS của tiến trình (KB): đọc /proc trên Linux, các hệ khác dùng ps. */
+    private static long rssKilobytes(long pid) throws IOException, InterruptedException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (Files.exists(status)) {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D+", ""));
+                }
+            }
+        }
+        Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", Long.toString(pid)).start();
+        String out = new String(ps.getInputStream().readAllBytes()).trim();
+        ps.waitFor();
+        return out.isEmpty() ? 0L : Long.parseLong(out);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,98 @@
+package vn.iotstar.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@SpringBootTest(properties = {
+        "app.admission.paths[/login].methods=POST",
+        "app.admission.paths[/login].client-rate=0.001",
+        "app.admission.paths[/login].client-burst=2",
+        "app.admission.paths[/admin/*/search].max-concurrent=1"
+})
+@AutoConfigureMockMvc
+class AdmissionControlTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionInterceptor admission;
+
+    @Test
+    void tokenBucketRefillsAtConfiguredRate() {
+        long t0 = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(10, 2, t0);
+        assertEquals(0L, bucket.tryAcquire(t0));
+        assertEquals(0L, bucket.tryAcquire(t0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(t0));
+        assertFalse(bucket.isFull(t0));
+        assertEquals(0L, bucket.tryAcquire(t0 + TimeUnit.MILLISECONDS.toNanos(100)));
+        assertTrue(bucket.isFull(t0 + TimeUnit.MILLISECONDS.toNanos(300)));
+    }
+
+    @Test
+    void loginBurstFromOneClientIsShedWithRetryAfter() throws Exception {
+        long shed = admission.getShedRate();
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/login").with(from("10.0.0.1")).param("username", "nobody").param("password", "x"))
+                    .andExpect(status().isOk());
+        }
+        String retryAfter = mockMvc.perform(post("/login").with(from("10.0.0.1"))
+                        .param("username", "nobody").param("password", "x"))
+                .andExpect(status().isTooManyRequests())
+                .andReturn().getResponse().getHeader(HttpHeaders.RETRY_AFTER);
+        assertTrue(Long.parseLong(retryAfter) >= 1, retryAfter);
+        assertEquals(shed + 1, admission.getShedRate());
+
+        // Client khác và GET /login (không có giới hạn) vẫn được phục vụ
+        mockMvc.perform(post("/login").with(from("10.0.0.2")).param("username", "nobody").param("password", "x"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/login").with(from("10.0.0.1"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void concurrencyLimitReleasesPermitAfterCompletion() throws Exception {
+        MockHttpServletRequest first = search();
+        assertTrue(admission.preHandle(first, new MockHttpServletResponse(), null));
+        assertEquals(1, admission.getInFlight());
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(admission.preHandle(search(), rejected, null));
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+
+        admission.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertEquals(0, admission.getInFlight());
+        MockHttpServletRequest next = search();
+        assertTrue(admission.preHandle(next, new MockHttpServletResponse(), null));
+        admission.afterCompletion(next, new MockHttpServletResponse(), null, null);
+    }
+
+    private static MockHttpServletRequest search() {
+        return new MockHttpServletRequest("GET", "/admin/products/search");
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
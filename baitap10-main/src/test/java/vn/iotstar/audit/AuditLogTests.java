@@ -0,0 +1,158 @@
+package vn.iotstar.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuditLogTests {
+    private static final long T0 = 1_700_000_000_000L;
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ringBufferRejectsWhenFullWithoutBlocking() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void journalRollsSegmentsAndAnswersTimeRangesAfterReopen() throws IOException {
+        try (AuditJournal journal = new AuditJournal(dir, SEGMENT_BYTES, 512)) {
+            for (int i = 0; i < 3000; i++) {
+                journal.append(entry(T0 + i * 10L, i, "product " + i));
+            }
+            assertTrue(journal.getSegmentCount() > 1, "chưa roll segment");
+            assertRange(journal);
+        }
+        try (AuditJournal journal = new AuditJournal(dir, SEGMENT_BYTES, 512)) {
+            assertRange(journal);
+            // Timestamp lùi được nâng lên bằng bản ghi trước, thứ tự thời gian không bị phá
+            journal.append(entry(T0, 3000, "late"));
+            List<AuditEntry> latest = journal.query(T0 + 29_990, Long.MAX_VALUE, 10);
+            assertEquals(List.of(3000L, 2999L), latest.stream().map(AuditEntry::entityId).toList());
+        }
+    }
+
+    @Test
+    void tornTailIsDroppedAndWritingContinuesInNewSegment() throws IOException {
+        try (AuditJournal journal = new AuditJournal(dir, SEGMENT_BYTES, 512)) {
+            journal.append(entry(T0, 1, "first"));
+            journal.append(entry(T0 + 1, 2, "TORN-RECORD"));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(p -> p.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int torn = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("TORN-RECORD");
+        bytes[torn] ^= 0x20;
+        Files.write(segment, bytes);
+
+        try (AuditJournal journal = new AuditJournal(dir, SEGMENT_BYTES, 512)) {
+            assertEquals(List.of(1L), ids(journal.query(T0, T0 + 10, 10)));
+            journal.append(entry(T0 + 2, 3, "after crash"));
+            assertEquals(2, journal.getSegmentCount());
+            assertEquals(List.of(3L, 1L), ids(journal.query(T0, T0 + 10, 10)));
+        }
+    }
+
+    @Test
+    void adminChangesAreRecordedWithActorAndShownOnAuditPage() throws Exception {
+        Cookie admin = new Cookie(SessionManager.COOKIE_NAME,
+                sessionManager.createSession(new SessionPrincipal(1L, "auditor", "admin")));
+        String name = "Audit category " + System.nanoTime();
+        long from = System.currentTimeMillis();
+        mockMvc.perform(post("/admin/categories/saveOrUpdate").cookie(admin).param("categoryName", name))
+                .andExpect(status().is3xxRedirection());
+
+        AuditEntry recorded = awaitEntry(from, name);
+        assertEquals("auditor", recorded.actor());
+        assertEquals(AuditAction.CREATE, recorded.action());
+        assertEquals("category", recorded.entity());
+
+        mockMvc.perform(get("/admin/categories/delete/" + recorded.entityId()).cookie(admin))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/admin/audit").cookie(admin))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString(name)))
+                .andExpect(content().string(Matchers.containsString("DELETE")));
+    }
+
+    private AuditEntry awaitEntry(long from, String detail) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            for (AuditEntry entry : auditLog.query(from, Long.MAX_VALUE, 100)) {
+                if (detail.equals(entry.detail())) {
+                    return entry;
+                }
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Không thấy bản ghi audit " + detail);
+    }
+
+    private static void assertRange(AuditJournal journal) throws IOException {
+        List<AuditEntry> range = journal.query(T0 + 12_000, T0 + 12_990, 1000);
+        assertEquals(100, range.size());
+        assertEquals(1299L, range.get(0).entityId());
+        assertEquals(1200L, range.get(99).entityId());
+        assertEquals("product 1250", range.get(49).detail());
+        assertEquals(List.of(1299L, 1298L, 1297L), ids(journal.query(T0 + 12_000, T0 + 12_990, 3)));
+        assertEquals(List.of(), journal.query(T0 - 1000, T0 - 1, 10));
+    }
+
+    private static List<Long> ids(List<AuditEntry> entries) {
+        return entries.stream().map(AuditEntry::entityId).toList();
+    }
+
+    private static AuditEntry entry(long timestamp, long id, String detail) {
+        return new AuditEntry(timestamp, "admin", AuditAction.UPDATE, "product", id, detail);
+    }
+}
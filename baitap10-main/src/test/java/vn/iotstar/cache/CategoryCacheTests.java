@@ -0,0 +1,58 @@
+package vn.iotstar.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import vn.iotstar.entity.Category;
+import vn.iotstar.service.CategoryService;
+
+/**
+ * version-check-ms đặt lớn để snapshot chỉ nạp lại khi chính test ghi danh mục.
+ */
+@SpringBootTest(properties = "app.cache.category.version-check-ms=3600000")
+class CategoryCacheTests {
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void eachLookupCountsOnce() {
+        Category saved = categoryService.save(new Category(null, "Counted " + System.nanoTime()));
+
+        long hits = categoryCache.getHits();
+        long misses = categoryCache.getMisses();
+        categoryCache.get(saved.getId()); // snapshot vừa bị bỏ: nạp lại
+        assertEquals(hits, categoryCache.getHits());
+        assertEquals(misses + 1, categoryCache.getMisses());
+
+        categoryCache.get(saved.getId());
+        categoryCache.getAll();
+        assertEquals(hits + 2, categoryCache.getHits());
+        assertEquals(misses + 1, categoryCache.getMisses());
+
+        categoryCache.get(Long.MAX_VALUE); // không có trong snapshot: một miss, không kèm hit
+        assertEquals(hits + 2, categoryCache.getHits());
+        assertEquals(misses + 2, categoryCache.getMisses());
+    }
+
+    @Test
+    void callersCannotMutateTheSnapshot() {
+        Category saved = categoryService.save(new Category(null, "Shared " + System.nanoTime()));
+        String name = saved.getCategoryName();
+
+        categoryCache.get(saved.getId()).orElseThrow().setCategoryName("changed");
+        categoryCache.getAll().stream()
+                .filter(c -> c.getId().equals(saved.getId()))
+                .forEach(c -> c.setCategoryName("changed too"));
+
+        assertEquals(name, categoryCache.get(saved.getId()).orElseThrow().getCategoryName());
+        assertTrue(categoryCache.getAll().stream().anyMatch(c -> name.equals(c.getCategoryName())));
+    }
+}
@@ -0,0 +1,136 @@
+package vn.iotstar.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.entity.Product;
+import vn.iotstar.service.ProductService;
+import vn.iotstar.service.StockService;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PageCacheFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    private Cookie user;
+
+    @BeforeEach
+    void login() {
+        user = new Cookie(SessionManager.COOKIE_NAME,
+                sessionManager.createSession(new SessionPrincipal(2L, "shopper", "user")));
+        pageCache.invalidate();
+    }
+
+    @Test
+    void secondRequestIsServedFromCacheAndRevalidates() throws Exception {
+        MvcResult first = mockMvc.perform(get("/user/products").cookie(user)).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        long hits = pageCache.getHits();
+
+        MvcResult second = mockMvc.perform(get("/user/products").cookie(user)).andExpect(status().isOk()).andReturn();
+        assertEquals(etag, second.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(first.getResponse().getContentAsString(), second.getResponse().getContentAsString());
+        assertEquals(hits + 1, pageCache.getHits());
+
+        mockMvc.perform(get("/user/products").cookie(user).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/user/products").cookie(user)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void productWriteInvalidatesCachedPages() throws Exception {
+        String etag = mockMvc.perform(get("/user/products").cookie(user))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Product product = new Product();
+        product.setTitle("Page cache invalidation");
+        product.setPrice(1.0);
+        product.setQuantity(1);
+        productService.save(product);
+
+        mockMvc.perform(get("/user/products").cookie(user).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        String fresh = mockMvc.perform(get("/user/products").cookie(user))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, fresh);
+    }
+
+    @Test
+    void cachedPageHoldsNoStockCountsAndReservationsDoNotInvalidate() throws Exception {
+        Product product = new Product();
+        product.setTitle("Page cache stock");
+        product.setPrice(1.0);
+        product.setQuantity(5);
+        productService.save(product);
+        String body = mockMvc.perform(get("/user/products").cookie(user))
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(body.matches("(?s).*\\d+ in stock.*"), "stock count rendered into cached page");
+        long invalidations = pageCache.getInvalidations();
+
+        stockService.reserve(product.getId(), 2, 2L);
+        assertEquals(invalidations, pageCache.getInvalidations());
+        mockMvc.perform(get("/user/stock/available?ids=" + product.getId()).cookie(user))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + product.getId() + "']").value(3));
+    }
+
+    @Test
+    void anonymousRequestsAreNotServedFromCache() throws Exception {
+        mockMvc.perform(get("/user/products").cookie(user)).andExpect(status().isOk());
+        mockMvc.perform(get("/user/products")).andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    void keyIgnoresParameterOrder() throws Exception {
+        mockMvc.perform(get("/user/products?category=1&cursor=0").cookie(user)).andExpect(status().isOk());
+        long hits = pageCache.getHits();
+        mockMvc.perform(get("/user/products?cursor=0&category=1").cookie(user)).andExpect(status().isOk());
+        assertEquals(hits + 1, pageCache.getHits());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws Exception {
+        // Trang render từ replica trễ không được nằm trong cache mãi cho tới lần ghi sau
+        PageCache cache = new PageCache(10, 50);
+        cache.put("/user/products", new PageCache.Entry(new byte[0], "text/html", "\"1\"", 0L, cache.generation()));
+        assertNotNull(cache.get("/user/products"));
+        Thread.sleep(100);
+        assertNull(cache.get("/user/products"));
+        assertEquals(0, cache.size());
+    }
+}
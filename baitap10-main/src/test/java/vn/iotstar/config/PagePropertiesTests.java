@@ -0,0 +1,34 @@
+package vn.iotstar.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+class PagePropertiesTests {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+            .withUserConfiguration(Config.class);
+
+    @Test
+    void zeroPageSizeFailsAtStartup() {
+        runner.withPropertyValues("app.page.size=0")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void defaultsToTwentyRows() {
+        runner.run(context -> assertEquals(20, context.getBean(PageProperties.class).getSize()));
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(PageProperties.class)
+    static class Config {
+    }
+}
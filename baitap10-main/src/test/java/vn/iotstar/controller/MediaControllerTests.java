@@ -0,0 +1,162 @@
+package vn.iotstar.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.entity.Product;
+import vn.iotstar.image.ImageStore;
+import vn.iotstar.image.ThumbnailGenerator;
+import vn.iotstar.service.ProductService;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MediaControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ThumbnailGenerator thumbnailGenerator;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    private byte[] png;
+    private String key;
+
+    @BeforeEach
+    void storeImage() throws IOException {
+        BufferedImage image = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, 600, 800);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        png = out.toByteArray();
+        key = imageStore.store(new ByteArrayInputStream(png));
+    }
+
+    @Test
+    void identicalUploadsShareOneFile() throws IOException {
+        assertEquals(key, imageStore.store(new ByteArrayInputStream(png)));
+        assertEquals(png.length, Files.size(imageStore.original(key)));
+    }
+
+    @Test
+    void servesOriginalWithStrongEtagAndImmutableCaching() throws Exception {
+        String etag = "\"" + ImageStore.hash(key) + "\"";
+        MvcResult result = mockMvc.perform(get("/media/" + key))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andReturn();
+        assertEquals(png.length, result.getResponse().getContentAsByteArray().length);
+
+        mockMvc.perform(get("/media/" + key).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void honoursSingleByteRange() throws Exception {
+        MvcResult result = mockMvc.perform(get("/media/" + key).header(HttpHeaders.RANGE, "bytes=8-23"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-23/" + png.length))
+                .andReturn();
+        assertEquals(Arrays.toString(Arrays.copyOfRange(png, 8, 24)),
+                Arrays.toString(result.getResponse().getContentAsByteArray()));
+
+        mockMvc.perform(get("/media/" + key).header(HttpHeaders.RANGE, "bytes=" + png.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void thumbnailIsGeneratedInBackground() throws Exception {
+        mockMvc.perform(get("/media/thumb/" + key)).andExpect(status().isOk());
+        for (int i = 0; i < 100 && !Files.exists(imageStore.thumbnail(key, thumbnailGenerator.getWidth())); i++) {
+            Thread.sleep(50);
+        }
+        BufferedImage thumbnail = ImageIO.read(imageStore.thumbnail(key, thumbnailGenerator.getWidth()).toFile());
+        assertEquals(thumbnailGenerator.getWidth(), thumbnail.getWidth());
+
+        mockMvc.perform(get("/media/thumb/" + key))
+                .andExpect(header().string(HttpHeaders.ETAG,
+                        "\"" + ImageStore.hash(key) + "-w" + thumbnailGenerator.getWidth() + "\""));
+    }
+
+    @Test
+    void undecodableImageIsMarkedOnceAndServedAsOriginal() throws Exception {
+        // RIFF....WEBP: nhận là WebP khi tải lên nhưng ImageIO không đọc được
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 not really an image".getBytes(StandardCharsets.US_ASCII);
+        String webpKey = imageStore.store(new ByteArrayInputStream(webp));
+        mockMvc.perform(get("/media/thumb/" + webpKey)).andExpect(status().isOk());
+        for (int i = 0; i < 100 && !thumbnailGenerator.isUnsupported(webpKey); i++) {
+            Thread.sleep(50);
+        }
+
+        assertTrue(thumbnailGenerator.isUnsupported(webpKey));
+        assertFalse(thumbnailGenerator.submit(webpKey));
+        mockMvc.perform(get("/media/thumb/" + webpKey))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ImageStore.hash(webpKey) + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"));
+    }
+
+    @Test
+    void rejectsMalformedKeys() throws Exception {
+        mockMvc.perform(get("/media/not-a-hash.png")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void legacyImageValuesKeepTheirOldUrl() throws Exception {
+        Product legacy = productService.save(new Product(null, "Legacy lamp", "d", 1.0, 1, "/images/legacy-lamp.jpg", null));
+        Product stored = productService.save(new Product(null, "Stored lamp", "d", 1.0, 1, key, null));
+        Cookie admin = new Cookie(SessionManager.COOKIE_NAME,
+                sessionManager.createSession(new SessionPrincipal(1L, "admin", "admin")));
+
+        assertTrue(editPage(legacy, admin).contains("src=\"/images/legacy-lamp.jpg\""));
+        assertTrue(editPage(stored, admin).contains("src=\"/media/thumb/" + key + "\""));
+        assertEquals("https://cdn.example.com/a.png", imageStore.thumbnailUrl("https://cdn.example.com/a.png"));
+        assertEquals("/media/" + key, imageStore.url(key));
+    }
+
+    private String editPage(Product product, Cookie cookie) throws Exception {
+        return mockMvc.perform(get("/admin/products/edit/" + product.getId()).cookie(cookie))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
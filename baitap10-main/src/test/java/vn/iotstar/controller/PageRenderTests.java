@@ -0,0 +1,105 @@
+package vn.iotstar.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.entity.Category;
+import vn.iotstar.entity.Product;
+import vn.iotstar.entity.User;
+import vn.iotstar.repository.UserRepository;
+import vn.iotstar.service.CategoryService;
+import vn.iotstar.service.ProductService;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/**
+ * Với spring.jpa.open-in-view=false, mọi trang phải render được mà không cần EntityManager mở
+ * trong lúc render: view chỉ đọc projection hoặc dữ liệu đã fetch trong service.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PageRenderTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    private Category category;
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        String suffix = Long.toString(System.nanoTime() % 1_000_000_000L);
+        category = categoryService.save(new Category(null, "Render " + suffix));
+        product = productService.save(new Product(null, "Render product " + suffix, "description", 12.5, 3, null, category));
+        user = userRepository.save(new User(null, "r" + suffix, "r" + suffix + "@example.com", "secret1", "user"));
+    }
+
+    @Test
+    void openInViewIsDisabled() {
+        assertEquals(0, context.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length);
+    }
+
+    @Test
+    void everyPageRenders() throws Exception {
+        Cookie admin = login(new SessionPrincipal(1L, "admin", "admin"));
+        Cookie shopper = login(SessionPrincipal.of(user));
+
+        render(null, List.of("/login"));
+        render(admin, List.of(
+                "/admin/home",
+                "/admin/categories", "/admin/categories/add", "/admin/categories/edit/" + category.getId(),
+                "/admin/categories/search?name=Render",
+                "/admin/products", "/admin/products/add", "/admin/products/edit/" + product.getId(),
+                "/admin/products/import", "/admin/products/search?name=Render",
+                "/admin/products/export?format=csv", "/admin/products/export?format=ndjson",
+                "/admin/users", "/admin/users/add", "/admin/users/edit/" + user.getId(),
+                "/admin/users/search?name=" + user.getUsername(), "/admin/users/autocomplete?q=r",
+                "/admin/metrics", "/admin/metrics/data",
+                "/admin/audit"));
+        render(shopper, List.of(
+                "/user/home", "/user/profile", "/user/categories",
+                "/user/products", "/user/products?category=" + category.getId() + "&inStock=true"));
+    }
+
+    private void render(Cookie cookie, List<String> urls) throws Exception {
+        for (String url : urls) {
+            MvcResult result = mockMvc.perform(cookie == null ? get(url) : get(url).cookie(cookie)).andReturn();
+            assertEquals(200, result.getResponse().getStatus(), url);
+            assertFalse(result.getResponse().getContentAsString().isEmpty(), url);
+        }
+    }
+
+    private Cookie login(SessionPrincipal principal) {
+        return new Cookie(SessionManager.COOKIE_NAME, sessionManager.createSession(principal));
+    }
+}
@@ -0,0 +1,86 @@
+package vn.iotstar.controller.admin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.entity.Category;
+import vn.iotstar.entity.Product;
+import vn.iotstar.repository.CategoryRepository;
+import vn.iotstar.repository.ProductRepository;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+/**
+ * Statistics của Hibernate đếm cả câu lệnh của các job @Scheduled, nên kéo dài chu kỳ của chúng
+ * để chỉ còn câu lệnh của request được đếm.
+ */
+@SpringBootTest(properties = {
+        "app.page.size=100",
+        "app.mail.poll-interval-ms=3600000",
+        "app.facets.stock-refresh-ms=3600000"
+})
+@AutoConfigureMockMvc
+class ProductListQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    private String adminToken;
+
+    @Test
+    void productListPageIssuesSameNumberOfStatementsRegardlessOfRowCount() throws Exception {
+        seed(5);
+        long fewRows = statementsForListPage();
+
+        seed(60);
+        long manyRows = statementsForListPage();
+
+        assertEquals(fewRows, manyRows);
+    }
+
+    private long statementsForListPage() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/admin/products").cookie(new Cookie(SessionManager.COOKIE_NAME, adminToken)))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            // Mỗi sản phẩm một danh mục riêng để N+1 (nếu có) lộ ra ngay
+            Category category = categoryRepository.save(new Category(null, "category-" + System.nanoTime()));
+            productRepository.save(new Product(null, "product " + i, "description ".repeat(50),
+                    10.0 + i, i, null, category));
+        }
+    }
+
+    @BeforeEach
+    void login() {
+        adminToken = sessionManager.createSession(new SessionPrincipal(1L, "admin", "admin"));
+    }
+}
@@ -0,0 +1,158 @@
+package vn.iotstar.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.entity.Category;
+import vn.iotstar.repository.CategoryRepository;
+import vn.iotstar.service.CategoryService;
+
+/**
+ * Hai H2 in-memory đóng vai primary và replica (không sao chép dữ liệu), nên dữ liệu
+ * trả về cho biết truy vấn đã chạy ở đâu.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rw_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.urls=jdbc:h2:mem:rw_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "app.datasource.replica.health-check-ms=3600000",
+        "app.datasource.replica.eject-ms=3600000"
+})
+@DirtiesContext
+class ReplicaRoutingTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @BeforeEach
+    void copySchemaToReplica() throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (Connection primary = primaryDataSource.getConnection();
+             Statement statement = primary.createStatement();
+             ResultSet rs = statement.executeQuery("SCRIPT NODATA")) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (!sql.startsWith("CREATE USER")) {
+                    ddl.add(sql);
+                }
+            }
+        }
+        try (Connection replica = replica().getConnection(); Statement statement = replica.createStatement()) {
+            if (replica.getMetaData().getTables(null, null, "categories", null).next()) {
+                return;
+            }
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void annotatedReadsGoToReplica() throws SQLException {
+        Category saved = categoryService.save(new Category(null, "Sách"));
+        insertOnReplica(saved.getId(), "Sách (replica)");
+        // Request mới, không mang cookie của lần ghi ở trên
+        bind(new MockHttpServletRequest());
+        long routed = replicaPool.getRouted();
+
+        assertEquals("Sách (replica)", seen(saved));
+        assertEquals("Sách (replica)",
+                categoryService.findPage(saved.getId() - 1, 1).getContent().get(0).getCategoryName());
+        assertEquals(routed + 2, replicaPool.getRouted());
+        // Không có @ReplicaRead: vẫn đọc primary
+        assertEquals("Sách", categoryRepository.findById(saved.getId()).orElseThrow().getCategoryName());
+    }
+
+    @Test
+    void writesPinTheRequestAndFollowingRequestsToPrimary() throws SQLException {
+        MockHttpServletResponse response = bind(new MockHttpServletRequest());
+        Category saved = categoryService.save(new Category(null, "Đồ chơi"));
+        insertOnReplica(saved.getId(), "Đồ chơi (replica)");
+
+        assertEquals("Đồ chơi", seen(saved));
+        Cookie cookie = response.getCookie(RoutingContext.COOKIE_NAME);
+        assertNotNull(cookie);
+
+        // Request kế tiếp (sau redirect) gửi kèm cookie: vẫn thấy dữ liệu vừa ghi
+        MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(cookie);
+        bind(next);
+        assertEquals("Đồ chơi", seen(saved));
+
+        bind(new MockHttpServletRequest());
+        assertEquals("Đồ chơi (replica)", seen(saved));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void failingReplicaIsEjectedAndReadsFallBackToPrimary() {
+        Category saved = categoryService.save(new Category(null, "Điện tử"));
+        replica().close();
+        bind(new MockHttpServletRequest());
+        long fallbacks = replicaPool.getFallbacks();
+
+        assertEquals("Điện tử", seen(saved));
+        assertEquals(0, replicaPool.getHealthyCount());
+        assertEquals(1, replicaPool.getEjections());
+        // Replica đã bị loại: lần đọc sau không thử lại mà đi thẳng primary
+        assertEquals("Điện tử", seen(saved));
+        assertTrue(replicaPool.getFallbacks() >= fallbacks + 2);
+    }
+
+    private String seen(Category category) {
+        return categoryService.searchPage(category.getCategoryName(), category.getId() - 1, 1)
+                .getContent().get(0).getCategoryName();
+    }
+
+    private HikariDataSource replica() {
+        return replicaPool.getReplicas().get(0).getDataSource();
+    }
+
+    private void insertOnReplica(long id, String name) throws SQLException {
+        try (Connection replica = replica().getConnection(); Statement statement = replica.createStatement()) {
+            // Kết nối replica là read-only ở tầng pool; H2 vẫn cho ghi, đủ để chuẩn bị dữ liệu
+            statement.executeUpdate("INSERT INTO categories (id, category_name) VALUES (" + id + ", '" + name + "')");
+        }
+    }
+
+    private static MockHttpServletResponse bind(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+}
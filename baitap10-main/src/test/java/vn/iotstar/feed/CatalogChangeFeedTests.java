@@ -0,0 +1,226 @@
+package vn.iotstar.feed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import vn.iotstar.entity.Product;
+import vn.iotstar.service.ProductService;
+import vn.iotstar.service.StockService;
+
+@SpringBootTest(properties = {
+        // Test tự gọi flush(), không để lịch chạy xen vào
+        "app.feed.window-ms=3600000",
+        "app.feed.session-buffer=4"
+})
+class CatalogChangeFeedTests {
+
+    private static final int FAST_SESSIONS = 5_000;
+    private static final int SLOW_SESSIONS = 50;
+
+    @Autowired
+    private CatalogChangeFeed changeFeed;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void coalescesChangesAndSlowSubscribersDoNotBlockFanOut() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        List<FakeSession> fast = new ArrayList<>();
+        List<FakeSession> slow = new ArrayList<>();
+        for (int i = 0; i < FAST_SESSIONS; i++) {
+            fast.add(subscribe(new FakeSession("fast-" + i, null)));
+        }
+        for (int i = 0; i < SLOW_SESSIONS; i++) {
+            slow.add(subscribe(new FakeSession("slow-" + i, unblock)));
+        }
+        try {
+            Product product = productService.save(new Product(null, "Feed item", null, 100.0, 10, null, null));
+            changeFeed.flush(); // bỏ qua thay đổi do tạo mới
+            awaitTrue(() -> fast.stream().allMatch(s -> s.messages.size() == 1));
+
+            // 20 lần sửa giá + 1 lần giữ chỗ trong cùng một cửa sổ => đúng một tin cho mỗi session
+            for (int i = 1; i <= 20; i++) {
+                product.setPrice(100.0 + i);
+                productService.save(product);
+            }
+            stockService.reserve(product.getId(), 3, 1L);
+            changeFeed.flush();
+            awaitTrue(() -> fast.stream().allMatch(s -> s.messages.size() == 2));
+            JsonNode change = objectMapper.readTree(fast.get(0).messages.get(1));
+            assertEquals(1, change.get("products").size());
+            JsonNode item = change.get("products").get(0);
+            assertEquals(product.getId().longValue(), item.get("id").asLong());
+            assertEquals(120.0, item.get("price").asDouble());
+            assertEquals(7, item.get("quantity").asLong());
+
+            // Client chậm đang kẹt trong sendMessage: fan-out vẫn phải xong ngay, hàng đợi của chúng không phình
+            long started = System.nanoTime();
+            for (int i = 0; i < 30; i++) {
+                product.setPrice(200.0 + i);
+                productService.save(product);
+                changeFeed.flush();
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            assertTrue(elapsedMillis < 10_000, "fan-out took " + elapsedMillis + "ms");
+            awaitTrue(() -> fast.stream().allMatch(s -> s.messages.size() == 32));
+            assertTrue(changeFeed.getDropped() > 0);
+        } finally {
+            unblock.countDown();
+        }
+        // Sau khi thông, client chậm vẫn nhận được trạng thái mới nhất
+        awaitTrue(() -> slow.stream().allMatch(s -> !s.messages.isEmpty()
+                && s.messages.get(s.messages.size() - 1).contains("\"price\":229.0")));
+        assertTrue(slow.stream().allMatch(s -> s.messages.size() <= 2 + 1 + 4));
+
+        fast.forEach(s -> changeFeed.unsubscribe(s));
+        slow.forEach(s -> changeFeed.unsubscribe(s));
+        assertEquals(0, changeFeed.getSubscribers());
+    }
+
+    private FakeSession subscribe(FakeSession session) {
+        changeFeed.subscribe(session);
+        return session;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    /** Session giả: ghi lại tin nhận được; nếu có latch thì mỗi lần gửi chờ tới khi latch mở (client chậm). */
+    private static final class FakeSession implements WebSocketSession {
+        private final String id;
+        private final CountDownLatch latch;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        FakeSession(String id, CountDownLatch latch) {
+            this.id = id;
+            this.latch = latch;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(((TextMessage) message).getPayload());
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/user/feed");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package vn.iotstar.mail;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import vn.iotstar.entity.MailOutbox;
+import vn.iotstar.entity.User;
+import vn.iotstar.model.RegistrationResult;
+import vn.iotstar.repository.MailOutboxRepository;
+import vn.iotstar.service.MailService;
+import vn.iotstar.service.UserService;
+
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        // Test tự gọi dispatch()
+        "app.mail.poll-interval-ms=3600000",
+        "app.mail.backoff-initial-ms=60000"
+})
+@AutoConfigureMockMvc
+class MailDispatcherTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private MailOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void registrationQueuesMailAndDispatcherSendsIt() throws Exception {
+        mockMvc.perform(post("/register")
+                        .param("username", "mailuser")
+                        .param("email", "mailuser@example.com")
+                        .param("password", "secret123"))
+                .andExpect(status().isOk());
+
+        // Request đã xong mà chưa có kết nối SMTP nào
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        MailOutbox queued = find("mailuser@example.com");
+        assertEquals(MailOutbox.Status.PENDING, queued.getStatus());
+
+        mailDispatcher.dispatch();
+
+        assertEquals(1, receivedBy("mailuser@example.com"));
+        MailOutbox sent = outboxRepository.findById(queued.getId()).orElseThrow();
+        assertEquals(MailOutbox.Status.SENT, sent.getStatus());
+        assertNotNull(sent.getSentAt());
+        assertTrue(meterRegistry.get(MailDispatcher.SEND_TIMER).timer().count() >= 1);
+    }
+
+    @Test
+    void noMailIsQueuedWhenRegistrationFails() {
+        User first = new User(null, "dupmail1", "dup@example.com", "secret123", "user");
+        userService.register(first);
+        long queued = outboxRepository.count();
+
+        User second = new User(null, "dupmail2", "dup@example.com", "secret123", "user");
+        assertEquals(RegistrationResult.EMAIL_TAKEN, userService.register(second));
+        assertEquals(queued, outboxRepository.count());
+        // Outbox chỉ được ghi bên trong transaction của nghiệp vụ
+        assertThrows(IllegalTransactionStateException.class,
+                () -> mailService.queue("nobody@example.com", "subject", "body"));
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoff() throws Exception {
+        userService.register(new User(null, "retryuser", "retry@example.com", "secret123", "user"));
+        MailOutbox queued = find("retry@example.com");
+
+        greenMail.stop();
+        Instant before = Instant.now();
+        mailDispatcher.dispatch();
+        MailOutbox failed = outboxRepository.findById(queued.getId()).orElseThrow();
+        assertEquals(MailOutbox.Status.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        // backoff-initial-ms=60000, jitter ±20%
+        assertTrue(failed.getNextAttemptAt().isAfter(before.plusSeconds(45)));
+        assertTrue(mailDispatcher.getPending() >= 1);
+
+        // Chưa đến hạn: lần quét sau không gửi lại
+        greenMail.start();
+        mailDispatcher.dispatch();
+        assertEquals(0, receivedBy("retry@example.com"));
+
+        outboxRepository.reschedule(queued.getId(), Instant.now().minusSeconds(1), failed.getLastError());
+        mailDispatcher.dispatch();
+        assertEquals(1, receivedBy("retry@example.com"));
+        MailOutbox sent = outboxRepository.findById(queued.getId()).orElseThrow();
+        assertEquals(MailOutbox.Status.SENT, sent.getStatus());
+        assertEquals(2, sent.getAttempts());
+    }
+
+    private static long receivedBy(String recipient) throws Exception {
+        long count = 0;
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            if (recipient.equals(message.getAllRecipients()[0].toString())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private MailOutbox find(String recipient) {
+        return outboxRepository.findAll().stream()
+                .filter(m -> recipient.equals(m.getRecipient()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
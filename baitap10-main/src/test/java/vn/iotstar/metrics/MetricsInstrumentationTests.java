@@ -0,0 +1,56 @@
+package vn.iotstar.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsInstrumentationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Test
+    void productListIsTimedPerLayer() throws Exception {
+        Cookie admin = new Cookie(SessionManager.COOKIE_NAME,
+                sessionManager.createSession(new SessionPrincipal(1L, "admin", "admin")));
+        mockMvc.perform(get("/admin/products").cookie(admin)).andExpect(status().isOk());
+
+        Timer handler = registry.find(TimingInterceptor.HANDLER_TIMER).tag("uri", "/admin/products").timer();
+        Timer render = registry.find(TimingInterceptor.RENDER_TIMER).tag("uri", "/admin/products").timer();
+        assertNotNull(handler);
+        assertNotNull(render);
+        assertTrue(render.count() >= 1);
+
+        Timer service = registry.find(ServiceTimingAspect.SERVICE_TIMER)
+                .tag("class", "ProductServiceImpl").tag("method", "findPage").timer();
+        assertNotNull(service);
+        assertTrue(registry.get(MetricsConfig.QUERY_TIMER).timer().count() > 0);
+
+        mockMvc.perform(get("/admin/metrics/data").cookie(admin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.services").isArray())
+                .andExpect(jsonPath("$.queries.count").isNumber());
+    }
+}
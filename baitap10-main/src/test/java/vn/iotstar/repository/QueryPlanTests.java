@@ -0,0 +1,199 @@
+package vn.iotstar.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.iotstar.entity.MailOutbox;
+
+/**
+ * Chạy EXPLAIN cho câu SQL mà Hibernate sinh ra từ các truy vấn nóng của repository và
+ * thất bại nếu bảng nào bị quét toàn bộ. Mặc định chạy trên H2 (chế độ MySQL); trỏ
+ * spring.datasource.url tới MySQL để kiểm tra cùng bộ truy vấn trên MySQL thật.
+ * Tìm theo chuỗi con (LIKE '%x%') không nằm trong danh sách: đã có chỉ mục trigram trong bộ nhớ.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "vn.iotstar.repository.QueryPlanTests$LastSelect")
+class QueryPlanTests {
+    private static final int PRODUCTS = 5_000;
+    private static final int CATEGORIES = 50;
+    private static final int USERS = 1_000;
+    // H2 ghi điều kiện sau tên chỉ mục ("/* public.idx: id > ?1 */"); không có điều kiện là quét
+    // toàn bộ, kể cả tableScan lẫn duyệt hết một chỉ mục
+    private static final Pattern H2_FULL_SCAN = Pattern.compile("/\\*\\s+[\\w$]+\\.[\\w$.]+\\s+\\*/");
+
+    /** Giữ câu SELECT cuối cùng Hibernate phát ra trên luồng hiện tại. */
+    public static class LastSelect implements StatementInspector {
+        private static final ThreadLocal<String> SQL = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.regionMatches(true, 0, "select", 0, 6)) {
+                SQL.set(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class) >= PRODUCTS) {
+            return;
+        }
+        List<Object[]> categories = new ArrayList<>();
+        for (int c = 1; c <= CATEGORIES; c++) {
+            categories.add(new Object[] { "Plan category " + c });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO categories (category_name) VALUES (?)", categories);
+        Long firstCategory = jdbcTemplate.queryForObject("SELECT MIN(id) FROM categories", Long.class);
+        List<Object[]> products = new ArrayList<>();
+        for (int i = 1; i <= PRODUCTS; i++) {
+            products.add(new Object[] { "Product " + i, "Mô tả " + i, 1000.0 * i, i % 7, firstCategory + i % CATEGORIES });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (title, description, price, quantity, category_id)"
+                + " VALUES (?, ?, ?, ?, ?)", products);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[] { "plan" + i, "plan" + i + "@example.com", "x", "user" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, ?)", users);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> mails = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            mails.add(new Object[] { "plan" + i + "@example.com", "s", "b", i % 10 == 0 ? "PENDING" : "SENT", now, now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO mail_outbox (recipient, subject, body, status, attempts, next_attempt_at,"
+                + " created_at) VALUES (?, ?, ?, ?, 1, ?, ?)", mails);
+        // Cập nhật thống kê để planner ước lượng đúng độ chọn lọc
+        jdbcTemplate.execute(isMySql() ? "ANALYZE TABLE categories, products, users, mail_outbox" : "ANALYZE");
+    }
+
+    @Test
+    void productQueriesUseIndexes() throws SQLException {
+        long category = jdbcTemplate.queryForObject("SELECT MIN(id) FROM categories", Long.class) + 3;
+        long id = jdbcTemplate.queryForObject("SELECT MIN(id) FROM products", Long.class) + 100;
+
+        assertIndexed(() -> productRepository.findById(id), id);
+        assertIndexed(() -> productRepository.findListItems(id, PageRequest.ofSize(21)), id, 21);
+        String byCategory = assertIndexed(() -> productRepository.findListItemsByCategory(category, 0L,
+                PageRequest.ofSize(21)), category, 0L, 21);
+        assertTrue(byCategory.contains("idx_products_category_id"), byCategory);
+        assertIndexed(() -> productRepository.findListItemsByIdIn(List.of(id, id + 1, id + 2)), id, id + 1, id + 2);
+        assertIndexed(() -> productRepository.findFacetViews(id, PageRequest.ofSize(500)), id, 500);
+        assertIndexed(() -> productRepository.findTitlesByIdGreaterThanOrderByIdAsc(id, Limit.of(500)), id, 500);
+    }
+
+    @Test
+    void categoryAndUserQueriesUseIndexes() throws SQLException {
+        assertIndexed(() -> categoryRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(21)), 10L, 21);
+        assertIndexed(() -> userRepository.findByUsername("plan42"), "plan42");
+        assertIndexed(() -> userRepository.findByUsernameAndIdGreaterThanOrderByIdAsc("plan42", 0L, Limit.of(21)),
+                "plan42", 0L, 21);
+        assertIndexed(() -> userRepository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(21)), 100L, 21);
+        assertIndexed(() -> userRepository.findNamesByIdGreaterThanOrderByIdAsc(100L, Limit.of(5000)), 100L, 5000);
+        assertIndexed(() -> cacheVersionRepository.findVersion("categories"), "categories");
+    }
+
+    @Test
+    void mailOutboxPollingUsesDueIndex() throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        assertIndexed(() -> mailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                MailOutbox.Status.PENDING, Instant.now(), Limit.of(50)), "PENDING", now, 50);
+        assertIndexed(() -> mailOutboxRepository.countByStatus(MailOutbox.Status.PENDING), "PENDING");
+    }
+
+    /**
+     * Gọi truy vấn, lấy câu SQL vừa sinh và EXPLAIN với đúng các tham số (theo thứ tự xuất hiện).
+     * Trả về kế hoạch thực thi để kiểm tra thêm chỉ mục cụ thể.
+     */
+    private String assertIndexed(Runnable query, Object... parameters) throws SQLException {
+        LastSelect.SQL.remove();
+        query.run();
+        String sql = LastSelect.SQL.get();
+        assertNotNull(sql, "không bắt được câu SQL");
+        assertEquals(parameters.length, sql.chars().filter(ch -> ch == '?').count(), sql);
+
+        List<String> scans = new ArrayList<>();
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                explain.setObject(i + 1, parameters[i]);
+            }
+            boolean mysql = isMySql(connection);
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    if (mysql) {
+                        // Mỗi dòng là một bảng; type=ALL nghĩa là quét toàn bảng
+                        plan.append(rs.getString("table")).append(':').append(rs.getString("type")).append(' ');
+                        if ("ALL".equals(rs.getString("type"))) {
+                            scans.add(rs.getString("table"));
+                        }
+                    } else {
+                        String text = rs.getString(1);
+                        plan.append(text);
+                        H2_FULL_SCAN.matcher(text).results().forEach(m -> scans.add(m.group()));
+                    }
+                }
+            }
+        }
+        assertFalse(plan.isEmpty(), sql);
+        assertEquals(List.of(), scans, () -> "quét toàn bảng:\n" + sql + "\n" + plan);
+        return plan.toString();
+    }
+
+    private boolean isMySql() {
+        try (Connection connection = dataSource.getConnection()) {
+            return isMySql(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+}
@@ -0,0 +1,155 @@
+package vn.iotstar.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import vn.iotstar.entity.Category;
+import vn.iotstar.entity.Product;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductFacets;
+import vn.iotstar.model.ProductFilter;
+import vn.iotstar.model.ProductListItem;
+import vn.iotstar.service.CategoryService;
+import vn.iotstar.service.ProductService;
+import vn.iotstar.service.StockService;
+import vn.iotstar.stock.Reservation;
+
+@SpringBootTest
+class ProductFacetIndexTests {
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Test
+    void filtersAndCountsAcrossFacets() {
+        Category phones = categoryService.save(new Category(null, "facet-phones"));
+        Category laptops = categoryService.save(new Category(null, "facet-laptops"));
+        Product cheapPhone = save("cheap phone", 50_000, 3, phones);
+        Product midPhone = save("mid phone", 300_000, 0, phones);
+        Product midLaptop = save("mid laptop", 450_000, 7, laptops);
+        Product bigLaptop = save("big laptop", 5_000_000, 2, laptops);
+
+        assertEquals(List.of(cheapPhone.getId(), midPhone.getId()),
+                ids(new ProductFilter(List.of(phones.getId()), null, false)));
+        assertEquals(List.of(cheapPhone.getId(), midLaptop.getId(), bigLaptop.getId()),
+                ids(new ProductFilter(List.of(phones.getId(), laptops.getId()), null, true)));
+        // Band 1 = [100.000, 500.000)
+        assertEquals(List.of(midPhone.getId(), midLaptop.getId()),
+                ids(new ProductFilter(List.of(phones.getId(), laptops.getId()), List.of(1), false)));
+
+        ProductFacets facets = productService.facets(new ProductFilter(List.of(phones.getId()), List.of(1), false));
+        assertEquals(1, facets.getTotal());
+        // Số đếm danh mục bỏ qua chính facet danh mục: phones 1 (mid phone), laptops 1 (mid laptop)
+        Map<String, Long> categoryCounts = counts(facets.getCategories());
+        assertEquals(1L, categoryCounts.get(String.valueOf(phones.getId())));
+        assertEquals(1L, categoryCounts.get(String.valueOf(laptops.getId())));
+        // Số đếm khoảng giá chỉ áp bộ lọc danh mục: phones có 1 sản phẩm band 0, 1 sản phẩm band 1
+        Map<String, Long> bandCounts = counts(facets.getPriceBands());
+        assertEquals(1L, bandCounts.get("0"));
+        assertEquals(1L, bandCounts.get("1"));
+        assertEquals(0L, facets.getInStock());
+
+        productService.deleteById(cheapPhone.getId());
+        assertEquals(List.of(midPhone.getId()), ids(new ProductFilter(List.of(phones.getId()), null, false)));
+
+        midLaptop.setCategory(phones);
+        productService.save(midLaptop);
+        assertEquals(List.of(midLaptop.getId()), ids(new ProductFilter(List.of(phones.getId()), null, true)));
+
+        facetIndex.rebuild();
+        assertEquals(List.of(midPhone.getId(), midLaptop.getId()),
+                ids(new ProductFilter(List.of(phones.getId()), null, false)));
+    }
+
+    @Test
+    void stockChangesAreBatchedIntoInStockFacet() {
+        Category tablets = categoryService.save(new Category(null, "facet-tablets"));
+        Product tablet = save("tablet", 900_000, 2, tablets);
+        ProductFilter inStock = new ProductFilter(List.of(tablets.getId()), null, true);
+        assertEquals(List.of(tablet.getId()), ids(inStock));
+
+        // Giữ chỗ chỉ đánh dấu sản phẩm; chỉ mục đổi sau lần tính lại theo lô
+        Reservation reservation = stockService.reserve(tablet.getId(), 2, 1L);
+        facetIndex.refreshStock();
+        assertTrue(ids(inStock).isEmpty());
+
+        stockService.release(reservation.getId(), 1L);
+        facetIndex.refreshStock();
+        assertEquals(List.of(tablet.getId()), ids(inStock));
+        assertFalse(ids(new ProductFilter(List.of(tablets.getId()), List.of(0), false)).contains(tablet.getId()));
+    }
+
+    @Test
+    void filtersInSqlWhileIndexIsWarming() {
+        Category cameras = categoryService.save(new Category(null, "facet-cameras"));
+        Category lenses = categoryService.save(new Category(null, "facet-lenses"));
+        Product cheapCamera = save("cheap camera", 80_000, 1, cameras);
+        Product midCamera = save("mid camera", 300_000, 0, cameras);
+        Product bigCamera = save("big camera", 900_000, 4, cameras);
+        Product cheapLens = save("cheap lens", 100_000, 2, lenses);
+        Product hugeLens = save("huge lens", 20_000_000, 1, lenses);
+        List<Long> both = List.of(cameras.getId(), lenses.getId());
+        List<ProductFilter> filters = List.of(
+                new ProductFilter(List.of(cameras.getId()), null, false),
+                new ProductFilter(both, null, true),
+                // Band 0 và 2 không liền nhau: khoảng SQL bao cả band 1, phải lọc lại
+                new ProductFilter(both, List.of(0, 2), false),
+                new ProductFilter(both, List.of(4), true),
+                new ProductFilter(both, List.of(99), false));
+
+        List<List<Long>> fromIndex = filters.stream().map(this::ids).toList();
+        facetIndex.setReady(false);
+        try {
+            assertEquals(fromIndex, filters.stream().map(this::ids).toList());
+        } finally {
+            facetIndex.setReady(true);
+        }
+        assertEquals(List.of(cheapCamera.getId(), midCamera.getId(), bigCamera.getId()), fromIndex.get(0));
+        assertEquals(List.of(cheapCamera.getId(), bigCamera.getId(), cheapLens.getId(), hugeLens.getId()),
+                fromIndex.get(1));
+        assertEquals(List.of(cheapCamera.getId(), bigCamera.getId()), fromIndex.get(2));
+        assertEquals(List.of(hugeLens.getId()), fromIndex.get(3));
+        assertTrue(fromIndex.get(4).isEmpty());
+    }
+
+    private Product save(String title, double price, int quantity, Category category) {
+        return productService.save(new Product(null, title, null, price, quantity, null, category));
+    }
+
+    private List<Long> ids(ProductFilter filter) {
+        List<Long> ids = new ArrayList<>();
+        Long cursor = null;
+        do {
+            // Trang nhỏ để đi qua cả phân trang keyset
+            KeysetPage<ProductListItem> page = productService.filterPage(filter, cursor, 2);
+            page.getContent().forEach(item -> ids.add(item.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static Map<String, Long> counts(List<ProductFacets.FacetValue> values) {
+        Map<String, Long> counts = new HashMap<>();
+        values.forEach(value -> counts.put(value.getValue(), value.getCount()));
+        return counts;
+    }
+}
@@ -0,0 +1,119 @@
+package vn.iotstar.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import vn.iotstar.entity.Product;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.model.ProductListItem;
+import vn.iotstar.service.ProductImportService;
+import vn.iotstar.service.ProductService;
+
+@SpringBootTest
+class ProductSearchIndexTests {
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Test
+    void trigramIndexFindsSubstringsInIdOrder() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1, "Wireless Mouse");
+        index.add(2, "Gaming mouse pad");
+        index.add(3, "Wired keyboard");
+        index.add(4, "Mousetrap");
+
+        assertArrayEquals(new long[] { 1, 2, 4 }, index.candidates("MOUSE", 0L, 10));
+        assertArrayEquals(new long[] { 2, 4 }, index.candidates("mouse", 1L, 10));
+        assertArrayEquals(new long[] { 1 }, index.candidates("mouse", 0L, 1));
+        assertArrayEquals(new long[] { 1, 3 }, index.candidates("wire", 0L, 10));
+        assertEquals(0, index.candidates("zebra", 0L, 10).length);
+        // Ngắn hơn một trigram: chỉ mục không trả lời được
+        assertNull(index.candidates("mo", 0L, 10));
+
+        // Tiêu đề ngắn hơn (ít trigram hơn) xếp trước
+        assertArrayEquals(new long[] { 4, 1, 2 }, index.rank("mouse", 10));
+    }
+
+    @Test
+    void trigramIndexUpdatesAndRemovesDocuments() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(7, "Silver watch");
+        index.add(7, "Golden watch");
+        assertEquals(0, index.candidates("silver", 0L, 10).length);
+        assertArrayEquals(new long[] { 7 }, index.candidates("golden", 0L, 10));
+
+        assertTrue(index.remove(7));
+        assertEquals(0, index.documentCount());
+        assertEquals(0, index.trigramCount());
+        assertEquals(0, index.candidates("watch", 0L, 10).length);
+    }
+
+    @Test
+    void searchPagePagesThroughIndexAndDropsFalsePositives() {
+        String word = "qv" + System.nanoTime() % 100_000;
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(productService.save(product("Lamp " + word + " " + i)).getId());
+        }
+        // Chứa đủ trigram của "xyzw" ("xyz", "yzw") nhưng không chứa chuỗi "xyzw"
+        productService.save(product("Decoy " + word + " xyz yzw"));
+        productService.save(product("Real " + word + " xyzw"));
+        assertTrue(searchIndex.canServe(word));
+
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        do {
+            KeysetPage<ProductListItem> page = productService.searchPage("lamp " + word, cursor, 3);
+            page.getContent().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, seen);
+
+        List<ProductListItem> hits = productService.searchPage(word + " xyzw", null, 10).getContent();
+        assertEquals(1, hits.size());
+        assertTrue(hits.get(0).getTitle().startsWith("Real "));
+
+        productService.deleteById(expected.get(0));
+        assertEquals(6, productService.searchPage("lamp " + word, null, 10).getContent().size());
+    }
+
+    @Test
+    void changesDuringRebuildSurviveTheSwap() throws IOException {
+        String word = "rb" + System.nanoTime() % 100_000;
+        TrigramIndex fresh = searchIndex.load();
+
+        // Ghi sau khi lượt đọc của rebuild đã xong, trước khi hoán đổi
+        Product saved = productService.save(product("Saved " + word));
+        productImportService.importCsv(new ByteArrayInputStream(
+                ("title,price,quantity\nImported " + word + ",1,1\n").getBytes(StandardCharsets.UTF_8)));
+        searchIndex.install(fresh);
+
+        List<ProductListItem> hits = productService.searchPage(word, null, 10).getContent();
+        assertEquals(2, hits.size());
+        assertEquals(saved.getId(), hits.get(0).getId());
+        assertTrue(hits.get(1).getTitle().startsWith("Imported "));
+    }
+
+    private static Product product(String title) {
+        return new Product(null, title, "description", 10.0, 1, null, null);
+    }
+}
@@ -0,0 +1,111 @@
+package vn.iotstar.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.servlet.http.Cookie;
+import vn.iotstar.entity.User;
+import vn.iotstar.model.KeysetPage;
+import vn.iotstar.service.UserService;
+import vn.iotstar.session.SessionManager;
+import vn.iotstar.session.SessionPrincipal;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserSearchIndexTests {
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prefixAndSubstringSearchPageThroughIndex() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            rows.add(new Object[] { "finder" + i, "person" + i + "@finder-corp.vn", "x", "user" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, ?)", rows);
+        searchIndex.rebuild();
+
+        // Tiền tố 2 ký tự, chuỗi con trong email, và không phân biệt hoa thường
+        assertEquals(250, collect("fi").size());
+        assertEquals(250, collect("NDER-CO").size());
+        // finder1, finder10..19, finder100..199
+        assertEquals(111, collect("finder1").size());
+
+        List<User> all = collect("finder-corp");
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getId() < all.get(i).getId());
+        }
+    }
+
+    @Test
+    void saveAndDeleteKeepIndexInSync() {
+        User user = new User(null, "syncme", "syncme@example.com", "secret123", "user");
+        userService.save(user);
+        assertEquals(1, searchIndex.search("yncm", 0L, 10).length);
+        assertEquals("syncme", userService.autocomplete("sync", 5).get(0).username());
+
+        user.setUsername("renamed");
+        user.setEmail("renamed@example.com");
+        user.setPassword("");
+        userService.save(user);
+        assertEquals(0, searchIndex.search("syncm", 0L, 10).length);
+        assertEquals(1, searchIndex.search("renamed", 0L, 10).length);
+
+        userService.deleteById(user.getId());
+        assertEquals(0, searchIndex.search("renamed", 0L, 10).length);
+        assertFalse(userService.autocomplete("syncme", 5).stream().anyMatch(e -> e.id() == user.getId()));
+    }
+
+    @Test
+    void autocompleteRanksUsernamePrefixFirst() throws Exception {
+        userService.save(new User(null, "zeta_mail", "alpha.auto@example.com", "secret123", "user"));
+        userService.save(new User(null, "alpha_auto", "someone@example.com", "secret123", "user"));
+        userService.save(new User(null, "xx_alpha_auto", "other@example.com", "secret123", "user"));
+
+        String admin = sessionManager.createSession(new SessionPrincipal(1L, "admin", "admin"));
+        mockMvc.perform(get("/admin/users/autocomplete").param("q", "alpha")
+                        .cookie(new Cookie(SessionManager.COOKIE_NAME, admin)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("alpha_auto"))
+                .andExpect(jsonPath("$[1].username").value("zeta_mail"))
+                .andExpect(jsonPath("$[2].username").value("xx_alpha_auto"));
+    }
+
+    private List<User> collect(String keyword) {
+        List<User> out = new ArrayList<>();
+        Long cursor = null;
+        do {
+            KeysetPage<User> page = userService.searchPage(keyword, cursor, 40);
+            out.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return out;
+    }
+}
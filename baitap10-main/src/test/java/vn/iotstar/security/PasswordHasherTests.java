@@ -0,0 +1,52 @@
+package vn.iotstar.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * hash-timeout-ms=0: mọi lần băm/kiểm tra bcrypt đều báo bận, nên request nào thật sự chạy
+ * bcrypt đều nhận 503.
+ */
+@SpringBootTest(properties = "app.security.hash-timeout-ms=0")
+@AutoConfigureMockMvc
+class PasswordHasherTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void registerAnswers503WhenHashingIsBusy() throws Exception {
+        mockMvc.perform(post("/register")
+                        .param("username", "busyuser")
+                        .param("email", "busy@example.com")
+                        .param("password", "secret123"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(model().attributeExists("errorRegister"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = 'busyuser'", Integer.class));
+    }
+
+    @Test
+    void unknownUsernameStillRunsBcrypt() throws Exception {
+        // Không có username này: vẫn phải qua pool bcrypt như khi sai mật khẩu
+        mockMvc.perform(post("/login")
+                        .param("username", "nobody-here")
+                        .param("password", "whatever1"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
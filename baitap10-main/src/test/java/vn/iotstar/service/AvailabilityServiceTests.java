@@ -0,0 +1,137 @@
+package vn.iotstar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import vn.iotstar.entity.User;
+import vn.iotstar.model.RegistrationResult;
+import vn.iotstar.service.impl.AvailabilityServiceImpl;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AvailabilityServiceTests {
+
+    @Autowired
+    private AvailabilityServiceImpl availabilityService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void mostFreeNamesAreAnsweredWithoutDatabase() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(new Object[] { "bulk" + i, "bulk" + i + "@example.com", "x", "user" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, role) VALUES (?, ?, ?, ?)", rows);
+        availabilityService.rebuild();
+
+        assertFalse(availabilityService.isUsernameAvailable("bulk42"));
+        assertFalse(availabilityService.isEmailAvailable("bulk42@example.com"));
+
+        long checksBefore = availabilityService.getDatabaseChecks();
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(availabilityService.isUsernameAvailable("free" + i));
+        }
+        long databaseChecks = availabilityService.getDatabaseChecks() - checksBefore;
+        // fpp mặc định 1%: chỉ số ít tên bị filter báo nhầm mới phải hỏi DB
+        assertTrue(databaseChecks < 250, "database checks: " + databaseChecks);
+    }
+
+    @Test
+    void registrationIsDecidedByUniqueConstraint() throws Exception {
+        assertTrue(availabilityService.isUsernameAvailable("racer"));
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Callable<RegistrationResult>> attempts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String email = "racer" + i + "@example.com";
+            attempts.add(() -> userService.register(new User(null, "racer", email, "secret123", "user")));
+        }
+        int created = 0;
+        int taken = 0;
+        for (Future<RegistrationResult> result : pool.invokeAll(attempts)) {
+            if (result.get() == RegistrationResult.CREATED) {
+                created++;
+            } else if (result.get() == RegistrationResult.USERNAME_TAKEN) {
+                taken++;
+            }
+        }
+        pool.shutdown();
+        assertEquals(1, created);
+        assertEquals(threads - 1, taken);
+
+        // Ghi nhận ngay sau khi lưu, không cần chờ dựng lại filter
+        assertFalse(availabilityService.isUsernameAvailable("racer"));
+        assertEquals(RegistrationResult.EMAIL_TAKEN,
+                userService.register(new User(null, "racer2", emailOf("racer"), "secret123", "user")));
+    }
+
+    @Test
+    void otherIntegrityErrorsAreNotReportedAsTaken() {
+        // Email hợp lệ với @Email nhưng dài hơn cột VARCHAR(255): lỗi này không được biến thành "đã tồn tại"
+        String email = "a".repeat(64) + "@" + ("b".repeat(60) + ".").repeat(4) + "com";
+        assertThrows(DataIntegrityViolationException.class, () ->
+                userService.register(new User(null, "longmail", email, "secret123", "user")));
+        assertTrue(availabilityService.isUsernameAvailable("longmail"));
+    }
+
+    @Test
+    void registerFormRejectsInvalidFieldsBeforeWriting() throws Exception {
+        mockMvc.perform(post("/register")
+                        .param("username", "x".repeat(25))
+                        .param("email", "formlong@example.com")
+                        .param("password", "secret123"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("errorRegister", "Username phải từ 4 đến 20 ký tự"));
+        mockMvc.perform(post("/register")
+                        .param("username", "shortpw")
+                        .param("email", "shortpw@example.com")
+                        .param("password", "123"))
+                .andExpect(model().attribute("errorRegister", "Password phải có ít nhất 6 ký tự"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email IN ('formlong@example.com', 'shortpw@example.com')", Integer.class));
+    }
+
+    @Test
+    void checkEndpointReportsBothFields() throws Exception {
+        userService.register(new User(null, "checked", "checked@example.com", "secret123", "user"));
+        mockMvc.perform(get("/register/check").param("username", "checked").param("email", "fresh@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(false))
+                .andExpect(jsonPath("$.email").value(true));
+    }
+
+    private String emailOf(String username) {
+        return jdbcTemplate.queryForObject("SELECT email FROM users WHERE username = ?", String.class, username);
+    }
+}
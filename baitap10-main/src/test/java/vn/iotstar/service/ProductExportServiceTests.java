@@ -0,0 +1,146 @@
+package vn.iotstar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.SessionStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManager;
+import vn.iotstar.model.ExportFormat;
+import vn.iotstar.repository.ProductRepository;
+
+/**
+ * "Bộ nhớ không đổi" ở đây được kiểm tra qua những gì Hibernate giữ lại: số entity/collection
+ * trong persistence context không tăng theo số dòng và cả lần export chỉ là một câu SELECT
+ * (không nạp lười category từng dòng). Heap của JVM và bộ đệm của driver JDBC (MySQL cần
+ * useCursorFetch) không được đo ở đây.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "vn.iotstar.service.ProductExportServiceTests$ThreadStatements")
+class ProductExportServiceTests {
+
+    private static final int ROWS = 20_000;
+
+    /** Đếm câu lệnh Hibernate phát ra trên luồng hiện tại (bỏ qua index dựng nền, job định kỳ). */
+    public static class ThreadStatements implements StatementInspector {
+        private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.get()[0]++;
+            return sql;
+        }
+    }
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Proxy dùng chung: trong lúc export sẽ trỏ tới persistence context của transaction đang chạy
+    @Autowired
+    private EntityManager entityManager;
+
+
+    @Test
+    void exportKeepsPersistenceContextBounded() throws IOException {
+        seed(ROWS / 10);
+        SamplingOutputStream small = export();
+
+        seed(ROWS);
+        long total = productRepository.count();
+        SamplingOutputStream large = export();
+
+        assertEquals(total, large.rows);
+        String csv = large.buffer.toString(StandardCharsets.UTF_8);
+        assertEquals(total + 1, csv.lines().count());
+        assertTrue(large.samples > 0);
+        // Không detach thì con số này sẽ xấp xỉ số dòng đã đọc
+        assertTrue(large.maxManagedEntities <= 2, "managed entities: " + large.maxManagedEntities);
+        assertEquals(small.maxManagedEntities, large.maxManagedEntities);
+        assertEquals(0, large.maxManagedCollections);
+        // Một câu SELECT đọc theo luồng cho cả bảng, dù gấp 10 lần số dòng
+        assertEquals(1, small.statements);
+        assertEquals(1, large.statements);
+    }
+
+    private SamplingOutputStream export() throws IOException {
+        ThreadStatements.COUNT.get()[0] = 0;
+        SamplingOutputStream out = new SamplingOutputStream();
+        out.rows = productExportService.export(ExportFormat.CSV, out);
+        out.statements = ThreadStatements.COUNT.get()[0];
+        return out;
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        seed(10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = productExportService.export(ExportFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(rows, lines.size());
+        assertTrue(lines.get(lines.size() - 1).startsWith("{\"id\":"));
+        assertTrue(lines.get(lines.size() - 1).contains("\"category\":\"export\""));
+    }
+
+    private void seed(int count) {
+        Long categoryId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM categories WHERE category_name = 'export'", Long.class);
+        if (categoryId == null) {
+            jdbcTemplate.update("INSERT INTO categories (category_name) VALUES ('export')");
+            categoryId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM categories WHERE category_name = 'export'", Long.class);
+        }
+        List<Object[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            args.add(new Object[] { "Export item " + i, "Mô tả, có \"dấu phẩy\"", 10.0 + i, i, categoryId });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (title, description, price, quantity, category_id) VALUES (?, ?, ?, ?, ?)", args);
+    }
+
+    /** Ghi nhận số entity đang được quản lý mỗi lần writer đẩy dữ liệu xuống. */
+    private class SamplingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private int maxManagedEntities;
+        private int maxManagedCollections;
+        private int samples;
+        private long rows;
+        private long statements;
+
+        @Override
+        public void write(int b) {
+            sample();
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            sample();
+            buffer.write(b, off, len);
+        }
+
+        private void sample() {
+            SessionStatistics session = entityManager.unwrap(Session.class).getStatistics();
+            maxManagedEntities = Math.max(maxManagedEntities, session.getEntityCount());
+            maxManagedCollections = Math.max(maxManagedCollections, session.getCollectionCount());
+            samples++;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package vn.iotstar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.iotstar.model.ImportReport;
+
+@SpringBootTest(properties = "app.import.max-record-chars=200")
+class ProductImportServiceTests {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void quotedAndMultiLineFieldsAreImported() throws IOException {
+        ImportReport report = importCsv("title,description,price,quantity\r\n"
+                + "\"Quoted, with comma\",\"He said \"\"hi\"\"\",10.5,3\r\n"
+                + "Multi line,\"first line\nsecond line\",2,1\r\n");
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(2, report.getInserted());
+        assertEquals("He said \"hi\"", description("Quoted, with comma"));
+        assertEquals("first line\nsecond line", description("Multi line"));
+    }
+
+    @Test
+    void overlongRecordIsReportedAndImportContinues() throws IOException {
+        String csv = "title,description,price,quantity\n"
+                + "Before long,ok,1,1\n"
+                + "Long row,\"" + "x".repeat(300) + "\",1,1\n"
+                + "After long,ok,1,1\n";
+        ImportReport report = importCsv(csv);
+
+        assertEquals(3, report.getTotalRows());
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getFailed());
+        ImportReport.RowError error = report.getErrors().get(0);
+        assertEquals(3, error.getLine());
+        assertTrue(error.getMessage().contains("200"), error.getMessage());
+        assertEquals(List.of("After long", "Before long"), titles("Before long", "After long"));
+    }
+
+    @Test
+    void recordOfExactlyTheLimitIsImported() throws IOException {
+        String prefix = "Exact limit,";
+        String suffix = ",1,1";
+        String record = prefix + "d".repeat(200 - prefix.length() - suffix.length()) + suffix;
+        ImportReport report = importCsv("title,description,price,quantity\n" + record + "\r\n");
+
+        assertEquals(200, record.length());
+        assertEquals(1, report.getInserted());
+        assertEquals(0, report.getFailed());
+    }
+
+    @Test
+    void overlongNdjsonLineIsReportedAndImportContinues() throws IOException {
+        String ndjson = "{\"title\":\"Json before\",\"price\":\"1\",\"quantity\":\"1\"}\n"
+                + "{\"title\":\"Json long\",\"description\":\"" + "x".repeat(300) + "\",\"price\":\"1\",\"quantity\":\"1\"}\n"
+                + "\n"
+                + "{\"title\":\"Json after\",\"price\":\"1\",\"quantity\":\"1\"}";
+        ImportReport report = productImportService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, report.getTotalRows());
+        assertEquals(2, report.getInserted());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().contains("200"));
+        assertEquals(List.of("Json after", "Json before"), titles("Json before", "Json after"));
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedWithoutReadingTheRestIntoOneField() throws IOException {
+        // Ngoặc kép không đóng nuốt các dòng sau tới giới hạn, rồi đọc tiếp từ dòng kế
+        StringBuilder csv = new StringBuilder("title,description,price,quantity\n")
+                .append("Unclosed,\"never closed,1,1\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append("Swallowed ").append(i).append(",ok,1,1\n");
+        }
+        csv.append("Trailing quote,\"open at end of file");
+        ImportReport report = importCsv(csv.toString());
+
+        assertTrue(report.getFailed() >= 2, "failed: " + report.getFailed());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals(23, report.getErrors().get(report.getErrors().size() - 1).getLine());
+        assertEquals("Unterminated quoted field", report.getErrors().get(report.getErrors().size() - 1).getMessage());
+        assertEquals(report.getTotalRows(), report.getInserted() + report.getFailed());
+        assertTrue(report.getInserted() > 0);
+    }
+
+    private ImportReport importCsv(String csv) throws IOException {
+        return productImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String description(String title) {
+        return jdbcTemplate.queryForObject("SELECT description FROM products WHERE title = ?", String.class, title);
+    }
+
+    private List<String> titles(String... titles) {
+        return jdbcTemplate.queryForList("SELECT title FROM products WHERE title IN (?, ?) ORDER BY title",
+                String.class, (Object[]) titles);
+    }
+}
@@ -0,0 +1,218 @@
+package vn.iotstar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.iotstar.service.impl.StockServiceImpl;
+import vn.iotstar.stock.OutOfStockException;
+import vn.iotstar.stock.Reservation;
+import vn.iotstar.stock.ReservationLimitException;
+import vn.iotstar.stock.UnknownReservationException;
+
+@SpringBootTest(properties = {
+        "app.stock.hot-threshold=5",
+        "app.stock.lease-size=25",
+        "app.stock.stripes=8",
+        "app.stock.max-per-reservation=6",
+        "app.stock.max-held-per-user=10",
+        "app.stock.flush-interval-ms=3600000" // chỉ flush khi test gọi
+})
+class StockServiceTests {
+
+    private static final int STOCK = 5_000;
+    private static final int THREADS = 32;
+    private static final Long USER = 1L;
+
+    @Autowired
+    private StockServiceImpl stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void neverOversellsUnderContention() throws Exception {
+        Long productId = insertProduct(STOCK);
+        // Làm nóng để sản phẩm chuyển sang chế độ thuê lô trong bộ nhớ
+        for (int i = 0; i < 10; i++) {
+            stockService.release(stockService.reserve(productId, 1, USER).getId(), USER);
+        }
+        stockService.flush();
+
+        AtomicLong sold = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long userId = (long) t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int failures = 0;
+                while (failures < 50) {
+                    try {
+                        Reservation reservation = stockService.reserve(productId, 1 + random.nextInt(3), userId);
+                        if (random.nextInt(10) < 7) {
+                            stockService.commit(reservation.getId(), userId);
+                            sold.addAndGet(reservation.getQuantity());
+                        } else {
+                            stockService.release(reservation.getId(), userId);
+                        }
+                    } catch (OutOfStockException e) {
+                        failures++;
+                    }
+                    if (random.nextInt(500) == 0) {
+                        stockService.flush();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertTrue(stockService.getLeases() > 0, "hot path was never used");
+        assertTrue(sold.get() <= STOCK, "oversold: " + sold.get());
+        // Bán nốt phần còn lại từng đơn vị: mọi đơn vị phải bán được đúng một lần
+        while (true) {
+            try {
+                stockService.commit(stockService.reserve(productId, 1, USER).getId(), USER);
+                sold.incrementAndGet();
+            } catch (OutOfStockException e) {
+                break;
+            }
+        }
+        stockService.flushAll();
+        assertEquals(STOCK, sold.get());
+        assertEquals(0, quantity(productId));
+        assertEquals(0, stockService.available(productId));
+    }
+
+    @Test
+    void releaseAndExpiryReturnStock() {
+        Long productId = insertProduct(10);
+        Reservation first = stockService.reserve(productId, 4, 5L);
+        stockService.reserve(productId, 6, 5L);
+        assertThrows(OutOfStockException.class, () -> stockService.reserve(productId, 1, 6L));
+
+        stockService.release(first.getId(), 5L);
+        assertEquals(4, stockService.available(productId));
+        assertThrows(UnknownReservationException.class, () -> stockService.commit(first.getId(), 5L));
+
+        stockService.flushAll();
+        assertEquals(4, quantity(productId));
+    }
+
+    @Test
+    void openReservationsSurviveRestartAndExpire() {
+        Long productId = insertProduct(10);
+        Long user = 9L;
+        Reservation kept = stockService.reserve(productId, 3, user);
+        Reservation abandoned = stockService.reserve(productId, 2, user);
+        stockService.flushAll();
+
+        StockServiceImpl restarted = new StockServiceImpl(jdbcTemplate, event -> { }, 8, 25, 5, 900, 6, 10);
+        restarted.restoreHeld();
+        // 5 hàng đang giữ từ lần chạy trước vẫn tính vào giới hạn 10 mỗi người
+        assertThrows(ReservationLimitException.class, () -> restarted.reserve(productId, 6, user));
+        restarted.commit(kept.getId(), user);
+
+        jdbcTemplate.update("UPDATE stock_reservations SET expires_at = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minusSeconds(1)), abandoned.getId());
+        restarted.flush();
+        assertEquals(7, quantity(productId));
+        assertThrows(UnknownReservationException.class, () -> restarted.release(abandoned.getId(), user));
+    }
+
+    @Test
+    void setQuantityDetectsConcurrentChange() {
+        Long productId = insertProduct(20);
+        long seen = stockService.available(productId);
+        stockService.commit(stockService.reserve(productId, 2, USER).getId(), USER);
+
+        assertFalse(stockService.setQuantity(productId, seen, 50));
+        assertEquals(18, stockService.available(productId));
+        assertTrue(stockService.setQuantity(productId, 18, 50));
+        assertEquals(50, quantity(productId));
+    }
+
+    @Test
+    void onlyOwnerCanCommitOrRelease() {
+        Long productId = insertProduct(10);
+        Reservation reservation = stockService.reserve(productId, 3, USER);
+
+        assertThrows(UnknownReservationException.class, () -> stockService.release(reservation.getId(), 2L));
+        assertThrows(UnknownReservationException.class, () -> stockService.commit(reservation.getId(), 2L));
+        assertEquals(7, stockService.available(productId));
+
+        stockService.release(reservation.getId(), USER);
+        assertEquals(10, stockService.available(productId));
+    }
+
+    @Test
+    void limitsQuantityPerReservationAndPerUser() {
+        Long productId = insertProduct(100);
+        assertThrows(ReservationLimitException.class, () -> stockService.reserve(productId, 7, 3L));
+        assertEquals(100, stockService.available(productId));
+
+        Reservation first = stockService.reserve(productId, 5, 3L);
+        stockService.reserve(productId, 5, 3L);
+        assertThrows(ReservationLimitException.class, () -> stockService.reserve(productId, 1, 3L));
+        // Người khác không bị ảnh hưởng; trả bớt thì được giữ tiếp
+        stockService.reserve(productId, 5, 4L);
+        stockService.release(first.getId(), 3L);
+        stockService.reserve(productId, 5, 3L);
+        assertEquals(85, stockService.available(productId));
+    }
+
+    @Test
+    void poolsOnlyForExistingProductsAndEvictedWhenCold() {
+        stockService.flush();
+        stockService.flush();
+        assertEquals(0, stockService.getPools());
+
+        assertThrows(OutOfStockException.class, () -> stockService.reserve(Long.MAX_VALUE, 1, USER));
+        assertEquals(0, stockService.getPools());
+
+        Long productId = insertProduct(10);
+        Reservation reservation = stockService.reserve(productId, 2, USER);
+        assertEquals(1, stockService.getPools());
+        stockService.flush();
+        assertEquals(0, stockService.getPools());
+
+        // Pool đã gỡ: hàng trả lại về thẳng DB, không mất
+        stockService.release(reservation.getId(), USER);
+        assertEquals(10, quantity(productId));
+        assertEquals(10, stockService.available(productId));
+    }
+
+    private Long insertProduct(int quantity) {
+        jdbcTemplate.update("INSERT INTO products (title, price, quantity) VALUES (?, ?, ?)", "Stock item", 1.0, quantity);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+    }
+
+    private long quantity(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Long.class, productId);
+    }
+}
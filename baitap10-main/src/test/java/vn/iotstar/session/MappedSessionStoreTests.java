@@ -0,0 +1,112 @@
+package vn.iotstar.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedSessionStoreTests {
+    private static final String TOKEN = "0123456789abcdef0123456789abcdef";
+    private static final int SLOTS = 64;
+    private static final int WRITING = 1;
+    private static final long OTHER_NODE = 12_345;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void slotWithExpiredLeaseIsReclaimedOnReopen() throws IOException {
+        Path file = dir.resolve("sessions.dat");
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        try (MappedSessionStore store = new MappedSessionStore(file, SLOTS)) {
+            store.put(TOKEN, new SessionPrincipal(7L, "shopper", "user"), expiresAt);
+        }
+        // Tiến trình trước chết khi đang ghi slot, lease đã hết
+        markWriting(file, OTHER_NODE, nowSeconds() - 1);
+
+        try (MappedSessionStore store = new MappedSessionStore(file, SLOTS)) {
+            assertNull(store.get(TOKEN, System.currentTimeMillis()));
+            store.put(TOKEN, new SessionPrincipal(7L, "shopper", "user"), expiresAt);
+            assertNotNull(store.get(TOKEN, System.currentTimeMillis()));
+            assertEquals(0, countWriting(file));
+        }
+    }
+
+    @Test
+    void slotWithExpiredLeaseIsReclaimedByPurge() throws IOException {
+        Path file = dir.resolve("sessions.dat");
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        try (MappedSessionStore store = new MappedSessionStore(file, SLOTS)) {
+            store.put(TOKEN, new SessionPrincipal(7L, "shopper", "user"), expiresAt);
+            markWriting(file, OTHER_NODE, nowSeconds() - 1);
+            assertNull(store.get(TOKEN, System.currentTimeMillis()));
+            assertFalse(store.touch(TOKEN, expiresAt));
+
+            assertEquals(1, store.purgeExpired(System.currentTimeMillis()));
+            assertEquals(0, countWriting(file));
+            store.put(TOKEN, new SessionPrincipal(7L, "shopper", "user"), expiresAt);
+            assertEquals(7L, store.get(TOKEN, System.currentTimeMillis()).principal().getId());
+        }
+    }
+
+    @Test
+    void slotOfAnotherNodeWithLiveLeaseIsNotReclaimed() throws IOException {
+        // Hai node trong hai container cùng là pid 1: chỉ lease quyết định, không phải pid
+        Path file = dir.resolve("sessions.dat");
+        try (MappedSessionStore store = new MappedSessionStore(file, SLOTS)) {
+            store.put(TOKEN, new SessionPrincipal(7L, "shopper", "user"), System.currentTimeMillis() + 60_000);
+            markWriting(file, OTHER_NODE, nowSeconds() + 60);
+
+            try (MappedSessionStore secondNode = new MappedSessionStore(file, SLOTS)) {
+                assertEquals(1, countWriting(file));
+                assertEquals(0, secondNode.reclaimAbandoned(System.currentTimeMillis()));
+            }
+            assertEquals(0, store.reclaimAbandoned(System.currentTimeMillis()));
+            assertEquals(1, countWriting(file));
+        }
+    }
+
+    /** Đặt slot của TOKEN về WRITING của {@code node} với hạn lease cho trước, như khi đang ghi. */
+    private static void markWriting(Path file, long node, long leaseSeconds) throws IOException {
+        long hi = MappedSessionStore.parse(TOKEN)[0];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+            for (int base = 64; base < buffer.capacity(); base += 128) {
+                if (buffer.getLong(base + 16) == hi) {
+                    buffer.putLong(base, MappedSessionStore.writing(node, leaseSeconds));
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("Token slot not found");
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static int countWriting(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+            int count = 0;
+            for (int base = 64; base < buffer.capacity(); base += 128) {
+                if ((buffer.getLong(base) & 3) == WRITING) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}